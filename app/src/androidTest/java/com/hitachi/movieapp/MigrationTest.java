@@ -0,0 +1,79 @@
+package com.hitachi.movieapp;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.hitachi.movieapp.data.local.AppDatabase;
+import com.hitachi.movieapp.data.local.Migrations;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Upgrades a database of the first released schema to the current one, with the schemas
+ * Room exported to app/schemas.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void testMigrate1To5_KeepsFavoritesAndDetails() throws IOException {
+        // Arrange: a favorite with details, a plain search result, and a row without an IMDb ID
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1);
+        db.execSQL("INSERT INTO movies (title, year, genre, director, writer, actors, plot, poster, imdbID, "
+                + "response, errorMsg, type, isFavorite) VALUES ('Inception', '2010', 'Sci-Fi', "
+                + "'Christopher Nolan', 'Christopher Nolan', 'Leonardo DiCaprio', 'A thief', 'inception.jpg', "
+                + "'tt1375666', 'True', NULL, 'movie', 1)");
+        db.execSQL("INSERT INTO movies (title, year, poster, imdbID, type, isFavorite) "
+                + "VALUES ('Interstellar', '2014', 'interstellar.jpg', 'tt0816692', 'movie', 0)");
+        db.execSQL("INSERT INTO movies (title, isFavorite) VALUES ('No ID', 1)");
+        db.close();
+
+        // Act: every step runs and the result is checked against the current schema
+        db = helper.runMigrationsAndValidate(TEST_DB, 5, true, Migrations.ALL);
+
+        // Assert: the favorite and its details survive, the row without an ID is dropped
+        try (Cursor movies = db.query("SELECT imdbID, title, poster FROM movies ORDER BY imdbID")) {
+            assertEquals(2, movies.getCount());
+            assertTrue(movies.moveToFirst());
+            assertEquals("tt0816692", movies.getString(0));
+            assertTrue(movies.moveToNext());
+            assertEquals("tt1375666", movies.getString(0));
+            assertEquals("Inception", movies.getString(1));
+            assertEquals("inception.jpg", movies.getString(2));
+        }
+        try (Cursor favorites = db.query("SELECT imdbID FROM favorites")) {
+            assertEquals(1, favorites.getCount());
+            assertTrue(favorites.moveToFirst());
+            assertEquals("tt1375666", favorites.getString(0));
+        }
+        try (Cursor details = db.query("SELECT imdbID, director, plot, fetchedAt FROM movie_details")) {
+            assertEquals(1, details.getCount());
+            assertTrue(details.moveToFirst());
+            assertEquals("tt1375666", details.getString(0));
+            assertEquals("Christopher Nolan", details.getString(1));
+            assertEquals("A thief", details.getString(2));
+            // Kept as stale, so it is refreshed the next time it is opened online
+            assertEquals(0, details.getLong(3));
+        }
+        try (Cursor index = db.query("SELECT name FROM sqlite_master WHERE name = 'index_movies_isFavorite_title'")) {
+            assertFalse(index.moveToFirst());
+        }
+    }
+}
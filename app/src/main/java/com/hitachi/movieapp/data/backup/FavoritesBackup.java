@@ -0,0 +1,226 @@
+package com.hitachi.movieapp.data.backup;
+
+import android.database.Cursor;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.hitachi.movieapp.data.local.MovieDao;
+import com.hitachi.movieapp.data.local.entity.FavoriteEntity;
+import com.hitachi.movieapp.data.local.entity.MovieEntity;
+import com.hitachi.movieapp.data.repository.FavoriteWriteBuffer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Exports the favorites to a file and restores them from one, e.g. to move them to another device.
+ * The file holds one JSON object per line: a header naming the format, then one favorite per line.
+ * Both directions stream, an export reads the rows through a cursor and an import writes them in
+ * fixed-size transactions, so memory stays flat however many favorites there are.
+ */
+@Singleton
+public class FavoritesBackup {
+    /**
+     * Version written to the header, files of a newer version are refused.
+     */
+    static final int FORMAT_VERSION = 1;
+    /**
+     * Number of favorites written per import transaction, and between progress callbacks.
+     */
+    static final int BATCH_SIZE = 500;
+    private static final String FORMAT_NAME = "movie-app-favorites";
+    private static final String KEY_FORMAT = "format";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_IMDB_ID = "id";
+    private static final String KEY_TITLE = "title";
+    private static final String KEY_YEAR = "year";
+    private static final String KEY_TYPE = "type";
+    private static final String KEY_POSTER = "poster";
+    private static final String KEY_FAVORITED_AT = "at";
+
+    private final MovieDao movieDao;
+    private final FavoriteWriteBuffer favoriteWriteBuffer;
+
+    @Inject
+    public FavoritesBackup(MovieDao movieDao, FavoriteWriteBuffer favoriteWriteBuffer) {
+        this.movieDao = movieDao;
+        this.favoriteWriteBuffer = favoriteWriteBuffer;
+    }
+
+    /**
+     * Writes every favorite to the stream and closes it.
+     *
+     * @param out      The stream to write to, e.g. a document picked by the user.
+     * @param listener Notified after each batch of favorites, or null.
+     * @return The number of favorites written.
+     * @throws IOException If the stream can't be written.
+     */
+    @WorkerThread
+    public int exportTo(OutputStream out, @Nullable OnBackupProgressListener listener) throws IOException {
+        favoriteWriteBuffer.flushNow();
+        int rows = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+             Cursor cursor = movieDao.getFavoritesCursor()) {
+            JsonWriter json = new JsonWriter(writer);
+            // Lenient so the writer accepts one top-level object per line
+            json.setLenient(true);
+            json.setSerializeNulls(false);
+            json.beginObject().name(KEY_FORMAT).value(FORMAT_NAME).name(KEY_VERSION).value(FORMAT_VERSION).endObject();
+            writer.write('\n');
+
+            int imdbID = cursor.getColumnIndexOrThrow("imdbID");
+            int title = cursor.getColumnIndexOrThrow("title");
+            int year = cursor.getColumnIndexOrThrow("year");
+            int type = cursor.getColumnIndexOrThrow("type");
+            int poster = cursor.getColumnIndexOrThrow("poster");
+            int favoritedAt = cursor.getColumnIndexOrThrow("favoritedAt");
+            while (cursor.moveToNext()) {
+                json.beginObject()
+                        .name(KEY_IMDB_ID).value(cursor.getString(imdbID))
+                        .name(KEY_TITLE).value(cursor.getString(title))
+                        .name(KEY_YEAR).value(cursor.getString(year))
+                        .name(KEY_TYPE).value(cursor.getString(type))
+                        .name(KEY_POSTER).value(cursor.getString(poster))
+                        .name(KEY_FAVORITED_AT).value(cursor.getLong(favoritedAt))
+                        .endObject();
+                writer.write('\n');
+                if (++rows % BATCH_SIZE == 0 && listener != null)
+                    listener.onProgress(rows);
+            }
+            json.flush();
+        }
+        if (listener != null)
+            listener.onProgress(rows);
+        return rows;
+    }
+
+    /**
+     * Restores the favorites of a backup and closes the stream. Favorites already stored are
+     * kept, those in the backup are added, and movies already stored keep their columns.
+     * Rows are committed batch by batch, so a failure part way keeps the batches written before it.
+     *
+     * @param in       The stream to read, e.g. a document picked by the user.
+     * @param listener Notified after each committed batch, or null.
+     * @return The number of favorites restored.
+     * @throws IOException If the stream can't be read or isn't a well-formed favorites backup.
+     */
+    @WorkerThread
+    public int importFrom(InputStream in, @Nullable OnBackupProgressListener listener) throws IOException {
+        favoriteWriteBuffer.flushNow();
+        int rows = 0;
+        try (JsonReader json = new JsonReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))) {
+            // Lenient so the reader accepts one top-level object per line
+            json.setLenient(true);
+            readHeader(json);
+            List<MovieEntity> movies = new ArrayList<>(BATCH_SIZE);
+            List<FavoriteEntity> favorites = new ArrayList<>(BATCH_SIZE);
+            while (json.peek() != JsonToken.END_DOCUMENT) {
+                readFavorite(json, movies, favorites);
+                if (movies.size() == BATCH_SIZE) {
+                    movieDao.importFavorites(movies, favorites);
+                    rows += movies.size();
+                    movies = new ArrayList<>(BATCH_SIZE);
+                    favorites = new ArrayList<>(BATCH_SIZE);
+                    if (listener != null)
+                        listener.onProgress(rows);
+                }
+            }
+            if (!movies.isEmpty()) {
+                movieDao.importFavorites(movies, favorites);
+                rows += movies.size();
+            }
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed favorites backup after " + rows + " favorites", e);
+        }
+        if (listener != null)
+            listener.onProgress(rows);
+        return rows;
+    }
+
+    private static void readHeader(JsonReader json) throws IOException {
+        String format = null;
+        int version = -1;
+        if (json.peek() == JsonToken.BEGIN_OBJECT) {
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if (KEY_FORMAT.equals(name) && json.peek() == JsonToken.STRING)
+                    format = json.nextString();
+                else if (KEY_VERSION.equals(name) && json.peek() == JsonToken.NUMBER)
+                    version = json.nextInt();
+                else
+                    json.skipValue();
+            }
+            json.endObject();
+        }
+        if (!FORMAT_NAME.equals(format))
+            throw new IOException("Not a favorites backup");
+        if (version < 1 || version > FORMAT_VERSION)
+            throw new IOException("Unsupported favorites backup version " + version);
+    }
+
+    /**
+     * Reads one favorite line into the batch. Unknown fields are skipped, so newer files with
+     * extra fields still restore, and lines without an IMDb ID are dropped.
+     */
+    private static void readFavorite(JsonReader json, List<MovieEntity> movies,
+                                     List<FavoriteEntity> favorites) throws IOException {
+        String imdbID = null;
+        String title = null;
+        String year = null;
+        String type = null;
+        String poster = null;
+        long favoritedAt = 0;
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (json.peek() == JsonToken.NULL) {
+                json.nextNull();
+                continue;
+            }
+            switch (name) {
+                case KEY_IMDB_ID:
+                    imdbID = json.nextString();
+                    break;
+                case KEY_TITLE:
+                    title = json.nextString();
+                    break;
+                case KEY_YEAR:
+                    year = json.nextString();
+                    break;
+                case KEY_TYPE:
+                    type = json.nextString();
+                    break;
+                case KEY_POSTER:
+                    poster = json.nextString();
+                    break;
+                case KEY_FAVORITED_AT:
+                    favoritedAt = json.nextLong();
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+        if (imdbID == null || imdbID.isEmpty())
+            return;
+        movies.add(new MovieEntity(imdbID, title != null ? title : "", year, type, poster));
+        favorites.add(new FavoriteEntity(imdbID, favoritedAt));
+    }
+}
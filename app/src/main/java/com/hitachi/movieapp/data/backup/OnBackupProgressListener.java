@@ -0,0 +1,12 @@
+package com.hitachi.movieapp.data.backup;
+
+/**
+ * Listener for the progress of a favorites export or import. Called on the worker thread
+ * running the backup.
+ */
+public interface OnBackupProgressListener {
+    /**
+     * @param rows The number of favorites written so far.
+     */
+    void onProgress(int rows);
+}
@@ -0,0 +1,183 @@
+package com.hitachi.movieapp.data.cache;
+
+import androidx.annotation.Nullable;
+
+import com.hitachi.movieapp.data.model.response.Movie;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Bounded in-memory LRU cache of movie details keyed by IMDb ID.
+ * Entries are weighed by their approximate heap footprint rather than counted,
+ * so a handful of movies with long plots cannot crowd out everything else.
+ * Hit, miss and eviction counters are kept to help tune {@link #DEFAULT_MAX_SIZE_BYTES}.
+ */
+@Singleton
+public class MovieDetailsCache {
+    /**
+     * Default budget of the cache, roughly a few hundred detail objects.
+     */
+    public static final int DEFAULT_MAX_SIZE_BYTES = 512 * 1024;
+    /**
+     * Rough fixed cost of a Movie object and its String headers.
+     */
+    private static final int MOVIE_OVERHEAD_BYTES = 16 + 14 * 4 + 13 * 40;
+
+    // Access-ordered map, iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Movie> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxSizeBytes;
+    private int sizeBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    @Inject
+    public MovieDetailsCache() {
+        this(DEFAULT_MAX_SIZE_BYTES);
+    }
+
+    public MovieDetailsCache(int maxSizeBytes) {
+        if (maxSizeBytes <= 0)
+            throw new IllegalArgumentException("maxSizeBytes <= 0");
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Returns the cached details for a movie and marks them as recently used.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     * @return The cached movie, or null on a miss.
+     */
+    @Nullable
+    public synchronized Movie get(String imdbID) {
+        Movie movie = entries.get(imdbID);
+        if (movie != null)
+            hitCount++;
+        else
+            missCount++;
+        return movie;
+    }
+
+    /**
+     * Checks whether details for a movie are cached without touching the LRU order or counters.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     * @return True if the movie is cached.
+     */
+    public synchronized boolean contains(String imdbID) {
+        return entries.containsKey(imdbID);
+    }
+
+    /**
+     * Stores details for a movie, evicting least recently used entries if the budget is exceeded.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     * @param movie  The movie details.
+     */
+    public synchronized void put(String imdbID, Movie movie) {
+        Movie previous = entries.put(imdbID, movie);
+        sizeBytes += sizeOf(movie);
+        if (previous != null)
+            sizeBytes -= sizeOf(previous);
+        trimToSize();
+    }
+
+    /**
+     * Removes every entry from the cache. Counters are kept.
+     */
+    public synchronized void evictAll() {
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    /**
+     * @return A snapshot of the cache counters.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hitCount, missCount, evictionCount, entries.size(), sizeBytes, maxSizeBytes);
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Movie>> iterator = entries.entrySet().iterator();
+        while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+            Map.Entry<String, Movie> eldest = iterator.next();
+            iterator.remove();
+            sizeBytes -= sizeOf(eldest.getValue());
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Estimates the heap footprint of a movie, counting two bytes per character.
+     *
+     * @param movie The movie to weigh.
+     * @return The approximate size in bytes.
+     */
+    static int sizeOf(Movie movie) {
+        int chars = length(movie.getTitle()) + length(movie.getYear()) + length(movie.getGenre())
+                + length(movie.getDirector()) + length(movie.getWriter()) + length(movie.getActors())
+                + length(movie.getPlot()) + length(movie.getPoster()) + length(movie.getImdbID())
+                + length(movie.getResponse()) + length(movie.getErrorMsg()) + length(movie.getType());
+        return MOVIE_OVERHEAD_BYTES + chars * 2;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * Immutable snapshot of the cache counters.
+     */
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int entryCount;
+        private final int sizeBytes;
+        private final int maxSizeBytes;
+
+        Stats(long hitCount, long missCount, long evictionCount, int entryCount, int sizeBytes, int maxSizeBytes) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.entryCount = entryCount;
+            this.sizeBytes = sizeBytes;
+            this.maxSizeBytes = maxSizeBytes;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        public int getSizeBytes() {
+            return sizeBytes;
+        }
+
+        public int getMaxSizeBytes() {
+            return maxSizeBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hitCount + " misses=" + missCount + " evictions=" + evictionCount
+                    + " entries=" + entryCount + " size=" + sizeBytes + "/" + maxSizeBytes;
+        }
+    }
+}
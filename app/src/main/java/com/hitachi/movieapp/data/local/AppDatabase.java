@@ -6,9 +6,23 @@ import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 
-import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.local.entity.FavoriteEntity;
+import com.hitachi.movieapp.data.local.entity.MovieDetailsEntity;
+import com.hitachi.movieapp.data.local.entity.MovieEntity;
+import com.hitachi.movieapp.data.local.entity.MovieFtsEntity;
+import com.hitachi.movieapp.data.local.entity.SearchPageEntity;
+import com.hitachi.movieapp.data.local.entity.SearchResultEntity;
 
-@Database(entities = {Movie.class}, version = 1, exportSchema = false)
+/**
+ * Schema changes need a new entry in {@link Migrations}, so updates never wipe the favorites.
+ */
+@Database(entities = {MovieEntity.class, MovieDetailsEntity.class, FavoriteEntity.class,
+        SearchPageEntity.class, SearchResultEntity.class, MovieFtsEntity.class},
+        version = 5, exportSchema = true)
 public abstract class AppDatabase extends RoomDatabase {
     public abstract MovieDao movieDao();
+
+    public abstract SearchCacheDao searchCacheDao();
+
+    public abstract MovieSearchDao movieSearchDao();
 }
@@ -0,0 +1,94 @@
+package com.hitachi.movieapp.data.local;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Schema migrations of {@link AppDatabase}, so updates keep the favorites and caches on disk.
+ * Each step recreates exactly the schema Room generated for that version; the statements must
+ * not change once released.
+ */
+public final class Migrations {
+
+    /**
+     * Adds the search page cache.
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `search_pages` (`queryKey` TEXT NOT NULL, `page` INTEGER NOT NULL, "
+                    + "`totalResults` TEXT, `fetchedAt` INTEGER NOT NULL, PRIMARY KEY(`queryKey`, `page`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_search_pages_fetchedAt` ON `search_pages` (`fetchedAt`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `search_results` (`queryKey` TEXT NOT NULL, `page` INTEGER NOT NULL, "
+                    + "`position` INTEGER NOT NULL, `imdbID` TEXT, `title` TEXT, `year` TEXT, `type` TEXT, "
+                    + "`poster` TEXT, PRIMARY KEY(`queryKey`, `page`, `position`))");
+        }
+    };
+
+    /**
+     * Adds the index serving the favorites page query.
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_movies_isFavorite_title` ON `movies` (`isFavorite`, `title`)");
+        }
+    };
+
+    /**
+     * Adds the offline full-text index. It fills up again as movies are searched and opened.
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `movie_fts` USING FTS4(`title` TEXT, `director` TEXT, "
+                    + "`actors` TEXT, `plot` TEXT, `imdbID` TEXT NOT NULL, `year` TEXT, `type` TEXT, `poster` TEXT, "
+                    + "`updatedAt` INTEGER NOT NULL, tokenize=unicode61, prefix=`2,3`, notindexed=`imdbID`, "
+                    + "notindexed=`year`, notindexed=`type`, notindexed=`poster`, notindexed=`updatedAt`)");
+        }
+    };
+
+    /**
+     * Splits the wide movies table, keyed by title, into movies keyed by IMDb ID, movie_details
+     * and favorites. Stored details are kept with a fetch time of 0, so they are still shown
+     * and refreshed the next time they are opened online. Rows without an IMDb ID can't be
+     * keyed and are dropped.
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `movies_new` (`imdbID` TEXT NOT NULL, `title` TEXT NOT NULL, "
+                    + "`year` TEXT, `type` TEXT, `poster` TEXT, PRIMARY KEY(`imdbID`))");
+            db.execSQL("INSERT OR REPLACE INTO `movies_new` (`imdbID`, `title`, `year`, `type`, `poster`) "
+                    + "SELECT `imdbID`, `title`, `year`, `type`, `poster` FROM `movies` WHERE `imdbID` IS NOT NULL");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `movie_details` (`imdbID` TEXT NOT NULL, `genre` TEXT, "
+                    + "`director` TEXT, `writer` TEXT, `actors` TEXT, `plot` TEXT, `fetchedAt` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`imdbID`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_movie_details_fetchedAt` ON `movie_details` (`fetchedAt`)");
+            db.execSQL("INSERT OR REPLACE INTO `movie_details` "
+                    + "(`imdbID`, `genre`, `director`, `writer`, `actors`, `plot`, `fetchedAt`) "
+                    + "SELECT `imdbID`, `genre`, `director`, `writer`, `actors`, `plot`, 0 FROM `movies` "
+                    + "WHERE `imdbID` IS NOT NULL AND `plot` IS NOT NULL");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `favorites` (`imdbID` TEXT NOT NULL, "
+                    + "`favoritedAt` INTEGER NOT NULL, PRIMARY KEY(`imdbID`))");
+            db.execSQL("INSERT OR REPLACE INTO `favorites` (`imdbID`, `favoritedAt`) "
+                    + "SELECT `imdbID`, CAST(strftime('%s', 'now') AS INTEGER) * 1000 FROM `movies` "
+                    + "WHERE `isFavorite` = 1 AND `imdbID` IS NOT NULL");
+
+            // Dropping the old table also drops its (isFavorite, title) index
+            db.execSQL("DROP TABLE `movies`");
+            db.execSQL("ALTER TABLE `movies_new` RENAME TO `movies`");
+        }
+    };
+
+    /**
+     * Every migration, from the first released schema to the current one.
+     */
+    public static final Migration[] ALL = {MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5};
+
+    private Migrations() {
+    }
+}
@@ -1,24 +1,146 @@
 package com.hitachi.movieapp.data.local;
 
+import android.database.Cursor;
+
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
-import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
-import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.local.entity.FavoriteEntity;
+import com.hitachi.movieapp.data.local.entity.MovieDetailsEntity;
+import com.hitachi.movieapp.data.local.entity.MovieEntity;
+import com.hitachi.movieapp.data.model.FavoriteMovieItem;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.StoredMovieDetails;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Dao
 public interface MovieDao {
+    /**
+     * Largest number of IDs bound into a single IN clause.
+     */
+    int MAX_BIND_VARIABLES = 500;
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertMovie(MovieEntity movie);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertMovies(List<MovieEntity> movies);
+
+    /**
+     * Inserts the movies that aren't stored yet, stored rows keep their columns.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertMissingMovies(List<MovieEntity> movies);
+
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insert(Movie movie);
+    void upsertFavorites(List<FavoriteEntity> favorites);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertDetails(MovieDetailsEntity details);
+
+    @Query("DELETE FROM favorites WHERE imdbID IN (:imdbIDs)")
+    void deleteFavoritesByIds(List<String> imdbIDs);
+
+    /**
+     * Drops the movies rows of the given IDs that are neither a favorite nor have stored details.
+     */
+    @Query("DELETE FROM movies WHERE imdbID IN (:imdbIDs) "
+            + "AND imdbID NOT IN (SELECT imdbID FROM favorites) "
+            + "AND imdbID NOT IN (SELECT imdbID FROM movie_details)")
+    void deleteUnusedMovies(List<String> imdbIDs);
+
+    /**
+     * Applies a batch of favorite changes in a single transaction, so the favorites table is
+     * written and invalidated once per batch. Deletes are chunked to stay under SQLite's
+     * bound variable limit.
+     */
+    @Transaction
+    default void applyFavoriteChanges(List<MovieListItem> inserts, List<String> deletedImdbIDs) {
+        for (int start = 0; start < deletedImdbIDs.size(); start += MAX_BIND_VARIABLES) {
+            List<String> chunk = deletedImdbIDs.subList(start, Math.min(start + MAX_BIND_VARIABLES, deletedImdbIDs.size()));
+            deleteFavoritesByIds(chunk);
+            deleteUnusedMovies(chunk);
+        }
+        if (inserts.isEmpty())
+            return;
+        long now = System.currentTimeMillis();
+        List<MovieEntity> movies = new ArrayList<>(inserts.size());
+        List<FavoriteEntity> favorites = new ArrayList<>(inserts.size());
+        for (MovieListItem movie : inserts) {
+            movies.add(MovieEntity.of(movie));
+            favorites.add(new FavoriteEntity(movie.getImdbID(), now));
+        }
+        upsertMovies(movies);
+        upsertFavorites(favorites);
+    }
+
+    /**
+     * Loads the first favorites in title order with only the columns a list row shows.
+     * The small favorites table drives the join, each row costs one primary key lookup in
+     * movies, and Room re-runs the query for just this many rows whenever either table changes.
+     */
+    @Query("SELECT m.imdbID, m.title, m.year, m.poster FROM favorites f JOIN movies m ON m.imdbID = f.imdbID "
+            + "ORDER BY m.title LIMIT :limit")
+    LiveData<List<FavoriteMovieItem>> getFavoriteMoviesPage(int limit);
+
+    /**
+     * Opens a cursor over every favorite with its movie columns, so a backup can stream them
+     * out without loading the whole list. The caller closes the cursor.
+     */
+    @Query("SELECT m.imdbID, m.title, m.year, m.type, m.poster, f.favoritedAt "
+            + "FROM favorites f JOIN movies m ON m.imdbID = f.imdbID")
+    Cursor getFavoritesCursor();
+
+    /**
+     * Writes a batch of restored favorites in a single transaction, so an import writes and
+     * invalidates the favorites table once per batch instead of once per row. Movies already
+     * stored keep their rows, a backup may carry older or empty columns.
+     */
+    @Transaction
+    default void importFavorites(List<MovieEntity> movies, List<FavoriteEntity> favorites) {
+        insertMissingMovies(movies);
+        upsertFavorites(favorites);
+    }
+
+    @Query("SELECT imdbID FROM favorites")
+    List<String> getFavoriteIds();
+
+    /**
+     * Reads the stored details of a movie with one primary key lookup per table.
+     */
+    @Query("SELECT m.imdbID, m.title, m.year, m.type, m.poster, d.genre, d.director, d.writer, d.actors, "
+            + "d.plot, d.fetchedAt FROM movie_details d JOIN movies m ON m.imdbID = d.imdbID WHERE d.imdbID = :imdbID")
+    StoredMovieDetails getDetails(String imdbID);
+
+    /**
+     * Stores a details response, replacing any earlier copy.
+     */
+    @Transaction
+    default void insertDetails(MovieEntity movie, MovieDetailsEntity details) {
+        upsertMovie(movie);
+        upsertDetails(details);
+    }
+
+    @Query("DELETE FROM movies WHERE imdbID IN (SELECT imdbID FROM movie_details WHERE fetchedAt < :cutoff) "
+            + "AND imdbID NOT IN (SELECT imdbID FROM favorites)")
+    void deleteMoviesWithDetailsOlderThan(long cutoff);
 
-    @Query("DELETE FROM movies WHERE imdbID = :imdbID")
-    void deleteById(String imdbID);
+    @Query("DELETE FROM movie_details WHERE fetchedAt < :cutoff AND imdbID NOT IN (SELECT imdbID FROM favorites)")
+    void deleteDetailsOlderThan(long cutoff);
 
-    @Query("SELECT * FROM movies WHERE isFavorite = 1")
-    LiveData<List<Movie>> getFavoriteMovies();
+    /**
+     * Drops details fetched before the given time, keeping those of favorites so they stay
+     * available offline. Both deletes are served by the fetchedAt index.
+     */
+    @Transaction
+    default void evictDetailsOlderThan(long cutoff) {
+        deleteMoviesWithDetailsOlderThan(cutoff);
+        deleteDetailsOlderThan(cutoff);
+    }
 }
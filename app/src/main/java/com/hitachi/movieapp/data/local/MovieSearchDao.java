@@ -0,0 +1,71 @@
+package com.hitachi.movieapp.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.hitachi.movieapp.data.local.entity.MovieFtsEntity;
+import com.hitachi.movieapp.data.model.MovieSearchMatch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Dao
+public interface MovieSearchDao {
+    /**
+     * Full-text search of the offline index. Movies whose title matches come first, so the
+     * limit only cuts into weaker director, actor and plot matches; the caller ranks the
+     * candidates from the matchinfo blob.
+     *
+     * @param matchQuery      An FTS4 MATCH expression, e.g. "dark* knight*".
+     * @param titleMatchQuery The same expression restricted to the title, e.g. "title:dark* title:knight*".
+     * @param limit           The maximum number of candidates to return.
+     */
+    @Query("SELECT imdbID, title, year, type, poster, matchinfo(movie_fts, 'pcx') AS matchInfo "
+            + "FROM movie_fts WHERE movie_fts MATCH :matchQuery "
+            + "ORDER BY rowid IN (SELECT rowid FROM movie_fts WHERE movie_fts MATCH :titleMatchQuery) DESC "
+            + "LIMIT :limit")
+    List<MovieSearchMatch> search(String matchQuery, String titleMatchQuery, int limit);
+
+    @Query("SELECT rowid FROM movie_fts WHERE rowid IN (:rowIds)")
+    List<Long> getExistingRowIds(List<Long> rowIds);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(List<MovieFtsEntity> movies);
+
+    @Query("UPDATE movie_fts SET updatedAt = :updatedAt WHERE rowid IN (:rowIds)")
+    void touch(List<Long> rowIds, long updatedAt);
+
+    @Query("DELETE FROM movie_fts WHERE updatedAt < :cutoff")
+    void deleteOlderThan(long cutoff);
+
+    /**
+     * Adds movies that aren't indexed yet. Existing rows only get their time updated, so search
+     * rows never overwrite the actors, director and plot stored from a details response, and
+     * movies that keep showing up are never aged out.
+     *
+     * @param movies The movies to index.
+     * @param seenAt Wall-clock time (millis) the movies were seen.
+     */
+    @Transaction
+    default void insertMissing(List<MovieFtsEntity> movies, long seenAt) {
+        List<Long> rowIds = new ArrayList<>(movies.size());
+        for (MovieFtsEntity movie : movies)
+            rowIds.add(movie.getRowId());
+        List<Long> existingRowIds = getExistingRowIds(rowIds);
+        Set<Long> existing = new HashSet<>(existingRowIds);
+        List<MovieFtsEntity> missing = new ArrayList<>(movies.size());
+        for (MovieFtsEntity movie : movies) {
+            if (existing.add(movie.getRowId()))
+                missing.add(movie);
+        }
+        if (!existingRowIds.isEmpty())
+            touch(existingRowIds, seenAt);
+        if (!missing.isEmpty())
+            upsert(missing);
+    }
+}
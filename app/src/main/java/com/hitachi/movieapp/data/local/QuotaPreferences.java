@@ -0,0 +1,35 @@
+package com.hitachi.movieapp.data.local;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.hitachi.movieapp.data.network.RateLimiter;
+
+/**
+ * Keeps the number of OMDb calls made today in SharedPreferences, so the daily quota survives
+ * restarts. Only the current day is stored.
+ */
+public class QuotaPreferences implements RateLimiter.QuotaStore {
+    private static final String PREFERENCES_NAME = "omdb_quota";
+    private static final String KEY_DAY = "day";
+    private static final String KEY_USED = "used";
+
+    private final SharedPreferences preferences;
+
+    public QuotaPreferences(Context context) {
+        preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public int getUsed(long day) {
+        return preferences.getLong(KEY_DAY, -1) == day ? preferences.getInt(KEY_USED, 0) : 0;
+    }
+
+    @Override
+    public void setUsed(long day, int used) {
+        preferences.edit()
+                .putLong(KEY_DAY, day)
+                .putInt(KEY_USED, used)
+                .apply();
+    }
+}
@@ -0,0 +1,57 @@
+package com.hitachi.movieapp.data.local;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.hitachi.movieapp.data.local.entity.SearchPageEntity;
+import com.hitachi.movieapp.data.local.entity.SearchResultEntity;
+
+import java.util.List;
+
+@Dao
+public interface SearchCacheDao {
+    @Query("SELECT * FROM search_pages WHERE queryKey = :queryKey AND page = :page")
+    SearchPageEntity getPage(String queryKey, int page);
+
+    @Query("SELECT * FROM search_results WHERE queryKey = :queryKey AND page = :page ORDER BY position")
+    List<SearchResultEntity> getResults(String queryKey, int page);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertPage(SearchPageEntity page);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertResults(List<SearchResultEntity> results);
+
+    @Query("DELETE FROM search_results WHERE queryKey = :queryKey AND page = :page")
+    void deleteResults(String queryKey, int page);
+
+    /**
+     * Replaces a cached page and all of its rows in a single transaction,
+     * so readers never observe a page header without its rows.
+     */
+    @Transaction
+    default void replacePage(SearchPageEntity page, List<SearchResultEntity> results) {
+        deleteResults(page.getQueryKey(), page.getPage());
+        insertPage(page);
+        insertResults(results);
+    }
+
+    @Query("DELETE FROM search_pages WHERE fetchedAt < :cutoff")
+    void deletePagesOlderThan(long cutoff);
+
+    @Query("DELETE FROM search_results WHERE NOT EXISTS (SELECT 1 FROM search_pages "
+            + "WHERE search_pages.queryKey = search_results.queryKey AND search_pages.page = search_results.page)")
+    void deleteOrphanResults();
+
+    /**
+     * Drops every page fetched before the given time together with its rows.
+     */
+    @Transaction
+    default void evictOlderThan(long cutoff) {
+        deletePagesOlderThan(cutoff);
+        deleteOrphanResults();
+    }
+}
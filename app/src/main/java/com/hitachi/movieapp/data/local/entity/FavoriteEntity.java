@@ -0,0 +1,34 @@
+package com.hitachi.movieapp.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Room entity marking a movie as a favorite. Only the IMDb ID is stored, the list columns
+ * are joined from {@link MovieEntity}, so the table stays a few bytes per favorite.
+ */
+@Entity(tableName = "favorites")
+public class FavoriteEntity {
+    @PrimaryKey
+    @NonNull
+    private final String imdbID;
+    /**
+     * Wall-clock time (millis) the movie was added to the favorites.
+     */
+    private final long favoritedAt;
+
+    public FavoriteEntity(@NonNull String imdbID, long favoritedAt) {
+        this.imdbID = imdbID;
+        this.favoritedAt = favoritedAt;
+    }
+
+    @NonNull
+    public String getImdbID() {
+        return imdbID;
+    }
+
+    public long getFavoritedAt() {
+        return favoritedAt;
+    }
+}
@@ -0,0 +1,79 @@
+package com.hitachi.movieapp.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.hitachi.movieapp.data.model.response.Movie;
+
+/**
+ * Room entity for the columns only a details response has.
+ * The title, year and poster of the movie are stored in {@link MovieEntity}.
+ */
+@Entity(tableName = "movie_details",
+        indices = {@Index("fetchedAt")})
+public class MovieDetailsEntity {
+    @PrimaryKey
+    @NonNull
+    private final String imdbID;
+    private final String genre;
+    private final String director;
+    private final String writer;
+    private final String actors;
+    private final String plot;
+    /**
+     * Wall-clock time (millis) the details were fetched from the network.
+     */
+    private final long fetchedAt;
+
+    public MovieDetailsEntity(@NonNull String imdbID, String genre, String director, String writer,
+                              String actors, String plot, long fetchedAt) {
+        this.imdbID = imdbID;
+        this.genre = genre;
+        this.director = director;
+        this.writer = writer;
+        this.actors = actors;
+        this.plot = plot;
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * @param movie     A details response with an IMDb ID.
+     * @param fetchedAt The time the response was received.
+     * @return The row storing the movie's details.
+     */
+    public static MovieDetailsEntity of(Movie movie, long fetchedAt) {
+        return new MovieDetailsEntity(movie.getImdbID(), movie.getGenre(), movie.getDirector(),
+                movie.getWriter(), movie.getActors(), movie.getPlot(), fetchedAt);
+    }
+
+    @NonNull
+    public String getImdbID() {
+        return imdbID;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public String getDirector() {
+        return director;
+    }
+
+    public String getWriter() {
+        return writer;
+    }
+
+    public String getActors() {
+        return actors;
+    }
+
+    public String getPlot() {
+        return plot;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+}
@@ -0,0 +1,73 @@
+package com.hitachi.movieapp.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.response.Movie;
+
+/**
+ * Room entity for the columns every movie has, whether it came from a search page or a
+ * details response. A row exists while the movie is a favorite or has stored details;
+ * those live in {@link FavoriteEntity} and {@link MovieDetailsEntity}, keyed by the same IMDb ID.
+ */
+@Entity(tableName = "movies")
+public class MovieEntity {
+    @PrimaryKey
+    @NonNull
+    private final String imdbID;
+    @NonNull
+    private final String title;
+    private final String year;
+    private final String type;
+    private final String poster;
+
+    public MovieEntity(@NonNull String imdbID, @NonNull String title, String year, String type, String poster) {
+        this.imdbID = imdbID;
+        this.title = title;
+        this.year = year;
+        this.type = type;
+        this.poster = poster;
+    }
+
+    /**
+     * @param movie A movie with an IMDb ID.
+     * @return The row storing the movie's common columns.
+     */
+    public static MovieEntity of(Movie movie) {
+        return new MovieEntity(movie.getImdbID(), movie.getTitle() != null ? movie.getTitle() : "",
+                movie.getYear(), movie.getType(), movie.getPoster());
+    }
+
+    /**
+     * @param movie A list row with an IMDb ID.
+     * @return The row storing the movie's common columns.
+     */
+    public static MovieEntity of(MovieListItem movie) {
+        return new MovieEntity(movie.getImdbID(), movie.getTitle() != null ? movie.getTitle() : "",
+                movie.getYear(), movie.getType(), movie.getPoster());
+    }
+
+    @NonNull
+    public String getImdbID() {
+        return imdbID;
+    }
+
+    @NonNull
+    public String getTitle() {
+        return title;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPoster() {
+        return poster;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hitachi.movieapp.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * FTS4 row of the offline movie index, one per movie seen in a search page or details response.
+ * Only the text columns are tokenized; the other columns are stored so a match can be shown
+ * without a join. Prefix indexes keep "bat*" style queries fast on large indexes.
+ * Indexed columns come first, {@code LocalMovieIndex} weights matches by column position.
+ */
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61,
+        prefix = {2, 3},
+        notIndexed = {"imdbID", "year", "type", "poster", "updatedAt"})
+@Entity(tableName = "movie_fts")
+public class MovieFtsEntity {
+    /**
+     * Derived from the IMDb ID, so re-indexing a movie replaces its row.
+     */
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private final long rowId;
+    private final String title;
+    private final String director;
+    private final String actors;
+    private final String plot;
+    @NonNull
+    private final String imdbID;
+    private final String year;
+    private final String type;
+    private final String poster;
+    /**
+     * Wall-clock time (millis) the row was last written.
+     */
+    private final long updatedAt;
+
+    public MovieFtsEntity(long rowId, String title, String director, String actors, String plot,
+                          @NonNull String imdbID, String year, String type, String poster, long updatedAt) {
+        this.rowId = rowId;
+        this.title = title;
+        this.director = director;
+        this.actors = actors;
+        this.plot = plot;
+        this.imdbID = imdbID;
+        this.year = year;
+        this.type = type;
+        this.poster = poster;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Maps an IMDb ID to its FTS rowid. IDs of the form "tt1234567" map to their number,
+     * anything else to a negative hash so the two never collide.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     * @return The rowid of the movie.
+     */
+    public static long rowIdOf(@NonNull String imdbID) {
+        if (imdbID.length() > 2 && imdbID.startsWith("tt")) {
+            try {
+                return Long.parseLong(imdbID.substring(2));
+            } catch (NumberFormatException ignored) {
+                // Fall through to the hash
+            }
+        }
+        return -1L - (imdbID.hashCode() & 0xffffffffL);
+    }
+
+    public long getRowId() {
+        return rowId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDirector() {
+        return director;
+    }
+
+    public String getActors() {
+        return actors;
+    }
+
+    public String getPlot() {
+        return plot;
+    }
+
+    @NonNull
+    public String getImdbID() {
+        return imdbID;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPoster() {
+        return poster;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+}
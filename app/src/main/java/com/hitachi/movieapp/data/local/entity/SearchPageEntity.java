@@ -0,0 +1,50 @@
+package com.hitachi.movieapp.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+/**
+ * Room entity describing one cached page of OMDb search results.
+ * The rows of the page itself are stored in {@link SearchResultEntity}.
+ */
+@Entity(tableName = "search_pages",
+        primaryKeys = {"queryKey", "page"},
+        indices = {@Index("fetchedAt")})
+public class SearchPageEntity {
+    /**
+     * Normalized search query the page belongs to.
+     */
+    @NonNull
+    private final String queryKey;
+    private final int page;
+    private final String totalResults;
+    /**
+     * Wall-clock time (millis) the page was fetched from the network.
+     */
+    private final long fetchedAt;
+
+    public SearchPageEntity(@NonNull String queryKey, int page, String totalResults, long fetchedAt) {
+        this.queryKey = queryKey;
+        this.page = page;
+        this.totalResults = totalResults;
+        this.fetchedAt = fetchedAt;
+    }
+
+    @NonNull
+    public String getQueryKey() {
+        return queryKey;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public String getTotalResults() {
+        return totalResults;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+}
@@ -0,0 +1,70 @@
+package com.hitachi.movieapp.data.local.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+
+/**
+ * Room entity for a single row of a cached search page.
+ * Only the fields returned by the OMDb search endpoint are stored.
+ */
+@Entity(tableName = "search_results",
+        primaryKeys = {"queryKey", "page", "position"})
+public class SearchResultEntity {
+    @NonNull
+    private final String queryKey;
+    private final int page;
+    /**
+     * Position of the row inside its page, used to keep the server ordering.
+     */
+    private final int position;
+    private final String imdbID;
+    private final String title;
+    private final String year;
+    private final String type;
+    private final String poster;
+
+    public SearchResultEntity(@NonNull String queryKey, int page, int position,
+                              String imdbID, String title, String year, String type, String poster) {
+        this.queryKey = queryKey;
+        this.page = page;
+        this.position = position;
+        this.imdbID = imdbID;
+        this.title = title;
+        this.year = year;
+        this.type = type;
+        this.poster = poster;
+    }
+
+    @NonNull
+    public String getQueryKey() {
+        return queryKey;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public String getImdbID() {
+        return imdbID;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPoster() {
+        return poster;
+    }
+}
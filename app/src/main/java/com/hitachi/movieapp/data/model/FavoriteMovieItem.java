@@ -0,0 +1,56 @@
+package com.hitachi.movieapp.data.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Objects;
+
+/**
+ * Lightweight projection of a favorite movie with only the columns the favorites list shows.
+ */
+public class FavoriteMovieItem {
+    private final String imdbID;
+    @NonNull
+    private final String title;
+    private final String year;
+    private final String poster;
+
+    public FavoriteMovieItem(String imdbID, @NonNull String title, String year, String poster) {
+        this.imdbID = imdbID;
+        this.title = title;
+        this.year = year;
+        this.poster = poster;
+    }
+
+    public String getImdbID() {
+        return imdbID;
+    }
+
+    @NonNull
+    public String getTitle() {
+        return title;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getPoster() {
+        return poster;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        FavoriteMovieItem that = (FavoriteMovieItem) o;
+        return Objects.equals(imdbID, that.imdbID) && title.equals(that.title)
+                && Objects.equals(year, that.year) && Objects.equals(poster, that.poster);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(imdbID, title, year, poster);
+    }
+}
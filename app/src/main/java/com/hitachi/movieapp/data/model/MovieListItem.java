@@ -0,0 +1,129 @@
+package com.hitachi.movieapp.data.model;
+
+import androidx.annotation.Nullable;
+
+import com.google.gson.annotations.SerializedName;
+import com.hitachi.movieapp.data.model.response.Movie;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable row of a search result with only the columns the movies list shows.
+ * Years, types and missing posters repeat across thousands of rows, so they are shared
+ * through a small pool instead of being kept once per row. The full {@link Movie} is only
+ * loaded for the details screen, or attached with {@link #withDetails(Movie)} when search
+ * rows are hydrated.
+ */
+public final class MovieListItem {
+    /**
+     * Upper bound of the shared values, years and types stay well below it.
+     */
+    private static final int MAX_POOLED_VALUES = 1024;
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+
+    @SerializedName("imdbID")
+    private final String imdbID;
+    @SerializedName("Title")
+    private final String title;
+    @SerializedName("Year")
+    private final String year;
+    @SerializedName("Type")
+    private final String type;
+    @SerializedName("Poster")
+    private final String poster;
+    private final transient boolean favorite;
+    @Nullable
+    private final transient Movie details;
+
+    public MovieListItem(String imdbID, String title, String year, String type, String poster) {
+        this(imdbID, title, pooled(year), pooled(type), pooledPoster(poster), false, null);
+    }
+
+    private MovieListItem(String imdbID, String title, String year, String type, String poster,
+                          boolean favorite, @Nullable Movie details) {
+        this.imdbID = imdbID;
+        this.title = title;
+        this.year = year;
+        this.type = type;
+        this.poster = poster;
+        this.favorite = favorite;
+        this.details = details;
+    }
+
+    /**
+     * Builds the list row of a details response or a stored movie.
+     */
+    public static MovieListItem of(Movie movie) {
+        return new MovieListItem(movie.getImdbID(), movie.getTitle(), movie.getYear(), movie.getType(),
+                movie.getPoster()).withFavorite(movie.isFavorite());
+    }
+
+    public String getImdbID() {
+        return imdbID;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPoster() {
+        return poster;
+    }
+
+    public boolean isFavorite() {
+        return favorite;
+    }
+
+    /**
+     * Details attached by hydration, or null while only the search columns are known.
+     */
+    @Nullable
+    public Movie getDetails() {
+        return details;
+    }
+
+    /**
+     * Returns this row with the given favorite flag, or this row itself when it already has it.
+     */
+    public MovieListItem withFavorite(boolean favorite) {
+        if (this.favorite == favorite)
+            return this;
+        return new MovieListItem(imdbID, title, year, type, poster, favorite, details);
+    }
+
+    /**
+     * Returns a copy of this row carrying the given details.
+     */
+    public MovieListItem withDetails(Movie details) {
+        return new MovieListItem(imdbID, title, year, type, poster, favorite, details);
+    }
+
+    /**
+     * Returns the shared instance of a repeated value. Once the pool is full new values are
+     * kept as they are, so an unusual result set can't grow it without bound.
+     */
+    static String pooled(String value) {
+        if (value == null)
+            return null;
+        String shared = POOL.get(value);
+        if (shared != null)
+            return shared;
+        if (POOL.size() >= MAX_POOLED_VALUES)
+            return value;
+        shared = POOL.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+
+    private static String pooledPoster(String poster) {
+        // Only the placeholder repeats, real poster URLs are unique per movie
+        return "N/A".equals(poster) ? pooled(poster) : poster;
+    }
+}
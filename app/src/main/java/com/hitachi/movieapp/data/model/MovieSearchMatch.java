@@ -0,0 +1,48 @@
+package com.hitachi.movieapp.data.model;
+
+/**
+ * Row returned by a full-text search of the offline movie index, with the raw FTS4
+ * {@code matchinfo(movie_fts, 'pcx')} blob used to rank it.
+ */
+public class MovieSearchMatch {
+    private final String imdbID;
+    private final String title;
+    private final String year;
+    private final String type;
+    private final String poster;
+    private final byte[] matchInfo;
+
+    public MovieSearchMatch(String imdbID, String title, String year, String type, String poster,
+                            byte[] matchInfo) {
+        this.imdbID = imdbID;
+        this.title = title;
+        this.year = year;
+        this.type = type;
+        this.poster = poster;
+        this.matchInfo = matchInfo;
+    }
+
+    public String getImdbID() {
+        return imdbID;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getPoster() {
+        return poster;
+    }
+
+    public byte[] getMatchInfo() {
+        return matchInfo;
+    }
+}
@@ -0,0 +1,120 @@
+package com.hitachi.movieapp.data.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Type and year filters of a search, sent to OMDb as its {@code type} and {@code y} parameters
+ * so a narrowed search pages through matching results only.
+ */
+public final class SearchFilter {
+    /**
+     * No filtering, every result of the query.
+     */
+    public static final SearchFilter NONE = new SearchFilter(null, null);
+
+    /**
+     * Result types OMDb can filter on.
+     */
+    public enum Type {
+        MOVIE("movie"),
+        SERIES("series"),
+        EPISODE("episode");
+
+        private final String queryValue;
+
+        Type(String queryValue) {
+            this.queryValue = queryValue;
+        }
+
+        /**
+         * @return The value OMDb expects, which is also the value of a result's Type field.
+         */
+        public String getQueryValue() {
+            return queryValue;
+        }
+    }
+
+    @Nullable
+    private final Type type;
+    @Nullable
+    private final Integer year;
+
+    /**
+     * @param type The result type to keep, or null for every type.
+     * @param year The release year to keep, or null for every year.
+     */
+    public SearchFilter(@Nullable Type type, @Nullable Integer year) {
+        this.type = type;
+        this.year = year;
+    }
+
+    @Nullable
+    public Type getType() {
+        return type;
+    }
+
+    @Nullable
+    public Integer getYear() {
+        return year;
+    }
+
+    /**
+     * @return The {@code type} parameter, or null so Retrofit leaves it out.
+     */
+    @Nullable
+    public String getTypeQuery() {
+        return type != null ? type.getQueryValue() : null;
+    }
+
+    public boolean isEmpty() {
+        return type == null && year == null;
+    }
+
+    /**
+     * Applies the filter to a row that didn't come from a filtered OMDb search, e.g. an offline match.
+     *
+     * @param item The row to check.
+     * @return Whether the row passes the filter.
+     */
+    public boolean matches(MovieListItem item) {
+        if (type != null && !type.getQueryValue().equals(item.getType()))
+            return false;
+        // Series years are ranges such as "2005–2010", OMDb matches them on their start year
+        return year == null || (item.getYear() != null && item.getYear().startsWith(String.valueOf(year)));
+    }
+
+    /**
+     * Suffix keeping the cached pages of a filtered search apart from the unfiltered ones.
+     *
+     * @return An empty string for {@link #NONE}, so existing cache entries stay valid.
+     */
+    @NonNull
+    public String getCacheKeySuffix() {
+        if (isEmpty())
+            return "";
+        StringBuilder suffix = new StringBuilder();
+        if (type != null)
+            suffix.append("|type=").append(type.getQueryValue());
+        if (year != null)
+            suffix.append("|y=").append(year);
+        return suffix.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        SearchFilter that = (SearchFilter) o;
+        return type == that.type && Objects.equals(year, that.year);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, year);
+    }
+}
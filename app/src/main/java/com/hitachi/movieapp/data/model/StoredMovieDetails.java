@@ -0,0 +1,67 @@
+package com.hitachi.movieapp.data.model;
+
+import com.hitachi.movieapp.data.model.response.Movie;
+
+/**
+ * Stored details of a movie, read with a single primary key lookup joining the movies and
+ * movie_details tables.
+ */
+public class StoredMovieDetails {
+    private final String imdbID;
+    private final String title;
+    private final String year;
+    private final String type;
+    private final String poster;
+    private final String genre;
+    private final String director;
+    private final String writer;
+    private final String actors;
+    private final String plot;
+    private final long fetchedAt;
+
+    public StoredMovieDetails(String imdbID, String title, String year, String type, String poster,
+                              String genre, String director, String writer, String actors, String plot,
+                              long fetchedAt) {
+        this.imdbID = imdbID;
+        this.title = title;
+        this.year = year;
+        this.type = type;
+        this.poster = poster;
+        this.genre = genre;
+        this.director = director;
+        this.writer = writer;
+        this.actors = actors;
+        this.plot = plot;
+        this.fetchedAt = fetchedAt;
+    }
+
+    public String getImdbID() {
+        return imdbID;
+    }
+
+    /**
+     * @return Wall-clock time (millis) the details were fetched from the network.
+     */
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * @return The details as the movie a details response would have returned.
+     */
+    public Movie toMovie() {
+        Movie movie = new Movie();
+        movie.setImdbID(imdbID);
+        movie.setTitle(title);
+        movie.setYear(year);
+        movie.setType(type);
+        movie.setPoster(poster);
+        movie.setGenre(genre);
+        movie.setDirector(director);
+        movie.setWriter(writer);
+        movie.setActors(actors);
+        movie.setPlot(plot);
+        movie.setResponse("True");
+        return movie;
+    }
+}
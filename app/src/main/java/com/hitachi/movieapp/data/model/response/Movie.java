@@ -1,8 +1,6 @@
 package com.hitachi.movieapp.data.model.response;
 
 import androidx.annotation.NonNull;
-import androidx.room.Entity;
-import androidx.room.PrimaryKey;
 
 import com.google.gson.annotations.SerializedName;
 
@@ -11,10 +9,7 @@ import com.google.gson.annotations.SerializedName;
  * @Date: 9/2/2024
  */
 
-@Entity(tableName = "movies")
 public class Movie {
-    @PrimaryKey
-    @NonNull
     @SerializedName("Title")
     private String title;
     @SerializedName("Year")
@@ -1,12 +1,13 @@
 package com.hitachi.movieapp.data.model.response;
 
 import com.google.gson.annotations.SerializedName;
+import com.hitachi.movieapp.data.model.MovieListItem;
 
 import java.util.List;
 
 public class MovieResponse {
     @SerializedName("Search")
-    private List<Movie> movies;
+    private List<MovieListItem> movies;
     @SerializedName("Response")
     private String response;
     @SerializedName("Error")
@@ -15,7 +16,7 @@ public class MovieResponse {
     private String totalResults;
 
 
-    public List<Movie> getMovies() {
+    public List<MovieListItem> getMovies() {
         return movies;
     }
 
@@ -31,11 +32,19 @@ public class MovieResponse {
         return totalResults;
     }
 
-    public void setMovies(List<Movie> movies) {
+    public void setMovies(List<MovieListItem> movies) {
         this.movies = movies;
     }
 
     public void setResponse(String response) {
         this.response = response;
     }
+
+    public void setTotalResults(String totalResults) {
+        this.totalResults = totalResults;
+    }
+
+    public void setErrorMsg(String errorMsg) {
+        this.errorMsg = errorMsg;
+    }
 }
\ No newline at end of file
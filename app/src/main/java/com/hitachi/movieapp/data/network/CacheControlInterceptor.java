@@ -0,0 +1,74 @@
+package com.hitachi.movieapp.data.network;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.GzipSource;
+import okio.Okio;
+
+/**
+ * Network interceptor that makes OMDb responses cacheable by OkHttp's disk cache.
+ * Movie details rarely change and are kept for days, search pages for a few minutes.
+ * OMDb reports errors such as "Movie not found!" with HTTP 200, so those bodies are never stored.
+ */
+public class CacheControlInterceptor implements Interceptor {
+    /**
+     * How long a movie details response is served from disk.
+     */
+    public static final int DETAILS_MAX_AGE_SECONDS = (int) TimeUnit.DAYS.toSeconds(7);
+    /**
+     * How long a search page is served from disk.
+     */
+    public static final int SEARCH_MAX_AGE_SECONDS = (int) TimeUnit.MINUTES.toSeconds(10);
+    // Enough of the body to see the "Response" field of an OMDb error
+    private static final long ERROR_PEEK_BYTES = 256;
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (!response.isSuccessful() || !"GET".equals(chain.request().method()))
+            return response;
+        HttpUrl url = chain.request().url();
+        int maxAge;
+        if (url.queryParameter("i") != null)
+            maxAge = DETAILS_MAX_AGE_SECONDS;
+        else if (url.queryParameter("s") != null)
+            maxAge = SEARCH_MAX_AGE_SECONDS;
+        else
+            return response;
+        CacheControl cacheControl = isOmdbError(response)
+                ? new CacheControl.Builder().noStore().build()
+                : new CacheControl.Builder().maxAge(maxAge, TimeUnit.SECONDS).build();
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", cacheControl.toString())
+                .build();
+    }
+
+    /**
+     * OMDb error bodies start with the "Response" field, so peeking at the head is enough.
+     * Network interceptors see the body before OkHttp unzips it, so gzip is undone on the peek.
+     */
+    private static boolean isOmdbError(Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null)
+            return false;
+        BufferedSource source = body.source().peek();
+        if ("gzip".equalsIgnoreCase(response.header("Content-Encoding")))
+            source = Okio.buffer(new GzipSource(source));
+        source.request(ERROR_PEEK_BYTES);
+        Buffer head = source.getBuffer();
+        String text = head.clone().readUtf8(Math.min(head.size(), ERROR_PEEK_BYTES));
+        return text.replace(" ", "").contains("\"Response\":\"False\"");
+    }
+}
@@ -0,0 +1,122 @@
+package com.hitachi.movieapp.data.network;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Stops calling OMDb for a while after repeated failures, so an outage fails fast instead of
+ * stacking up requests that all wait for their timeout.
+ * After {@link #DEFAULT_FAILURE_THRESHOLD} consecutive failures the breaker opens and refuses
+ * calls; once the open period is over a single trial call is let through, and its outcome
+ * closes the breaker or opens it again. A "Request limit reached!" answer opens it for much
+ * longer, since retrying can't succeed before the quota resets.
+ */
+@Singleton
+public class CircuitBreaker {
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    public static final long DEFAULT_REQUEST_LIMIT_OPEN_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        /**
+         * The open period is over and a trial call is in flight.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Source of monotonic time in milliseconds.
+     */
+    public interface Clock {
+        long nowMillis();
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final long requestLimitOpenMillis;
+    private final Clock clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilMillis;
+
+    @Inject
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS, DEFAULT_REQUEST_LIMIT_OPEN_MILLIS,
+                () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+    }
+
+    /**
+     * Constructor for the CircuitBreaker.
+     *
+     * @param failureThreshold       Consecutive failures after which the breaker opens.
+     * @param openMillis             How long the breaker stays open after failures.
+     * @param requestLimitOpenMillis How long the breaker stays open after the request limit was reached.
+     * @param clock                  The clock the open period is measured with.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis, long requestLimitOpenMillis, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.requestLimitOpenMillis = requestLimitOpenMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Asks to make a call. Every permitted call must report its outcome.
+     *
+     * @return True if the call may go ahead.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.nowMillis() < openUntilMillis)
+                    return false;
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // Only the trial call goes through until it reports back
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold)
+            open(openMillis);
+    }
+
+    public synchronized void onRequestLimitReached() {
+        open(requestLimitOpenMillis);
+    }
+
+    /**
+     * Reports a permitted call that ended without an outcome, e.g. because it was cancelled.
+     */
+    public synchronized void onAbandoned() {
+        // Let the next call be the trial instead
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openUntilMillis = clock.nowMillis();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void open(long millis) {
+        state = State.OPEN;
+        // A short open period never cuts a longer one short
+        openUntilMillis = Math.max(openUntilMillis, clock.nowMillis() + millis);
+    }
+}
@@ -0,0 +1,143 @@
+package com.hitachi.movieapp.data.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size histogram of non-negative values with geometric buckets, each about 25% wider than
+ * the previous one, so percentiles stay within that error from microseconds up to minutes
+ * while memory stays constant no matter how many values are recorded.
+ */
+public class Histogram {
+    private static final double BUCKET_GROWTH = 1.25;
+
+    // Inclusive upper bound of each bucket, the last bucket also takes everything above it
+    private final long[] upperBounds;
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Constructor for the Histogram.
+     *
+     * @param highestTrackableValue The value above which all values share the last bucket.
+     */
+    public Histogram(long highestTrackableValue) {
+        if (highestTrackableValue < 1)
+            throw new IllegalArgumentException("highestTrackableValue < 1");
+        List<Long> bounds = new ArrayList<>();
+        long bound = 1;
+        bounds.add(bound);
+        while (bound < highestTrackableValue) {
+            bound = Math.max(bound + 1, (long) Math.ceil(bound * BUCKET_GROWTH));
+            bounds.add(bound);
+        }
+        upperBounds = new long[bounds.size()];
+        for (int i = 0; i < upperBounds.length; i++)
+            upperBounds[i] = bounds.get(i);
+        counts = new long[upperBounds.length];
+    }
+
+    /**
+     * Records one value, negative values are recorded as zero.
+     *
+     * @param value The value.
+     */
+    public synchronized void record(long value) {
+        value = Math.max(0, value);
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    private int bucketOf(long value) {
+        int low = 0;
+        int high = upperBounds.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (upperBounds[mid] < value)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * @return A consistent copy of the recorded distribution.
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(count, sum, count == 0 ? 0 : min, max,
+                percentileOf(0.50), percentileOf(0.90), percentileOf(0.99));
+    }
+
+    private long percentileOf(double quantile) {
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                // The bucket bound can overshoot the largest value actually seen
+                return Math.max(min, Math.min(upperBounds[i], max));
+        }
+        return max;
+    }
+
+    /**
+     * Summary of a histogram at one point in time. Percentiles are upper bounds of the bucket
+     * holding the percentile, clamped to the recorded range.
+     */
+    public static class Snapshot {
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+
+        Snapshot(long count, long sum, long min, long max, long p50, long p90, long p99) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hitachi.movieapp.data.network;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.hitachi.movieapp.data.model.MovieListItem;
+
+import java.io.IOException;
+
+import static com.hitachi.movieapp.data.network.MovieTypeAdapter.nextStringOrNull;
+
+/**
+ * Streaming Gson adapter for a search row, decoded straight into a compact {@link MovieListItem}.
+ * Only the columns the list shows are kept, everything else in the row is skipped.
+ */
+public class MovieListItemTypeAdapter extends TypeAdapter<MovieListItem> {
+
+    @Override
+    public MovieListItem read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String imdbID = null;
+        String title = null;
+        String year = null;
+        String type = null;
+        String poster = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "Title":
+                    title = nextStringOrNull(in);
+                    break;
+                case "Year":
+                    year = nextStringOrNull(in);
+                    break;
+                case "imdbID":
+                    imdbID = nextStringOrNull(in);
+                    break;
+                case "Type":
+                    type = nextStringOrNull(in);
+                    break;
+                case "Poster":
+                    poster = nextStringOrNull(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new MovieListItem(imdbID, title, year, type, poster);
+    }
+
+    @Override
+    public void write(JsonWriter out, MovieListItem item) throws IOException {
+        if (item == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("Title").value(item.getTitle());
+        out.name("Year").value(item.getYear());
+        out.name("imdbID").value(item.getImdbID());
+        out.name("Type").value(item.getType());
+        out.name("Poster").value(item.getPoster());
+        out.endObject();
+    }
+}
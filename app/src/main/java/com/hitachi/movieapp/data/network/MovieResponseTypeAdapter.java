@@ -0,0 +1,95 @@
+package com.hitachi.movieapp.data.network;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hitachi.movieapp.data.network.MovieTypeAdapter.nextStringOrNull;
+
+/**
+ * Streaming Gson adapter for a {@link MovieResponse} search page.
+ * Search rows are decoded one by one into compact rows with {@link MovieListItemTypeAdapter}
+ * while the page is read.
+ */
+public class MovieResponseTypeAdapter extends TypeAdapter<MovieResponse> {
+    /**
+     * OMDb search pages hold at most this many rows.
+     */
+    private static final int PAGE_SIZE = 10;
+
+    private final MovieListItemTypeAdapter listItemTypeAdapter;
+
+    public MovieResponseTypeAdapter(MovieListItemTypeAdapter listItemTypeAdapter) {
+        this.listItemTypeAdapter = listItemTypeAdapter;
+    }
+
+    @Override
+    public MovieResponse read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        MovieResponse movieResponse = new MovieResponse();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "Search":
+                    movieResponse.setMovies(readMovies(in));
+                    break;
+                case "totalResults":
+                    movieResponse.setTotalResults(nextStringOrNull(in));
+                    break;
+                case "Response":
+                    movieResponse.setResponse(nextStringOrNull(in));
+                    break;
+                case "Error":
+                    movieResponse.setErrorMsg(nextStringOrNull(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return movieResponse;
+    }
+
+    private List<MovieListItem> readMovies(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<MovieListItem> movies = new ArrayList<>(PAGE_SIZE);
+        in.beginArray();
+        while (in.hasNext())
+            movies.add(listItemTypeAdapter.read(in));
+        in.endArray();
+        return movies;
+    }
+
+    @Override
+    public void write(JsonWriter out, MovieResponse movieResponse) throws IOException {
+        if (movieResponse == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (movieResponse.getMovies() != null) {
+            out.name("Search").beginArray();
+            for (MovieListItem item : movieResponse.getMovies())
+                listItemTypeAdapter.write(out, item);
+            out.endArray();
+        }
+        out.name("totalResults").value(movieResponse.getTotalResults());
+        out.name("Response").value(movieResponse.getResponse());
+        out.name("Error").value(movieResponse.getErrorMsg());
+        out.endObject();
+    }
+}
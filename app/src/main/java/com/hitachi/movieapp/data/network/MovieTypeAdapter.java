@@ -0,0 +1,105 @@
+package com.hitachi.movieapp.data.network;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.hitachi.movieapp.data.model.response.Movie;
+
+import java.io.IOException;
+
+/**
+ * Streaming Gson adapter for {@link Movie}, used for both search rows and details responses.
+ * Fields are read straight from the stream without reflection, and fields the app doesn't
+ * use (ratings, box office, ...) are skipped without being materialized.
+ */
+public class MovieTypeAdapter extends TypeAdapter<Movie> {
+
+    @Override
+    public Movie read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Movie movie = new Movie();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "Title":
+                    movie.setTitle(nextStringOrNull(in));
+                    break;
+                case "Year":
+                    movie.setYear(nextStringOrNull(in));
+                    break;
+                case "imdbID":
+                    movie.setImdbID(nextStringOrNull(in));
+                    break;
+                case "Type":
+                    movie.setType(nextStringOrNull(in));
+                    break;
+                case "Poster":
+                    movie.setPoster(nextStringOrNull(in));
+                    break;
+                case "Genre":
+                    movie.setGenre(nextStringOrNull(in));
+                    break;
+                case "Director":
+                    movie.setDirector(nextStringOrNull(in));
+                    break;
+                case "Writer":
+                    movie.setWriter(nextStringOrNull(in));
+                    break;
+                case "Actors":
+                    movie.setActors(nextStringOrNull(in));
+                    break;
+                case "Plot":
+                    movie.setPlot(nextStringOrNull(in));
+                    break;
+                case "Response":
+                    movie.setResponse(nextStringOrNull(in));
+                    break;
+                case "Error":
+                    movie.setErrorMsg(nextStringOrNull(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return movie;
+    }
+
+    @Override
+    public void write(JsonWriter out, Movie movie) throws IOException {
+        if (movie == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("Title").value(movie.getTitle());
+        out.name("Year").value(movie.getYear());
+        out.name("Genre").value(movie.getGenre());
+        out.name("Director").value(movie.getDirector());
+        out.name("Writer").value(movie.getWriter());
+        out.name("Actors").value(movie.getActors());
+        out.name("Plot").value(movie.getPlot());
+        out.name("Poster").value(movie.getPoster());
+        out.name("imdbID").value(movie.getImdbID());
+        out.name("Response").value(movie.getResponse());
+        out.name("Error").value(movie.getErrorMsg());
+        out.name("Type").value(movie.getType());
+        out.endObject();
+    }
+
+    /**
+     * Reads a string value, accepting JSON null the way reflective binding does.
+     */
+    static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
@@ -0,0 +1,204 @@
+package com.hitachi.movieapp.data.network;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * In-process network telemetry, aggregated per {@link OmdbEndpoint}.
+ * {@link TelemetryEventListener} records how long each phase of a call took and how large the
+ * response body was; this class keeps one histogram per phase, so percentiles can be queried
+ * with {@link #getStats} or dumped to the log with {@link #dump()}.
+ * Phase latencies are kept in microseconds, body sizes in bytes.
+ */
+@Singleton
+public class NetworkMetrics {
+    /**
+     * The timed phases of a call. Connection phases only happen when no pooled connection
+     * could be reused, so they are usually recorded for fewer calls than {@link #TOTAL}.
+     */
+    public enum Phase {
+        DNS,
+        CONNECT,
+        TLS,
+        /**
+         * From sending the request to the first response header, i.e. server time plus one round trip.
+         */
+        TIME_TO_FIRST_BYTE,
+        /**
+         * The whole call, including queueing in OkHttp's dispatcher and reading the body.
+         */
+        TOTAL
+    }
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final long MAX_BODY_BYTES = 16L * 1024 * 1024;
+
+    private final Map<OmdbEndpoint, EndpointCounters> counters = new EnumMap<>(OmdbEndpoint.class);
+
+    @Inject
+    public NetworkMetrics() {
+        for (OmdbEndpoint endpoint : OmdbEndpoint.values())
+            counters.put(endpoint, new EndpointCounters());
+    }
+
+    /**
+     * Records the duration of one phase of a call.
+     *
+     * @param endpoint    The endpoint of the call.
+     * @param phase       The phase.
+     * @param elapsedNanos How long the phase took.
+     */
+    public void recordPhase(OmdbEndpoint endpoint, Phase phase, long elapsedNanos) {
+        counters.get(endpoint).phases.get(phase).record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    /**
+     * Records the size of a response body as read from the network, before it was unzipped.
+     *
+     * @param endpoint  The endpoint of the call.
+     * @param byteCount The number of bytes read.
+     */
+    public void recordBodyBytes(OmdbEndpoint endpoint, long byteCount) {
+        counters.get(endpoint).bodyBytes.record(byteCount);
+    }
+
+    /**
+     * Records how a call ended.
+     *
+     * @param endpoint  The endpoint of the call.
+     * @param failed    True if the call failed or was cancelled.
+     * @param fromCache True if the response came from the HTTP cache without a network request.
+     */
+    public void recordCall(OmdbEndpoint endpoint, boolean failed, boolean fromCache) {
+        EndpointCounters endpointCounters = counters.get(endpoint);
+        synchronized (endpointCounters) {
+            endpointCounters.callCount++;
+            if (failed)
+                endpointCounters.failedCount++;
+            if (fromCache)
+                endpointCounters.cacheHitCount++;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the telemetry of one endpoint.
+     *
+     * @param endpoint The endpoint.
+     * @return The endpoint's statistics.
+     */
+    public EndpointStats getStats(OmdbEndpoint endpoint) {
+        EndpointCounters endpointCounters = counters.get(endpoint);
+        Map<Phase, Histogram.Snapshot> phases = new EnumMap<>(Phase.class);
+        for (Map.Entry<Phase, Histogram> phase : endpointCounters.phases.entrySet())
+            phases.put(phase.getKey(), phase.getValue().snapshot());
+        synchronized (endpointCounters) {
+            return new EndpointStats(endpoint, endpointCounters.callCount, endpointCounters.failedCount,
+                    endpointCounters.cacheHitCount, phases, endpointCounters.bodyBytes.snapshot());
+        }
+    }
+
+    /**
+     * @return A readable summary of every endpoint that made calls, e.g. for a debug log.
+     */
+    public String dump() {
+        StringBuilder dump = new StringBuilder("Network telemetry");
+        for (OmdbEndpoint endpoint : OmdbEndpoint.values()) {
+            EndpointStats stats = getStats(endpoint);
+            if (stats.getCallCount() > 0)
+                dump.append('\n').append(stats);
+        }
+        return dump.toString();
+    }
+
+    private static final class EndpointCounters {
+        final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+        final Histogram bodyBytes = new Histogram(MAX_BODY_BYTES);
+        long callCount;
+        long failedCount;
+        long cacheHitCount;
+
+        EndpointCounters() {
+            for (Phase phase : Phase.values())
+                phases.put(phase, new Histogram(MAX_LATENCY_MICROS));
+        }
+    }
+
+    /**
+     * Snapshot of the telemetry of one endpoint.
+     */
+    public static class EndpointStats {
+        private final OmdbEndpoint endpoint;
+        private final long callCount;
+        private final long failedCount;
+        private final long cacheHitCount;
+        private final Map<Phase, Histogram.Snapshot> phases;
+        private final Histogram.Snapshot bodyBytes;
+
+        EndpointStats(OmdbEndpoint endpoint, long callCount, long failedCount, long cacheHitCount,
+                      Map<Phase, Histogram.Snapshot> phases, Histogram.Snapshot bodyBytes) {
+            this.endpoint = endpoint;
+            this.callCount = callCount;
+            this.failedCount = failedCount;
+            this.cacheHitCount = cacheHitCount;
+            this.phases = phases;
+            this.bodyBytes = bodyBytes;
+        }
+
+        public OmdbEndpoint getEndpoint() {
+            return endpoint;
+        }
+
+        public long getCallCount() {
+            return callCount;
+        }
+
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        public long getCacheHitCount() {
+            return cacheHitCount;
+        }
+
+        /**
+         * @param phase The phase.
+         * @return The latencies of the phase, in microseconds.
+         */
+        public Histogram.Snapshot getPhase(Phase phase) {
+            return phases.get(phase);
+        }
+
+        /**
+         * @return The response body sizes, in bytes.
+         */
+        public Histogram.Snapshot getBodyBytes() {
+            return bodyBytes;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder()
+                    .append(endpoint).append(": calls=").append(callCount)
+                    .append(" failed=").append(failedCount)
+                    .append(" cached=").append(cacheHitCount);
+            for (Map.Entry<Phase, Histogram.Snapshot> phase : phases.entrySet()) {
+                Histogram.Snapshot latency = phase.getValue();
+                if (latency.getCount() == 0)
+                    continue;
+                text.append(String.format(Locale.US, "%n  %-18s n=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                        phase.getKey(), latency.getCount(), latency.getP50() / 1000.0, latency.getP90() / 1000.0,
+                        latency.getP99() / 1000.0, latency.getMax() / 1000.0));
+            }
+            if (bodyBytes.getCount() > 0)
+                text.append(String.format(Locale.US, "%n  %-18s n=%d p50=%dB p90=%dB p99=%dB max=%dB",
+                        "BODY", bodyBytes.getCount(), bodyBytes.getP50(), bodyBytes.getP90(),
+                        bodyBytes.getP99(), bodyBytes.getMax()));
+            return text.toString();
+        }
+    }
+}
@@ -5,19 +5,36 @@ import com.hitachi.movieapp.data.model.response.MovieResponse;
 
 import retrofit2.Call;
 import retrofit2.http.GET;
+import retrofit2.http.Headers;
 import retrofit2.http.Query;
+import retrofit2.http.Tag;
 
 public interface OmdbApi {
     @GET("/")
     Call<MovieResponse> getMovies(
             @Query("apikey") String apiKey,
             @Query("s") String query,
-            @Query("page") int page);
+            @Query("type") String type,      // movie, series or episode; left out when null
+            @Query("y") Integer year,        // Release year; left out when null
+            @Query("page") int page,
+            @Tag RequestPriority priority);   // Budget lane of the call, not sent to OMDb
 
     @GET("/")
     Call<Movie> getMovieDetails(
             @Query("i") String imdbID,       // IMDb ID of the movie
-            @Query("apikey") String apiKey   // Your OMDb API key
+            @Query("apikey") String apiKey,  // Your OMDb API key
+            @Tag RequestPriority priority    // Budget lane of the call, not sent to OMDb
     );
-}
 
+    /**
+     * Same lookup as {@link #getMovieDetails}, but revalidated with OMDb instead of served from
+     * the HTTP cache, whose copy outlives the stored details it would refresh.
+     */
+    @GET("/")
+    @Headers("Cache-Control: no-cache")
+    Call<Movie> refreshMovieDetails(
+            @Query("i") String imdbID,       // IMDb ID of the movie
+            @Query("apikey") String apiKey,  // Your OMDb API key
+            @Tag RequestPriority priority    // Budget lane of the call, not sent to OMDb
+    );
+}
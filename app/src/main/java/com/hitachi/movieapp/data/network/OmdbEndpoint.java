@@ -0,0 +1,49 @@
+package com.hitachi.movieapp.data.network;
+
+import androidx.annotation.Nullable;
+
+import okhttp3.Request;
+import retrofit2.Invocation;
+
+/**
+ * The OMDb operations the app calls, used to tag network telemetry per endpoint.
+ */
+public enum OmdbEndpoint {
+    /**
+     * {@link OmdbApi#getMovies}, a page of search results.
+     */
+    SEARCH,
+    /**
+     * {@link OmdbApi#getMovieDetails}, the details of one movie.
+     */
+    DETAILS,
+    /**
+     * Any other request made through the client.
+     */
+    OTHER;
+
+    /**
+     * Finds the endpoint of a request from the Retrofit method that created it, falling back to
+     * the query parameters for requests built by hand.
+     *
+     * @param request The request.
+     * @return The endpoint, {@link #OTHER} if it isn't an OMDb call.
+     */
+    public static OmdbEndpoint of(@Nullable Request request) {
+        if (request == null)
+            return OTHER;
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            String method = invocation.method().getName();
+            if ("getMovies".equals(method))
+                return SEARCH;
+            if ("getMovieDetails".equals(method))
+                return DETAILS;
+        }
+        if (request.url().queryParameter("s") != null)
+            return SEARCH;
+        if (request.url().queryParameter("i") != null)
+            return DETAILS;
+        return OTHER;
+    }
+}
@@ -0,0 +1,36 @@
+package com.hitachi.movieapp.data.network;
+
+import java.io.IOException;
+
+/**
+ * A call that was refused without a usable response, either by OMDb or by the client itself.
+ * The message is suitable for showing to the user.
+ */
+public class OmdbException extends IOException {
+
+    public enum Reason {
+        /**
+         * The API key's daily quota is used up, as counted by the client or reported by OMDb.
+         */
+        REQUEST_LIMIT,
+        /**
+         * Recent calls kept failing, so the circuit breaker refused the call without trying.
+         */
+        UNAVAILABLE,
+        /**
+         * The client-side rate limiter shed the call to save the key's budget.
+         */
+        RATE_LIMITED
+    }
+
+    private final Reason reason;
+
+    public OmdbException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,194 @@
+package com.hitachi.movieapp.data.network;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side budget for the OMDb API key, shared by every call.
+ * A token bucket smooths bursts such as fast scrolling, and a daily counter, persisted across
+ * restarts, keeps the key below its quota. The counter is kept in memory and written to the
+ * {@link QuotaStore} at most every {@link #PERSIST_INTERVAL_MILLIS}, when a new day starts,
+ * when the quota runs out and on {@link #flush()}. Calls the user waits for may wait briefly for a
+ * token; background and speculative calls are shed instead, and only while a reserve of tokens
+ * and quota is left for the user (see {@link RequestPriority}).
+ */
+public class RateLimiter {
+    /**
+     * Tokens added per second.
+     */
+    public static final double DEFAULT_PERMITS_PER_SECOND = 2;
+    /**
+     * Size of the bucket, i.e. how many calls can be made at once after a quiet period.
+     */
+    public static final int DEFAULT_BURST = 10;
+    /**
+     * Requests per day allowed by a free OMDb key.
+     */
+    public static final int DEFAULT_DAILY_QUOTA = 1000;
+    /**
+     * Longest a user call is delayed for a token before it is refused.
+     */
+    public static final long MAX_USER_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(3);
+    /**
+     * Shortest time between two writes of the daily counter, so a burst of calls isn't a burst
+     * of disk writes. A process killed without {@link #flush()} forgets at most this much usage.
+     */
+    public static final long PERSIST_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final String QUOTA_ERROR = "Daily request limit reached, please try again tomorrow";
+    private static final String RATE_ERROR = "Too many requests, please try again shortly";
+
+    /**
+     * Persists the number of calls made on a day.
+     */
+    public interface QuotaStore {
+        /**
+         * @param day The day, counted in UTC days since the epoch.
+         * @return The calls made on that day, 0 if none were recorded.
+         */
+        int getUsed(long day);
+
+        void setUsed(long day, int used);
+    }
+
+    /**
+     * Source of wall-clock time in milliseconds, used for both refills and day boundaries.
+     */
+    public interface Clock {
+        long nowMillis();
+    }
+
+    private final double permitsPerMilli;
+    private final int burst;
+    private final int dailyQuota;
+    private final QuotaStore quotaStore;
+    private final Clock clock;
+    // Guarded by this, negative while user calls are waiting for their reserved tokens
+    private double tokens;
+    private long refilledAt;
+    private long day = -1;
+    private int usedToday;
+    private int persistedUsed;
+    private long persistDueAt;
+
+    /**
+     * Constructor for the RateLimiter.
+     *
+     * @param permitsPerSecond The rate tokens are added at.
+     * @param burst            The capacity of the bucket, which starts full.
+     * @param dailyQuota       The calls allowed per UTC day.
+     * @param quotaStore       Where the calls made today are persisted.
+     * @param clock            The clock used for refills and day boundaries.
+     */
+    public RateLimiter(double permitsPerSecond, int burst, int dailyQuota, QuotaStore quotaStore, Clock clock) {
+        if (permitsPerSecond <= 0 || burst < 1 || dailyQuota < 1)
+            throw new IllegalArgumentException("Rate, burst and quota must be positive");
+        this.permitsPerMilli = permitsPerSecond / 1000;
+        this.burst = burst;
+        this.dailyQuota = dailyQuota;
+        this.quotaStore = quotaStore;
+        this.clock = clock;
+        this.tokens = burst;
+        this.refilledAt = clock.nowMillis();
+    }
+
+    /**
+     * Takes a token and a unit of daily quota for one call.
+     *
+     * @param priority The priority of the call.
+     * @return How long the call must wait before it is sent, 0 to send it now.
+     * @throws OmdbException If the call is refused: {@link OmdbException.Reason#REQUEST_LIMIT}
+     *                       when the daily quota is used up, {@link OmdbException.Reason#RATE_LIMITED}
+     *                       when a low-priority call is shed or a user call would wait too long.
+     */
+    public synchronized long acquire(RequestPriority priority) throws OmdbException {
+        long now = clock.nowMillis();
+        refill(now);
+        rollDay(now);
+        if (dailyQuota - usedToday <= Math.floor(dailyQuota * priority.getQuotaReserve())) {
+            if (priority == RequestPriority.USER)
+                throw new OmdbException(OmdbException.Reason.REQUEST_LIMIT, QUOTA_ERROR);
+            throw new OmdbException(OmdbException.Reason.RATE_LIMITED, RATE_ERROR);
+        }
+        double tokensLeft = tokens - 1;
+        long waitMillis = 0;
+        if (priority == RequestPriority.USER) {
+            if (tokensLeft < 0)
+                waitMillis = (long) Math.ceil(-tokensLeft / permitsPerMilli);
+            if (waitMillis > MAX_USER_WAIT_MILLIS)
+                throw new OmdbException(OmdbException.Reason.RATE_LIMITED, RATE_ERROR);
+        } else if (tokensLeft < burst * priority.getBurstReserve()) {
+            throw new OmdbException(OmdbException.Reason.RATE_LIMITED, RATE_ERROR);
+        }
+        tokens = tokensLeft;
+        usedToday++;
+        persistIfDue(now);
+        return waitMillis;
+    }
+
+    /**
+     * Gives back the token and quota of a call that never reached OMDb, e.g. one answered
+     * from the HTTP cache.
+     */
+    public synchronized void release() {
+        long now = clock.nowMillis();
+        refill(now);
+        tokens = Math.min(burst, tokens + 1);
+        if (usedToday > 0) {
+            usedToday--;
+            persistIfDue(now);
+        }
+    }
+
+    /**
+     * Marks today's quota as used up, e.g. after OMDb answered "Request limit reached!".
+     */
+    public synchronized void onQuotaExhausted() {
+        rollDay(clock.nowMillis());
+        usedToday = dailyQuota;
+        flush();
+    }
+
+    /**
+     * Writes the calls made today to the {@link QuotaStore} if they changed since the last
+     * write, e.g. before the process may be killed in the background.
+     */
+    public synchronized void flush() {
+        if (day >= 0 && usedToday != persistedUsed) {
+            quotaStore.setUsed(day, usedToday);
+            persistedUsed = usedToday;
+            persistDueAt = clock.nowMillis() + PERSIST_INTERVAL_MILLIS;
+        }
+    }
+
+    /**
+     * @return The calls left today.
+     */
+    public synchronized int getRemainingQuota() {
+        rollDay(clock.nowMillis());
+        return Math.max(0, dailyQuota - usedToday);
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerMilli);
+            refilledAt = now;
+        }
+    }
+
+    private void persistIfDue(long now) {
+        if (now >= persistDueAt)
+            flush();
+    }
+
+    private void rollDay(long now) {
+        long today = now / DAY_MILLIS;
+        if (today != day) {
+            day = today;
+            usedToday = quotaStore.getUsed(today);
+            persistedUsed = usedToday;
+            // The first call of the day replaces the stored count of the previous day right away
+            persistDueAt = now;
+        }
+    }
+}
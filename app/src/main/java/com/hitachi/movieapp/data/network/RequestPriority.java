@@ -0,0 +1,43 @@
+package com.hitachi.movieapp.data.network;
+
+/**
+ * Why an OMDb call is made, attached to the request as a Retrofit tag.
+ * Lower priorities may only spend tokens and daily quota while a share of both is left over,
+ * so speculative work can't starve what the user is waiting for.
+ */
+public enum RequestPriority {
+    /**
+     * The user is waiting for the result, e.g. a search page or an opened movie.
+     */
+    USER(0, 0),
+    /**
+     * Keeps data fresh without anyone waiting, e.g. revalidating a stale cached page.
+     */
+    BACKGROUND(0.25, 0.10),
+    /**
+     * May never be used, e.g. prefetching details of rows near the viewport.
+     */
+    SPECULATIVE(0.5, 0.25);
+
+    private final double burstReserve;
+    private final double quotaReserve;
+
+    RequestPriority(double burstReserve, double quotaReserve) {
+        this.burstReserve = burstReserve;
+        this.quotaReserve = quotaReserve;
+    }
+
+    /**
+     * @return The share of the token bucket these calls must leave for higher priorities.
+     */
+    public double getBurstReserve() {
+        return burstReserve;
+    }
+
+    /**
+     * @return The share of the daily quota these calls must leave for higher priorities.
+     */
+    public double getQuotaReserve() {
+        return quotaReserve;
+    }
+}
@@ -0,0 +1,361 @@
+package com.hitachi.movieapp.data.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * A call that is attempted up to {@link RetryPolicy#getMaxAttempts()} times.
+ * Connection failures, timeouts and 408, 429 and 5xx responses are retried after a jittered
+ * backoff, honouring a Retry-After header; a response asking for a longer wait than the policy's
+ * largest delay is delivered as is instead of being retried. Every attempt draws from the {@link RateLimiter} at
+ * the call's {@link RequestPriority} and may be delayed for a token. OMDb's "Request limit
+ * reached!" answer and calls refused by the rate limiter or the {@link CircuitBreaker} fail
+ * with an {@link OmdbException} instead.
+ * Cancelling stops the attempt in flight and any attempt that is waiting to start.
+ */
+final class ResilientCall<T> implements Call<T> {
+    private static final String REQUEST_LIMIT_ERROR = "Request limit reached!";
+    private static final String UNAVAILABLE_ERROR = "The movie service isn't responding, please try again shortly";
+    // Enough of an error body to find OMDb's error message
+    private static final long ERROR_PEEK_BYTES = 256;
+    private static final RetryPolicy SINGLE_ATTEMPT = new RetryPolicy(1, 0, 0, 0);
+
+    private enum Outcome {
+        DELIVER,
+        RETRY,
+        REQUEST_LIMIT
+    }
+
+    private final Call<T> original;
+    private final Map<OmdbEndpoint, RetryPolicy> retryPolicies;
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+    private final ScheduledExecutorService timer;
+    // Guarded by this
+    private boolean executed;
+    private boolean canceled;
+    @Nullable
+    private Call<T> attempt;
+    @Nullable
+    private ScheduledFuture<?> pendingAttempt;
+    // Whether the pending attempt already took its rate limiter budget
+    private boolean pendingHoldsBudget;
+    @Nullable
+    private Callback<T> callback;
+
+    ResilientCall(Call<T> original, Map<OmdbEndpoint, RetryPolicy> retryPolicies,
+                  CircuitBreaker circuitBreaker, RateLimiter rateLimiter, ScheduledExecutorService timer) {
+        this.original = original;
+        this.retryPolicies = retryPolicies;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.timer = timer;
+    }
+
+    @Override
+    public void enqueue(@NonNull Callback<T> callback) {
+        synchronized (this) {
+            if (executed)
+                throw new IllegalStateException("Already executed");
+            executed = true;
+            this.callback = callback;
+        }
+        enqueueAttempt(1, policy(), callback);
+    }
+
+    private void enqueueAttempt(int attemptNumber, RetryPolicy policy, Callback<T> callback) {
+        long waitMillis;
+        try {
+            waitMillis = rateLimiter.acquire(priority());
+        } catch (OmdbException e) {
+            callback.onFailure(this, e);
+            return;
+        }
+        if (waitMillis > 0 && schedule(() -> sendAttempt(attemptNumber, policy, callback), waitMillis, true))
+            return;
+        sendAttempt(attemptNumber, policy, callback);
+    }
+
+    private void sendAttempt(int attemptNumber, RetryPolicy policy, Callback<T> callback) {
+        Call<T> call;
+        try {
+            call = startAttempt(attemptNumber, policy);
+        } catch (IOException e) {
+            callback.onFailure(this, e);
+            return;
+        }
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NonNull Call<T> call, @NonNull Response<T> response) {
+                releaseIfCached(response);
+                Outcome outcome = classify(response);
+                if (outcome == Outcome.REQUEST_LIMIT)
+                    callback.onFailure(ResilientCall.this, new OmdbException(OmdbException.Reason.REQUEST_LIMIT, REQUEST_LIMIT_ERROR));
+                else if (outcome == Outcome.RETRY && attemptNumber < policy.getMaxAttempts()
+                        && retryAfterMillis(response) <= policy.getMaxDelayMillis()
+                        && schedule(() -> enqueueAttempt(attemptNumber + 1, policy, callback),
+                        retryDelayMillis(attemptNumber, policy, retryAfterMillis(response)), false))
+                    closeQuietly(response.errorBody());
+                else
+                    callback.onResponse(ResilientCall.this, response);
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+                if (isCanceled()) {
+                    circuitBreaker.onAbandoned();
+                } else {
+                    circuitBreaker.onFailure();
+                    if (t instanceof IOException && attemptNumber < policy.getMaxAttempts()
+                            && schedule(() -> enqueueAttempt(attemptNumber + 1, policy, callback),
+                            retryDelayMillis(attemptNumber, policy, 0), false))
+                        return;
+                }
+                callback.onFailure(ResilientCall.this, t);
+            }
+        });
+    }
+
+    /**
+     * Runs the next step of the call later, unless the call was cancelled.
+     *
+     * @param holdsBudget Whether the step already took its rate limiter budget, which is given
+     *                    back if the call is cancelled before the step runs.
+     * @return False if the call was cancelled.
+     */
+    private boolean schedule(Runnable step, long delayMillis, boolean holdsBudget) {
+        synchronized (this) {
+            if (canceled)
+                return false;
+            pendingAttempt = timer.schedule(step, delayMillis, TimeUnit.MILLISECONDS);
+            pendingHoldsBudget = holdsBudget;
+            return true;
+        }
+    }
+
+    /**
+     * Waits for the server's Retry-After if it asked for one. Callers don't retry when it is longer
+     * than the policy's largest delay, so an outage can't keep calls pending for minutes.
+     */
+    private static long retryDelayMillis(int failedAttempt, RetryPolicy policy, long retryAfterMillis) {
+        return Math.max(retryAfterMillis, policy.delayBeforeRetry(failedAttempt, ThreadLocalRandom.current()));
+    }
+
+    @NonNull
+    @Override
+    public Response<T> execute() throws IOException {
+        synchronized (this) {
+            if (executed)
+                throw new IllegalStateException("Already executed");
+            executed = true;
+        }
+        RetryPolicy policy = policy();
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            sleep(rateLimiter.acquire(priority()));
+            Call<T> call = startAttempt(attemptNumber, policy);
+            long retryAfterMillis = 0;
+            try {
+                Response<T> response = call.execute();
+                releaseIfCached(response);
+                Outcome outcome = classify(response);
+                if (outcome == Outcome.REQUEST_LIMIT)
+                    throw new OmdbException(OmdbException.Reason.REQUEST_LIMIT, REQUEST_LIMIT_ERROR);
+                retryAfterMillis = retryAfterMillis(response);
+                if (outcome == Outcome.DELIVER || attemptNumber >= policy.getMaxAttempts()
+                        || retryAfterMillis > policy.getMaxDelayMillis())
+                    return response;
+                closeQuietly(response.errorBody());
+            } catch (OmdbException e) {
+                throw e;
+            } catch (IOException e) {
+                if (isCanceled()) {
+                    circuitBreaker.onAbandoned();
+                    throw e;
+                }
+                circuitBreaker.onFailure();
+                if (attemptNumber >= policy.getMaxAttempts())
+                    throw e;
+            }
+            sleep(retryDelayMillis(attemptNumber, policy, retryAfterMillis));
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        if (millis <= 0)
+            return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send the call");
+        }
+    }
+
+    /**
+     * Creates the call for the next attempt, unless the call was cancelled or the breaker is open.
+     * A refused attempt never reaches OMDb, so the budget it took from the rate limiter is given back.
+     */
+    private Call<T> startAttempt(int attemptNumber, RetryPolicy policy) throws IOException {
+        Call<T> call;
+        IOException refused = null;
+        synchronized (this) {
+            pendingAttempt = null;
+            pendingHoldsBudget = false;
+            if (canceled) {
+                refused = new IOException("Canceled");
+                call = null;
+            } else if (!circuitBreaker.tryAcquire()) {
+                refused = new OmdbException(OmdbException.Reason.UNAVAILABLE, UNAVAILABLE_ERROR);
+                call = null;
+            } else {
+                call = attemptNumber == 1 ? original : original.clone();
+                attempt = call;
+            }
+        }
+        if (refused != null) {
+            rateLimiter.release();
+            throw refused;
+        }
+        if (policy.getTimeoutMillis() > 0)
+            call.timeout().timeout(policy.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        return call;
+    }
+
+    /**
+     * Decides what to do with a response and reports it to the circuit breaker.
+     */
+    private Outcome classify(Response<T> response) {
+        int code = response.code();
+        if (!response.isSuccessful() && isRequestLimitError(response.errorBody())) {
+            circuitBreaker.onRequestLimitReached();
+            rateLimiter.onQuotaExhausted();
+            return Outcome.REQUEST_LIMIT;
+        }
+        if (code == 408 || code == 429 || code >= 500) {
+            circuitBreaker.onFailure();
+            return Outcome.RETRY;
+        }
+        // The server answered, even if it was a client error
+        circuitBreaker.onSuccess();
+        return Outcome.DELIVER;
+    }
+
+    private static boolean isRequestLimitError(@Nullable ResponseBody errorBody) {
+        if (errorBody == null)
+            return false;
+        try {
+            BufferedSource source = errorBody.source();
+            source.request(ERROR_PEEK_BYTES);
+            Buffer head = source.getBuffer();
+            return head.clone().readUtf8(Math.min(head.size(), ERROR_PEEK_BYTES)).contains(REQUEST_LIMIT_ERROR);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long retryAfterMillis(Response<?> response) {
+        String retryAfter = response.headers().get("Retry-After");
+        if (retryAfter == null)
+            return 0;
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            // HTTP dates aren't worth parsing here, fall back to the backoff
+            return 0;
+        }
+    }
+
+    /**
+     * Responses served by the HTTP cache didn't cost OMDb quota.
+     */
+    private void releaseIfCached(Response<T> response) {
+        if (response.raw().networkResponse() == null)
+            rateLimiter.release();
+    }
+
+    private static void closeQuietly(@Nullable ResponseBody body) {
+        if (body != null)
+            body.close();
+    }
+
+    private RequestPriority priority() {
+        RequestPriority priority = original.request().tag(RequestPriority.class);
+        return priority != null ? priority : RequestPriority.USER;
+    }
+
+    private RetryPolicy policy() {
+        RetryPolicy policy = retryPolicies.get(OmdbEndpoint.of(original.request()));
+        return policy != null ? policy : SINGLE_ATTEMPT;
+    }
+
+    @Override
+    public void cancel() {
+        Call<T> inFlight;
+        ScheduledFuture<?> waiting;
+        boolean waitingHoldsBudget;
+        Callback<T> waitingCallback;
+        synchronized (this) {
+            canceled = true;
+            inFlight = attempt;
+            waiting = pendingAttempt;
+            waitingHoldsBudget = pendingHoldsBudget;
+            pendingAttempt = null;
+            pendingHoldsBudget = false;
+            waitingCallback = callback;
+        }
+        if (inFlight != null)
+            inFlight.cancel();
+        // A call waiting to start an attempt has nothing in flight that could report the cancellation
+        if (waiting != null && waiting.cancel(false)) {
+            if (waitingHoldsBudget)
+                rateLimiter.release();
+            if (waitingCallback != null)
+                waitingCallback.onFailure(this, new IOException("Canceled"));
+        }
+    }
+
+    @Override
+    public synchronized boolean isExecuted() {
+        return executed;
+    }
+
+    @Override
+    public synchronized boolean isCanceled() {
+        return canceled;
+    }
+
+    @NonNull
+    @Override
+    public Call<T> clone() {
+        return new ResilientCall<>(original.clone(), retryPolicies, circuitBreaker, rateLimiter, timer);
+    }
+
+    @NonNull
+    @Override
+    public Request request() {
+        return original.request();
+    }
+
+    @NonNull
+    @Override
+    public Timeout timeout() {
+        return original.timeout();
+    }
+}
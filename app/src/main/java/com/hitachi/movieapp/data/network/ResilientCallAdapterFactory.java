@@ -0,0 +1,66 @@
+package com.hitachi.movieapp.data.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Retrofit;
+
+/**
+ * Wraps every {@link Call} created by the OMDb service in a {@link ResilientCall}, so transient
+ * failures are retried with backoff, repeated failures trip the {@link CircuitBreaker}, every
+ * attempt is paid for by the {@link RateLimiter} and each endpoint gets its own timeout. The wrapped call is handed to the next adapter, which keeps
+ * delivering callbacks on the main thread.
+ */
+public class ResilientCallAdapterFactory extends CallAdapter.Factory {
+    private final Map<OmdbEndpoint, RetryPolicy> retryPolicies;
+    private final CircuitBreaker circuitBreaker;
+    private final RateLimiter rateLimiter;
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Constructor for the ResilientCallAdapterFactory.
+     *
+     * @param retryPolicies  The policy of each endpoint, endpoints without one are attempted once.
+     * @param circuitBreaker The breaker shared by all calls to OMDb.
+     * @param rateLimiter    The budget of the API key shared by all calls to OMDb.
+     * @param timer          The timer that starts delayed attempts.
+     */
+    public ResilientCallAdapterFactory(Map<OmdbEndpoint, RetryPolicy> retryPolicies, CircuitBreaker circuitBreaker,
+                                       RateLimiter rateLimiter, ScheduledExecutorService timer) {
+        this.retryPolicies = new EnumMap<>(retryPolicies);
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.timer = timer;
+    }
+
+    @Nullable
+    @Override
+    public CallAdapter<?, ?> get(@NonNull Type returnType, @NonNull Annotation[] annotations, @NonNull Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class)
+            return null;
+        @SuppressWarnings("unchecked")
+        CallAdapter<Object, Object> delegate =
+                (CallAdapter<Object, Object>) retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Object, Object>() {
+            @NonNull
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @NonNull
+            @Override
+            public Object adapt(@NonNull Call<Object> call) {
+                return delegate.adapt(new ResilientCall<>(call, retryPolicies, circuitBreaker, rateLimiter, timer));
+            }
+        };
+    }
+}
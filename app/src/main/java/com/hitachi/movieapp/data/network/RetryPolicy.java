@@ -0,0 +1,58 @@
+package com.hitachi.movieapp.data.network;
+
+import java.util.Random;
+
+/**
+ * How often and how patiently calls to one endpoint are attempted.
+ * Retries wait a random time between zero and an exponentially growing cap ("full jitter"),
+ * so clients that failed together don't retry together.
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long timeoutMillis;
+
+    /**
+     * Constructor for the RetryPolicy.
+     *
+     * @param maxAttempts     The number of attempts including the first one.
+     * @param baseDelayMillis The cap of the wait before the first retry, doubled for every further retry.
+     * @param maxDelayMillis  The largest wait between two attempts.
+     * @param timeoutMillis   The timeout of each attempt, from connecting to reading the whole body.
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis, long timeoutMillis) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("maxAttempts < 1");
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return The largest wait between two attempts, a longer Retry-After isn't waited for.
+     */
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * @param failedAttempt The number of the attempt that just failed, starting at 1.
+     * @param random        The source of jitter.
+     * @return How long to wait before the next attempt.
+     */
+    public long delayBeforeRetry(int failedAttempt, Random random) {
+        long cap = baseDelayMillis << Math.min(failedAttempt - 1, 20);
+        cap = Math.min(maxDelayMillis, cap);
+        return cap <= 0 ? 0 : (long) (random.nextDouble() * cap);
+    }
+}
@@ -0,0 +1,135 @@
+package com.hitachi.movieapp.data.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Times the phases of one call and reports them to {@link NetworkMetrics}.
+ * OkHttp creates one listener per call and delivers its events one after another, so the
+ * timestamps need no locking.
+ */
+public class TelemetryEventListener extends EventListener {
+
+    /**
+     * Creates a listener for each call, tagged with the endpoint of its request.
+     */
+    public static class Factory implements EventListener.Factory {
+        private final NetworkMetrics networkMetrics;
+
+        public Factory(NetworkMetrics networkMetrics) {
+            this.networkMetrics = networkMetrics;
+        }
+
+        @NonNull
+        @Override
+        public EventListener create(@NonNull Call call) {
+            return new TelemetryEventListener(networkMetrics, OmdbEndpoint.of(call.request()));
+        }
+    }
+
+    private final NetworkMetrics networkMetrics;
+    private final OmdbEndpoint endpoint;
+    private long callStartNanos;
+    private long dnsStartNanos;
+    private long connectStartNanos;
+    private long secureConnectStartNanos;
+    private long requestSentNanos;
+    private boolean fromCache;
+
+    TelemetryEventListener(NetworkMetrics networkMetrics, OmdbEndpoint endpoint) {
+        this.networkMetrics = networkMetrics;
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        callStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> inetAddressList) {
+        networkMetrics.recordPhase(endpoint, NetworkMetrics.Phase.DNS, System.nanoTime() - dnsStartNanos);
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress, @NonNull Proxy proxy) {
+        connectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureConnectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+        networkMetrics.recordPhase(endpoint, NetworkMetrics.Phase.TLS, System.nanoTime() - secureConnectStartNanos);
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress inetSocketAddress,
+                           @NonNull Proxy proxy, @Nullable Protocol protocol) {
+        // Includes the TLS handshake when there is one
+        networkMetrics.recordPhase(endpoint, NetworkMetrics.Phase.CONNECT, System.nanoTime() - connectStartNanos);
+    }
+
+    @Override
+    public void requestHeadersEnd(@NonNull Call call, @NonNull Request request) {
+        requestSentNanos = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd(@NonNull Call call, long byteCount) {
+        requestSentNanos = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(@NonNull Call call) {
+        if (requestSentNanos != 0)
+            networkMetrics.recordPhase(endpoint, NetworkMetrics.Phase.TIME_TO_FIRST_BYTE,
+                    System.nanoTime() - requestSentNanos);
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        networkMetrics.recordBodyBytes(endpoint, byteCount);
+    }
+
+    @Override
+    public void cacheHit(@NonNull Call call, @NonNull Response response) {
+        fromCache = true;
+    }
+
+    @Override
+    public void callEnd(@NonNull Call call) {
+        finish(false);
+    }
+
+    @Override
+    public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+        finish(true);
+    }
+
+    private void finish(boolean failed) {
+        networkMetrics.recordPhase(endpoint, NetworkMetrics.Phase.TOTAL, System.nanoTime() - callStartNanos);
+        networkMetrics.recordCall(endpoint, failed, fromCache);
+    }
+}
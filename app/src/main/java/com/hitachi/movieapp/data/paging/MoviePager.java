@@ -0,0 +1,270 @@
+package com.hitachi.movieapp.data.paging;
+
+import androidx.annotation.MainThread;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.SearchFilter;
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.repository.OnMoviesFetchedListener;
+import com.hitachi.movieapp.data.scheduler.Cancellable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Paging engine for search results.
+ * Keeps a contiguous window of at most {@link PagingConfig#getMaxPages()} pages in memory,
+ * requests the next (or previous) page once the viewport is within the prefetch distance of
+ * either end of the window and drops the page farthest from the viewport when the window is full.
+ * Pages are loaded through a {@link PageLoader}; the repository backs it with the Room search
+ * cache, so re-loading a dropped page is served from disk.
+ * All methods must be called on the main thread.
+ */
+@MainThread
+public class MoviePager {
+
+    /**
+     * Loads a single page of search results.
+     */
+    public interface PageLoader {
+        /**
+         * @return A handle cancelling the load, or null if it can't be cancelled.
+         */
+        Cancellable load(String query, SearchFilter filter, int page, OnMoviesFetchedListener listener);
+    }
+
+    /**
+     * Receives the state of the pager.
+     */
+    public interface Callback {
+        /**
+         * @param movies The movies of the loaded window, in display order.
+         */
+        void onMoviesChanged(List<MovieListItem> movies);
+
+        void onLoadStateChanged(LoadState loadState);
+
+        void onError(String error);
+    }
+
+    public enum LoadState {
+        NOT_LOADING,
+        REFRESH,
+        APPEND,
+        PREPEND
+    }
+
+    private final PagingConfig config;
+    private final PageLoader pageLoader;
+    private final Callback callback;
+    // Loaded pages keyed by page number, always a contiguous range
+    private final TreeMap<Integer, List<MovieListItem>> pages = new TreeMap<>();
+    // Loads still in flight keyed by page number, cancelled when the query changes
+    private final Map<Integer, Cancellable> inFlightLoads = new HashMap<>();
+    private String query;
+    private SearchFilter filter = SearchFilter.NONE;
+    private int totalPages;
+    // Incremented on every new query so late responses of an old query are dropped
+    private int generation;
+    private LoadState loadState = LoadState.NOT_LOADING;
+    private boolean hasError;
+
+    public MoviePager(PagingConfig config, PageLoader pageLoader, Callback callback) {
+        this.config = config;
+        this.pageLoader = pageLoader;
+        this.callback = callback;
+    }
+
+    /**
+     * Starts paging a new query from its first page, discarding everything loaded so far.
+     * Loads still in flight for the previous query are cancelled.
+     *
+     * @param query  The search query.
+     * @param filter The type and year the results are narrowed to.
+     */
+    public void start(String query, SearchFilter filter) {
+        this.query = query;
+        this.filter = filter;
+        generation++;
+        cancelInFlightLoads();
+        pages.clear();
+        totalPages = 0;
+        hasError = false;
+        callback.onMoviesChanged(Collections.emptyList());
+        load(1, LoadState.REFRESH);
+    }
+
+    /**
+     * Stops paging, e.g. while offline: loads in flight are cancelled and the window and
+     * query are dropped until the next {@link #start(String, SearchFilter)}.
+     */
+    public void clear() {
+        query = null;
+        generation++;
+        cancelInFlightLoads();
+        pages.clear();
+        totalPages = 0;
+        hasError = false;
+        setLoadState(LoadState.NOT_LOADING);
+        callback.onMoviesChanged(Collections.emptyList());
+    }
+
+    /**
+     * Reloads the current query from its first page.
+     */
+    public void refresh() {
+        if (query != null)
+            start(query, filter);
+    }
+
+    /**
+     * Allows loading to resume after a failed page load. If the first page failed there is no
+     * window to load around, so it is requested again right away.
+     */
+    public void retry() {
+        if (!hasError)
+            return;
+        hasError = false;
+        if (pages.isEmpty() && query != null && loadState == LoadState.NOT_LOADING)
+            load(1, LoadState.REFRESH);
+    }
+
+    /**
+     * Notifies the pager of the visible range so it can load or prefetch adjacent pages.
+     *
+     * @param firstVisible The first visible position in the loaded window.
+     * @param lastVisible  The last visible position in the loaded window.
+     */
+    public void loadAround(int firstVisible, int lastVisible) {
+        if (loadState != LoadState.NOT_LOADING || hasError || pages.isEmpty())
+            return;
+
+        int loadedCount = getLoadedCount();
+        int prefetchDistance = config.getPrefetchDistance();
+        if (lastVisible >= loadedCount - 1 - prefetchDistance && pages.lastKey() < totalPages)
+            load(pages.lastKey() + 1, LoadState.APPEND);
+        else if (firstVisible <= prefetchDistance && pages.firstKey() > 1)
+            load(pages.firstKey() - 1, LoadState.PREPEND);
+    }
+
+    /**
+     * Cancels every load still in flight, e.g. when the pager is no longer used.
+     */
+    public void cancelInFlightLoads() {
+        for (Cancellable load : inFlightLoads.values())
+            load.cancel();
+        inFlightLoads.clear();
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public SearchFilter getFilter() {
+        return filter;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public LoadState getLoadState() {
+        return loadState;
+    }
+
+    /**
+     * @return True if no page of the current query is loaded.
+     */
+    public boolean isEmpty() {
+        return getLoadedCount() == 0;
+    }
+
+    /**
+     * @return The movies of the loaded window, in display order.
+     */
+    public List<MovieListItem> getMovies() {
+        List<MovieListItem> movies = new ArrayList<>(getLoadedCount());
+        for (List<MovieListItem> page : pages.values())
+            movies.addAll(page);
+        return movies;
+    }
+
+    private int getLoadedCount() {
+        int count = 0;
+        for (List<MovieListItem> page : pages.values())
+            count += page.size();
+        return count;
+    }
+
+    private void load(int page, LoadState state) {
+        int loadGeneration = generation;
+        setLoadState(state);
+        Cancellable load = pageLoader.load(query, filter, page, new OnMoviesFetchedListener() {
+            @Override
+            public void onFetched(MovieResponse movieResponse) {
+                if (loadGeneration != generation)
+                    return;
+                inFlightLoads.remove(page);
+                if (state == LoadState.REFRESH)
+                    totalPages = computeTotalPages(movieResponse.getTotalResults(), config.getPageSize());
+                List<MovieListItem> movies = movieResponse.getMovies();
+                pages.put(page, movies != null ? movies : Collections.<MovieListItem>emptyList());
+                dropFarthestPages(state);
+                callback.onMoviesChanged(getMovies());
+                setLoadState(LoadState.NOT_LOADING);
+            }
+
+            @Override
+            public void onError(String error) {
+                if (loadGeneration != generation)
+                    return;
+                inFlightLoads.remove(page);
+                hasError = true;
+                setLoadState(LoadState.NOT_LOADING);
+                callback.onError(error);
+            }
+        });
+        // A cached page may already have been delivered synchronously
+        if (load != null && loadGeneration == generation && loadState == state)
+            inFlightLoads.put(page, load);
+    }
+
+    /**
+     * Drops pages at the end of the window opposite to the one just loaded until it fits.
+     */
+    private void dropFarthestPages(LoadState state) {
+        while (pages.size() > config.getMaxPages()) {
+            if (state == LoadState.PREPEND)
+                pages.pollLastEntry();
+            else
+                pages.pollFirstEntry();
+        }
+    }
+
+    private void setLoadState(LoadState state) {
+        if (loadState != state) {
+            loadState = state;
+            callback.onLoadStateChanged(state);
+        }
+    }
+
+    /**
+     * Computes the number of pages for a result count, including the final partial page.
+     *
+     * @param totalResults The "totalResults" value returned by OMDb.
+     * @param pageSize     The number of results per page.
+     * @return The number of pages, or 1 if the count cannot be parsed.
+     */
+    static int computeTotalPages(String totalResults, int pageSize) {
+        try {
+            int total = Integer.parseInt(totalResults);
+            return Math.max(1, (total + pageSize - 1) / pageSize);
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+}
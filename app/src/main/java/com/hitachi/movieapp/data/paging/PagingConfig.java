@@ -0,0 +1,52 @@
+package com.hitachi.movieapp.data.paging;
+
+/**
+ * Tuning knobs of the {@link MoviePager}.
+ */
+public class PagingConfig {
+    /**
+     * Number of results OMDb returns per search page.
+     */
+    public static final int OMDB_PAGE_SIZE = 10;
+    /**
+     * Maximum number of details requests a hydration runs at the same time, a whole OMDb page.
+     * The HTTP client allows a few more requests per host, so user calls aren't queued behind it.
+     */
+    public static final int HYDRATION_PARALLELISM = OMDB_PAGE_SIZE;
+
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final int maxPages;
+
+    /**
+     * @param pageSize         Number of items per page.
+     * @param prefetchDistance How many items before either end of the loaded window the next page is requested.
+     * @param maxPages         Maximum number of pages kept in memory; pages farthest from the viewport are dropped.
+     */
+    public PagingConfig(int pageSize, int prefetchDistance, int maxPages) {
+        if (pageSize <= 0 || prefetchDistance < 0 || maxPages < 2)
+            throw new IllegalArgumentException("Invalid paging config");
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * @return The configuration used for OMDb search results.
+     */
+    public static PagingConfig omdbDefault() {
+        return new PagingConfig(OMDB_PAGE_SIZE, OMDB_PAGE_SIZE, 8);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getPrefetchDistance() {
+        return prefetchDistance;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+}
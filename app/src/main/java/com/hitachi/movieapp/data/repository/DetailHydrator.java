@@ -0,0 +1,99 @@
+package com.hitachi.movieapp.data.repository;
+
+import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.network.RequestPriority;
+import com.hitachi.movieapp.data.scheduler.Cancellable;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Loads the details of the movies of a search page, at most {@code maxInFlight} at a time,
+ * and hands each result over as soon as it arrives. With a limit of a page size, a whole page
+ * is enriched in about one round trip instead of one per row.
+ * Cancelling drops the queued movies and every result that arrives afterwards.
+ */
+class DetailHydrator implements Cancellable {
+
+    /**
+     * Loads the details of one movie, from a cache or the network.
+     */
+    interface Loader {
+        void load(String imdbID, RequestPriority priority, OnMovieDetailsFetchedListener listener);
+    }
+
+    private final int maxInFlight;
+    private final RequestPriority priority;
+    private final Loader loader;
+    private final OnMovieDetailsFetchedListener listener;
+    // Guarded by this
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private int inFlight;
+    private boolean cancelled;
+
+    DetailHydrator(List<String> imdbIDs, int maxInFlight, RequestPriority priority, Loader loader,
+                   OnMovieDetailsFetchedListener listener) {
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        this.maxInFlight = maxInFlight;
+        this.priority = priority;
+        this.loader = loader;
+        this.listener = listener;
+        for (String imdbID : imdbIDs) {
+            if (imdbID != null && !queue.contains(imdbID))
+                queue.add(imdbID);
+        }
+    }
+
+    /**
+     * Starts the first requests, more start as earlier ones finish.
+     */
+    void start() {
+        pump();
+    }
+
+    @Override
+    public synchronized void cancel() {
+        cancelled = true;
+        queue.clear();
+    }
+
+    private synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void pump() {
+        while (true) {
+            String imdbID;
+            synchronized (this) {
+                if (cancelled || inFlight >= maxInFlight || queue.isEmpty())
+                    return;
+                imdbID = queue.poll();
+                inFlight++;
+            }
+            // Cached details are delivered synchronously, so load outside the lock
+            loader.load(imdbID, priority, new OnMovieDetailsFetchedListener() {
+                @Override
+                public void onFetched(Movie movie) {
+                    onLoaded();
+                    if (movie != null && !isCancelled())
+                        listener.onFetched(movie);
+                }
+
+                @Override
+                public void onError(String error) {
+                    onLoaded();
+                    if (!isCancelled())
+                        listener.onError(error);
+                }
+            });
+        }
+    }
+
+    private void onLoaded() {
+        synchronized (this) {
+            inFlight--;
+        }
+        pump();
+    }
+}
@@ -0,0 +1,109 @@
+package com.hitachi.movieapp.data.repository;
+
+import androidx.annotation.Nullable;
+
+import com.hitachi.movieapp.data.scheduler.Cancellable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Speculatively fetches movie details for the rows nearest the viewport so that
+ * opening a details screen is served from the cache.
+ * At most {@code maxInFlight} requests run at once; queued and in-flight work for
+ * rows that are no longer requested is dropped or cancelled.
+ */
+class DetailsPrefetcher {
+
+    /**
+     * Starts and cancels the underlying details requests on behalf of the prefetcher.
+     */
+    interface Requester {
+        /**
+         * Starts a details request.
+         *
+         * @param imdbID     The IMDb ID of the movie.
+         * @param onComplete Invoked once the request finishes, fails or is cancelled.
+         * @return A handle to the started request, or null if the details are already cached or being fetched.
+         */
+        @Nullable
+        Cancellable start(String imdbID, Runnable onComplete);
+
+        /**
+         * Cancels a request started by {@link #start}, unless a caller is now waiting on it.
+         *
+         * @param imdbID  The IMDb ID of the movie.
+         * @param request The handle returned by {@link #start}.
+         * @return True if the request was cancelled.
+         */
+        boolean cancel(String imdbID, Cancellable request);
+    }
+
+    private final int maxInFlight;
+    private final Requester requester;
+    // IMDb IDs waiting for a free slot, nearest to the viewport first
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private final Map<String, InFlightRequest> inFlight = new LinkedHashMap<>();
+
+    DetailsPrefetcher(int maxInFlight, Requester requester) {
+        this.maxInFlight = maxInFlight;
+        this.requester = requester;
+    }
+
+    /**
+     * Replaces the set of movies to prefetch.
+     * Requests for movies not in the new list are cancelled.
+     *
+     * @param imdbIDs The IMDb IDs to prefetch, ordered by priority.
+     */
+    synchronized void prefetch(List<String> imdbIDs) {
+        Set<String> wanted = new HashSet<>(imdbIDs);
+        for (Map.Entry<String, InFlightRequest> entry : new ArrayList<>(inFlight.entrySet())) {
+            Cancellable request = entry.getValue().request;
+            if (!wanted.contains(entry.getKey()) && request != null && requester.cancel(entry.getKey(), request))
+                inFlight.remove(entry.getKey());
+        }
+
+        queue.clear();
+        for (String imdbID : imdbIDs) {
+            if (imdbID != null && !inFlight.containsKey(imdbID) && !queue.contains(imdbID))
+                queue.add(imdbID);
+        }
+        pump();
+    }
+
+    /**
+     * Drops queued work and cancels every in-flight prefetch request.
+     */
+    synchronized void cancelAll() {
+        prefetch(new ArrayList<>());
+    }
+
+    private void pump() {
+        while (inFlight.size() < maxInFlight && !queue.isEmpty()) {
+            String imdbID = queue.poll();
+            InFlightRequest request = new InFlightRequest();
+            // Register before starting, the request may complete synchronously
+            inFlight.put(imdbID, request);
+            Cancellable started = requester.start(imdbID, () -> onFinished(imdbID, request));
+            if (started == null)
+                inFlight.remove(imdbID, request);
+            else
+                request.request = started;
+        }
+    }
+
+    private synchronized void onFinished(String imdbID, InFlightRequest request) {
+        if (inFlight.remove(imdbID, request))
+            pump();
+    }
+
+    private static class InFlightRequest {
+        Cancellable request;
+    }
+}
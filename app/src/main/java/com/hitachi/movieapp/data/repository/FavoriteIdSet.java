@@ -0,0 +1,54 @@
+package com.hitachi.movieapp.data.repository;
+
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe set of favorite IMDb IDs behind {@link FavoritesIndex}.
+ * Lookups come from the list binding and stamping code, updates from the scheduler.
+ */
+public class FavoriteIdSet {
+    private final Set<String> imdbIDs = ConcurrentHashMap.newKeySet();
+
+    public boolean contains(@Nullable String imdbID) {
+        return imdbID != null && imdbIDs.contains(imdbID);
+    }
+
+    /**
+     * @return True if the ID wasn't in the set.
+     */
+    public boolean add(String imdbID) {
+        return imdbIDs.add(imdbID);
+    }
+
+    /**
+     * @return True if the ID was in the set.
+     */
+    public boolean remove(String imdbID) {
+        return imdbIDs.remove(imdbID);
+    }
+
+    /**
+     * Makes the set equal to the stored IDs by applying only the difference, so concurrent
+     * lookups of unchanged IDs are never affected.
+     *
+     * @param stored The favorite IDs read from the database.
+     * @return True if the set changed.
+     */
+    public boolean reconcile(Set<String> stored) {
+        boolean changed = imdbIDs.retainAll(stored);
+        changed |= imdbIDs.addAll(stored);
+        return changed;
+    }
+
+    /**
+     * @return An immutable copy of the current IDs.
+     */
+    public Set<String> snapshot() {
+        return Collections.unmodifiableSet(new HashSet<>(imdbIDs));
+    }
+}
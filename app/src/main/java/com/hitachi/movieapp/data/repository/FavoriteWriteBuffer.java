@@ -0,0 +1,149 @@
+package com.hitachi.movieapp.data.repository;
+
+import androidx.annotation.WorkerThread;
+
+import com.hitachi.movieapp.data.local.MovieDao;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.scheduler.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Write-behind buffer for favorite changes.
+ * Toggles are collected for a short window, only the latest change per movie is kept, and the
+ * batch is written in one transaction, so a burst of taps costs one write and one invalidation.
+ */
+@Singleton
+public class FavoriteWriteBuffer {
+    /**
+     * How long changes are collected before they are written.
+     */
+    public static final long FLUSH_WINDOW_MILLIS = 500;
+    private static final String FLUSH_TASK_KEY = "favorite-flush";
+
+    private final MovieDao movieDao;
+    private final TaskScheduler scheduler;
+    private final ScheduledExecutorService timer;
+    private final long flushWindowMillis;
+    // Latest pending change per IMDb ID: a movie to insert, or null to delete
+    private final Map<String, MovieListItem> pendingChanges = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    @Inject
+    public FavoriteWriteBuffer(MovieDao movieDao, TaskScheduler scheduler) {
+        this(movieDao, scheduler, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "favorite-flush-timer");
+            thread.setDaemon(true);
+            return thread;
+        }), FLUSH_WINDOW_MILLIS);
+    }
+
+    /**
+     * Constructor for the FavoriteWriteBuffer.
+     *
+     * @param movieDao          The DAO the batches are written to.
+     * @param scheduler         The scheduler the writes run on.
+     * @param timer             The timer that triggers a flush once the window has passed.
+     * @param flushWindowMillis How long changes are collected before they are written.
+     */
+    public FavoriteWriteBuffer(MovieDao movieDao, TaskScheduler scheduler,
+                               ScheduledExecutorService timer, long flushWindowMillis) {
+        this.movieDao = movieDao;
+        this.scheduler = scheduler;
+        this.timer = timer;
+        this.flushWindowMillis = flushWindowMillis;
+    }
+
+    /**
+     * Buffers adding a movie to the favorites.
+     *
+     * @param movie The movie to store as a favorite.
+     */
+    public void add(MovieListItem movie) {
+        buffer(movie.getImdbID(), movie.withFavorite(true));
+    }
+
+    /**
+     * Buffers removing a movie from the favorites.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     */
+    public void remove(String imdbID) {
+        buffer(imdbID, null);
+    }
+
+    private synchronized void buffer(String imdbID, MovieListItem change) {
+        // Re-insert so the map keeps the order of the latest changes
+        pendingChanges.remove(imdbID);
+        pendingChanges.put(imdbID, change);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            timer.schedule(this::flush, flushWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the buffered changes now, e.g. when the app goes to the background.
+     */
+    public void flush() {
+        scheduler.executeCoalesced(TaskScheduler.Lane.USER, FLUSH_TASK_KEY, this::writePendingChanges);
+    }
+
+    /**
+     * Writes the buffered changes on the calling thread, e.g. before the favorites table is
+     * read or restored as a whole.
+     */
+    @WorkerThread
+    public void flushNow() {
+        writePendingChanges();
+    }
+
+    /**
+     * Applies the buffered changes on top of the favorite IDs read from the database,
+     * so a reconcile doesn't undo changes that haven't been written yet.
+     *
+     * @param storedImdbIDs The favorite IDs read from the database, updated in place.
+     */
+    synchronized void applyPendingChanges(Set<String> storedImdbIDs) {
+        for (Map.Entry<String, MovieListItem> change : pendingChanges.entrySet()) {
+            if (change.getValue() != null)
+                storedImdbIDs.add(change.getKey());
+            else
+                storedImdbIDs.remove(change.getKey());
+        }
+    }
+
+    private void writePendingChanges() {
+        Map<String, MovieListItem> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            batch = new LinkedHashMap<>(pendingChanges);
+        }
+        if (batch.isEmpty())
+            return;
+        List<MovieListItem> inserts = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        for (Map.Entry<String, MovieListItem> change : batch.entrySet()) {
+            if (change.getValue() != null)
+                inserts.add(change.getValue());
+            else
+                deletes.add(change.getKey());
+        }
+        movieDao.applyFavoriteChanges(inserts, deletes);
+        synchronized (this) {
+            // Changes made while the batch was written stay pending for the next flush
+            for (Map.Entry<String, MovieListItem> change : batch.entrySet())
+                pendingChanges.remove(change.getKey(), change.getValue());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.hitachi.movieapp.data.repository;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.room.InvalidationTracker;
+
+import com.hitachi.movieapp.data.local.MovieDao;
+import com.hitachi.movieapp.data.scheduler.TaskScheduler;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * In-memory index of the IMDb IDs stored as favorites.
+ * The set is updated optimistically when a favorite is toggled and reconciled with the
+ * database whenever Room invalidates the favorites table, so lookups never touch the database.
+ */
+public class FavoritesIndex {
+    /**
+     * Table whose invalidations trigger a reconcile.
+     */
+    static final String FAVORITES_TABLE = "favorites";
+    private static final String RELOAD_TASK_KEY = "favorites-index-reload";
+
+    private final MovieDao movieDao;
+    private final FavoriteWriteBuffer favoriteWriteBuffer;
+    private final TaskScheduler scheduler;
+    private final FavoriteIdSet imdbIDs = new FavoriteIdSet();
+    private final MutableLiveData<Set<String>> favoriteIdsLiveData = new MutableLiveData<>();
+
+    /**
+     * Constructor for the FavoritesIndex.
+     *
+     * @param movieDao            The DAO to read favorite IDs from.
+     * @param favoriteWriteBuffer The buffer holding favorite changes not written yet.
+     * @param scheduler           The scheduler to reconcile on.
+     */
+    public FavoritesIndex(MovieDao movieDao, FavoriteWriteBuffer favoriteWriteBuffer, TaskScheduler scheduler) {
+        this.movieDao = movieDao;
+        this.favoriteWriteBuffer = favoriteWriteBuffer;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Creates an observer that reconciles the index each time the favorites table changes.
+     *
+     * @return The observer to register with the database's InvalidationTracker.
+     */
+    public InvalidationTracker.Observer createInvalidationObserver() {
+        return new InvalidationTracker.Observer(FAVORITES_TABLE) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                reload();
+            }
+        };
+    }
+
+    /**
+     * Reads the favorite IDs from the database and applies only the difference to the index.
+     * A burst of invalidations results in a single read.
+     */
+    public void reload() {
+        scheduler.executeCoalesced(TaskScheduler.Lane.USER, RELOAD_TASK_KEY, () -> {
+            Set<String> stored = new HashSet<>(movieDao.getFavoriteIds());
+            favoriteWriteBuffer.applyPendingChanges(stored);
+            if (imdbIDs.reconcile(stored) || favoriteIdsLiveData.getValue() == null)
+                publish();
+        });
+    }
+
+    /**
+     * Checks whether a movie is a favorite.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     * @return True if the movie is stored as a favorite.
+     */
+    public boolean contains(@Nullable String imdbID) {
+        return imdbIDs.contains(imdbID);
+    }
+
+    /**
+     * Marks a movie as a favorite ahead of the database write.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     */
+    public void add(String imdbID) {
+        if (imdbIDs.add(imdbID))
+            publish();
+    }
+
+    /**
+     * Removes a movie from the favorites ahead of the database write.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     */
+    public void remove(String imdbID) {
+        if (imdbIDs.remove(imdbID))
+            publish();
+    }
+
+    /**
+     * Exposes snapshots of the favorite IDs, emitted whenever the set changes.
+     *
+     * @return LiveData for the favorite IDs.
+     */
+    public LiveData<Set<String>> getFavoriteIds() {
+        return favoriteIdsLiveData;
+    }
+
+    private void publish() {
+        favoriteIdsLiveData.postValue(imdbIDs.snapshot());
+    }
+
+}
@@ -0,0 +1,212 @@
+package com.hitachi.movieapp.data.repository;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.hitachi.movieapp.data.local.MovieSearchDao;
+import com.hitachi.movieapp.data.local.entity.MovieFtsEntity;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.MovieSearchMatch;
+import com.hitachi.movieapp.data.model.response.Movie;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Offline full-text index of every movie seen in a search page or details response, backed by
+ * an FTS4 table. Serves ranked, prefix-matching results from disk while offline and as an
+ * instant first paint while a network search is in flight.
+ */
+@Singleton
+public class LocalMovieIndex {
+    /**
+     * Age after which a movie that wasn't seen again is dropped from the index.
+     */
+    public static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(30);
+    /**
+     * Minimum time between two sweeps for old movies. A sweep scans the whole table, since
+     * the time column isn't indexed.
+     */
+    static final long PRUNE_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+    /**
+     * Maximum number of matches read before ranking, bounds the cost of very broad queries.
+     * Title matches are read first, so the bound drops the weakest candidates.
+     */
+    static final int MAX_CANDIDATES = 500;
+    // Relative weight of a hit per column, in MovieFtsEntity column order
+    private static final double[] COLUMN_WEIGHTS = {10.0, 4.0, 3.0, 1.0};
+    private static final int MAX_QUERY_TOKENS = 8;
+
+    private final MovieSearchDao movieSearchDao;
+    private final AtomicLong lastPrunedAt = new AtomicLong();
+
+    @Inject
+    public LocalMovieIndex(MovieSearchDao movieSearchDao) {
+        this.movieSearchDao = movieSearchDao;
+    }
+
+    /**
+     * Indexes the rows of a search page. Movies already indexed keep their stored details.
+     *
+     * @param movies The movies of the page.
+     */
+    @WorkerThread
+    public void addSearchResults(List<MovieListItem> movies) {
+        long now = System.currentTimeMillis();
+        List<MovieFtsEntity> rows = new ArrayList<>(movies.size());
+        for (MovieListItem movie : movies) {
+            if (movie.getImdbID() != null)
+                rows.add(new MovieFtsEntity(MovieFtsEntity.rowIdOf(movie.getImdbID()), movie.getTitle(),
+                        null, null, null, movie.getImdbID(), movie.getYear(), movie.getType(),
+                        movie.getPoster(), now));
+        }
+        if (!rows.isEmpty())
+            movieSearchDao.insertMissing(rows, now);
+    }
+
+    /**
+     * Indexes a details response, replacing the movie's row so its actors, director and plot
+     * become searchable.
+     *
+     * @param movie The movie details.
+     */
+    @WorkerThread
+    public void addDetails(Movie movie) {
+        if (movie.getImdbID() == null)
+            return;
+        long now = System.currentTimeMillis();
+        movieSearchDao.upsert(Collections.singletonList(toEntity(movie, now)));
+        pruneIfDue(now);
+    }
+
+    /**
+     * Drops movies that weren't seen for {@link #MAX_AGE_MILLIS}, at most once per
+     * {@link #PRUNE_INTERVAL_MILLIS}.
+     */
+    private void pruneIfDue(long now) {
+        long last = lastPrunedAt.get();
+        if (now - last < PRUNE_INTERVAL_MILLIS || !lastPrunedAt.compareAndSet(last, now))
+            return;
+        movieSearchDao.deleteOlderThan(now - MAX_AGE_MILLIS);
+    }
+
+    /**
+     * Searches the index. Every word of the query is matched as a prefix, so "dark kni" finds
+     * "The Dark Knight"; title hits rank above director and actor hits, which rank above plot hits.
+     *
+     * @param query The raw search query.
+     * @param limit The maximum number of movies to return.
+     * @return The best matches, best first, or an empty list.
+     */
+    @WorkerThread
+    public List<MovieListItem> search(String query, int limit) {
+        String matchQuery = toMatchQuery(query);
+        if (matchQuery == null)
+            return Collections.emptyList();
+        List<MovieSearchMatch> matches = movieSearchDao.search(matchQuery, toMatchQuery(query, "title:"),
+                MAX_CANDIDATES);
+        int count = matches.size();
+        double[] scores = new double[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            scores[i] = rank(matches.get(i).getMatchInfo());
+            order[i] = i;
+        }
+        // Rank on the precomputed scores, ties keep the index order
+        Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        List<MovieListItem> movies = new ArrayList<>(Math.min(limit, count));
+        for (int i = 0; i < count && movies.size() < limit; i++) {
+            MovieSearchMatch match = matches.get(order[i]);
+            movies.add(new MovieListItem(match.getImdbID(), match.getTitle(), match.getYear(),
+                    match.getType(), match.getPoster()));
+        }
+        return movies;
+    }
+
+    /**
+     * Turns a raw query into an FTS4 MATCH expression of prefix terms that must all match.
+     * Only letters and digits are kept, so user input can't inject FTS operators.
+     *
+     * @param query The raw search query.
+     * @return The MATCH expression, or null if the query has no searchable words.
+     */
+    @Nullable
+    public static String toMatchQuery(@Nullable String query) {
+        return toMatchQuery(query, "");
+    }
+
+    /**
+     * @param columnFilter Put before every term, e.g. "title:" to match the title only.
+     */
+    @Nullable
+    private static String toMatchQuery(@Nullable String query, String columnFilter) {
+        if (query == null)
+            return null;
+        StringBuilder matchQuery = new StringBuilder();
+        int tokens = 0;
+        for (String token : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (token.isEmpty())
+                continue;
+            if (matchQuery.length() > 0)
+                matchQuery.append(' ');
+            matchQuery.append(columnFilter).append(token).append('*');
+            if (++tokens == MAX_QUERY_TOKENS)
+                break;
+        }
+        return tokens == 0 ? null : matchQuery.toString();
+    }
+
+    /**
+     * Scores a match from its {@code matchinfo(..., 'pcx')} blob: for every phrase and column,
+     * the share of all hits of that phrase found in this row, times the column's weight.
+     *
+     * @param matchInfo The blob of 32-bit integers in native byte order.
+     * @return The score, higher is better.
+     */
+    private static double rank(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 8)
+            return 0;
+        IntBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phraseCount = info.get(0);
+        int columnCount = info.get(1);
+        double score = 0;
+        for (int phrase = 0; phrase < phraseCount; phrase++) {
+            for (int column = 0; column < columnCount && column < COLUMN_WEIGHTS.length; column++) {
+                int offset = 2 + (phrase * columnCount + column) * 3;
+                if (offset + 1 >= info.limit())
+                    return score;
+                int hitsInRow = info.get(offset);
+                int hitsInAllRows = info.get(offset + 1);
+                if (hitsInRow > 0)
+                    score += COLUMN_WEIGHTS[column] * hitsInRow / hitsInAllRows;
+            }
+        }
+        return score;
+    }
+
+    private static MovieFtsEntity toEntity(Movie movie, long now) {
+        return new MovieFtsEntity(MovieFtsEntity.rowIdOf(movie.getImdbID()), movie.getTitle(),
+                textOrNull(movie.getDirector()), textOrNull(movie.getActors()), textOrNull(movie.getPlot()),
+                movie.getImdbID(), movie.getYear(), movie.getType(), movie.getPoster(), now);
+    }
+
+    /**
+     * OMDb reports missing values as "N/A", which shouldn't be searchable.
+     */
+    @Nullable
+    private static String textOrNull(@Nullable String value) {
+        return value == null || "N/A".equals(value) ? null : value;
+    }
+}
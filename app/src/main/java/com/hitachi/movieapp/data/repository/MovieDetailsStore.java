@@ -0,0 +1,92 @@
+package com.hitachi.movieapp.data.repository;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.hitachi.movieapp.data.local.MovieDao;
+import com.hitachi.movieapp.data.local.entity.MovieDetailsEntity;
+import com.hitachi.movieapp.data.local.entity.MovieEntity;
+import com.hitachi.movieapp.data.model.StoredMovieDetails;
+import com.hitachi.movieapp.data.model.response.Movie;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Persistent cache of movie details backed by Room, sitting behind the in-memory
+ * {@code MovieDetailsCache}. Details older than {@link #TTL_MILLIS} are still served but
+ * reported as stale so the caller can revalidate them in the background. Details of favorites
+ * are never evicted, so they open offline.
+ */
+@Singleton
+public class MovieDetailsStore {
+    /**
+     * Age after which stored details should be revalidated against the network.
+     */
+    public static final long TTL_MILLIS = TimeUnit.DAYS.toMillis(1);
+    /**
+     * Age after which details of movies that aren't favorites are deleted.
+     */
+    public static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    private final MovieDao movieDao;
+
+    @Inject
+    public MovieDetailsStore(MovieDao movieDao) {
+        this.movieDao = movieDao;
+    }
+
+    /**
+     * Looks up stored details.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     * @return The stored details, or null if none are stored.
+     */
+    @Nullable
+    @WorkerThread
+    public CachedDetails get(String imdbID) {
+        StoredMovieDetails details = movieDao.getDetails(imdbID);
+        if (details == null)
+            return null;
+        long age = System.currentTimeMillis() - details.getFetchedAt();
+        return new CachedDetails(details.toMovie(), age > TTL_MILLIS);
+    }
+
+    /**
+     * Stores a details response, replacing any previous copy.
+     *
+     * @param movie The details returned by the OMDb API.
+     */
+    @WorkerThread
+    public void put(Movie movie) {
+        if (movie.getImdbID() == null)
+            return;
+        long now = System.currentTimeMillis();
+        movieDao.insertDetails(MovieEntity.of(movie), MovieDetailsEntity.of(movie, now));
+        // Cheap thanks to the fetchedAt index, and details are opened far less often than pages
+        movieDao.evictDetailsOlderThan(now - MAX_AGE_MILLIS);
+    }
+
+    /**
+     * Details read from the store together with their freshness.
+     */
+    public static class CachedDetails {
+        private final Movie movie;
+        private final boolean stale;
+
+        CachedDetails(Movie movie, boolean stale) {
+            this.movie = movie;
+            this.stale = stale;
+        }
+
+        public Movie getMovie() {
+            return movie;
+        }
+
+        public boolean isStale() {
+            return stale;
+        }
+    }
+}
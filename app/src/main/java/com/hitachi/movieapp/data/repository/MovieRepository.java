@@ -1,22 +1,38 @@
 package com.hitachi.movieapp.data.repository;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 
 import com.hitachi.movieapp.BuildConfig;
+import com.hitachi.movieapp.data.cache.MovieDetailsCache;
 import com.hitachi.movieapp.data.local.MovieDao;
+import com.hitachi.movieapp.data.model.FavoriteMovieItem;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.SearchFilter;
 import com.hitachi.movieapp.data.model.response.Movie;
 import com.hitachi.movieapp.data.model.response.MovieResponse;
 import com.hitachi.movieapp.data.network.OmdbApi;
+import com.hitachi.movieapp.data.network.OmdbException;
+import com.hitachi.movieapp.data.network.RequestPriority;
+import com.hitachi.movieapp.data.scheduler.Cancellable;
+import com.hitachi.movieapp.data.scheduler.TaskScheduler;
+import com.hitachi.movieapp.di.MainThreadExecutor;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
+import dagger.Lazy;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -26,11 +42,13 @@ import retrofit2.Response;
  * Repository class that handles retrieving and managing movie data from both local (database)
  * and remote (OMDb API) sources.
  */
+@Singleton
 public class MovieRepository {
     /**
-     * Interface for OMDb API interaction.
+     * Interface for OMDb API interaction, built on first use so injecting the repository
+     * doesn't create the network stack on the main thread.
      */
-    private final OmdbApi omdbApi;
+    private final Lazy<OmdbApi> omdbApi;
     /**
      * DAO for accessing the local movie database.
      */
@@ -39,100 +57,660 @@ public class MovieRepository {
      * OMDb API key from BuildConfig.
      */
     private static final String API_KEY = BuildConfig.OMDB_API_KEY;
-    private final Executor executor;
+    /**
+     * Persisted cache of search pages.
+     */
+    private final SearchPageCache searchPageCache;
+    /**
+     * In-memory LRU cache of movie details.
+     */
+    private final MovieDetailsCache movieDetailsCache;
+    /**
+     * Persisted cache of movie details, behind the in-memory one.
+     */
+    private final MovieDetailsStore movieDetailsStore;
+    /**
+     * In-memory index of favorite IMDb IDs.
+     */
+    private final FavoritesIndex favoritesIndex;
+    /**
+     * Offline full-text index of movies seen in search pages and details.
+     */
+    private final LocalMovieIndex localMovieIndex;
+    /**
+     * Maximum number of movies returned by a local search.
+     */
+    public static final int LOCAL_RESULT_LIMIT = 50;
+    /**
+     * Write-behind buffer batching favorite changes into one transaction.
+     */
+    private final FavoriteWriteBuffer favoriteWriteBuffer;
+    /**
+     * Listeners waiting on an in-flight details request, keyed by IMDb ID.
+     */
+    private final Map<String, List<OnMovieDetailsFetchedListener>> pendingDetailRequests = new HashMap<>();
+    /**
+     * Waiting lists of {@link #pendingDetailRequests} that a user request joined, guarded by
+     * the same lock. Their calls are sent at {@link RequestPriority#USER}.
+     */
+    private final Set<List<OnMovieDetailsFetchedListener>> awaitedByUser =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Maximum number of speculative details requests running at the same time.
+     */
+    public static final int MAX_PREFETCH_IN_FLIGHT = 2;
+    /**
+     * Prefetches details for rows near the viewport.
+     */
+    private final DetailsPrefetcher detailsPrefetcher;
+    /**
+     * Scheduler for disk work, split into user, cache and prefetch lanes.
+     */
+    private final TaskScheduler scheduler;
+    /**
+     * Executor used to deliver results to listeners on the main thread.
+     */
+    private final Executor mainThreadExecutor;
 
     /**
      * Constructor for injecting dependencies.
      *
-     * @param movieDao The MovieDao instance.
-     * @param omdbApi  The OmdbApi instance.
+     * @param movieDao           The MovieDao instance.
+     * @param searchPageCache    The cache of previously fetched search pages.
+     * @param movieDetailsCache  The in-memory cache of movie details.
+     * @param movieDetailsStore  The persisted cache of movie details.
+     * @param favoritesIndex     The in-memory index of favorite IMDb IDs.
+     * @param favoriteWriteBuffer The buffer batching favorite writes.
+     * @param localMovieIndex    The offline full-text index of movies.
+     * @param omdbApi            The OmdbApi instance, created on first use.
+     * @param scheduler          The scheduler for disk work.
+     * @param mainThreadExecutor The executor delivering results on the main thread.
      */
     @Inject
     public MovieRepository(
             MovieDao movieDao,
-            OmdbApi omdbApi,
-            Executor executor) {
+            SearchPageCache searchPageCache,
+            MovieDetailsCache movieDetailsCache,
+            MovieDetailsStore movieDetailsStore,
+            FavoritesIndex favoritesIndex,
+            FavoriteWriteBuffer favoriteWriteBuffer,
+            LocalMovieIndex localMovieIndex,
+            Lazy<OmdbApi> omdbApi,
+            TaskScheduler scheduler,
+            @MainThreadExecutor Executor mainThreadExecutor) {
         this.movieDao = movieDao;
+        this.searchPageCache = searchPageCache;
+        this.movieDetailsCache = movieDetailsCache;
+        this.movieDetailsStore = movieDetailsStore;
+        this.favoritesIndex = favoritesIndex;
+        this.favoriteWriteBuffer = favoriteWriteBuffer;
+        this.localMovieIndex = localMovieIndex;
         this.omdbApi = omdbApi;
-        this.executor = executor;
+        this.scheduler = scheduler;
+        this.mainThreadExecutor = mainThreadExecutor;
+        this.detailsPrefetcher = new DetailsPrefetcher(MAX_PREFETCH_IN_FLIGHT, new PrefetchRequester());
 
     }
 
     /**
-     * Fetches movies from the OMDb API based on a search query and page number.
+     * Fetches movies based on a search query and page number.
+     * A page found in the local cache is delivered immediately; if it is stale it is
+     * revalidated against the OMDb API in the background (stale-while-revalidate).
      * Uses a callback interface (`OnMoviesFetchedListener`) to notify the caller of the results.
      *
      * @param query    The search query.
      * @param page     The page number (for pagination).
      * @param listener The callback listener for receiving fetched movies or errors.
+     * @return A handle that cancels the network call and drops the result, e.g. when the query changes.
      */
-    public void getMovies(String query, int page, OnMoviesFetchedListener listener) {
+    public Cancellable getMovies(String query, int page, OnMoviesFetchedListener listener) {
+        return getMovies(query, SearchFilter.NONE, page, listener);
+    }
 
-        omdbApi.getMovies(API_KEY, query, page).enqueue(new Callback<MovieResponse>() {
-            @Override
-            public void onResponse(@NonNull Call<MovieResponse> call, @NonNull Response<MovieResponse> response) {
-                String responseString = Objects.requireNonNull(response.body()).getResponse();
-                if (response.isSuccessful() && responseString.equals("True")) {
+    /**
+     * Fetches a page of the movies matching a search query and filter. The type and year are
+     * sent to OMDb, so only matching results are paged through and filtered pages are cached
+     * apart from the unfiltered ones.
+     *
+     * @param query    The search query.
+     * @param filter   The type and year to narrow the results to.
+     * @param page     The page number (for pagination).
+     * @param listener The callback listener for receiving fetched movies or errors.
+     * @return A handle that cancels the network call and drops the result, e.g. when the query changes.
+     */
+    public Cancellable getMovies(String query, SearchFilter filter, int page, OnMoviesFetchedListener listener) {
+        SearchRequest request = new SearchRequest(listener);
+        scheduler.execute(TaskScheduler.Lane.USER, () -> {
+            if (request.isCancelled())
+                return;
+            SearchPageCache.CachedPage cachedPage = searchPageCache.get(query, filter, page);
+            if (cachedPage == null) {
+                fetchMovies(query, filter, page, request);
+                return;
+            }
 
-                    listener.onFetched(response.body());
-                } else {
-                    listener.onError(response.body().getErrorMsg());
+            mainThreadExecutor.execute(() -> request.onFetched(cachedPage.getResponse()));
+            if (cachedPage.isStale()) {
+                // The caller already has the cached copy, refresh it for the next lookup
+                fetchMovies(query, filter, page, null);
+            }
+        });
+        return request;
+    }
 
+    /**
+     * Searches the movies stored on the device, without touching the network.
+     * Used while offline and as an instant first paint while a network search is in flight.
+     *
+     * @param query    The search query.
+     * @param listener The callback listener, receiving a single page with the best local matches.
+     * @return A handle that drops the result, e.g. when the query changes.
+     */
+    public Cancellable searchLocal(String query, OnMoviesFetchedListener listener) {
+        SearchRequest request = new SearchRequest(listener);
+        scheduler.execute(TaskScheduler.Lane.USER, () -> {
+            if (request.isCancelled())
+                return;
+            List<MovieListItem> movies = localMovieIndex.search(query, LOCAL_RESULT_LIMIT);
+            MovieResponse response = new MovieResponse();
+            response.setResponse("True");
+            response.setTotalResults(String.valueOf(movies.size()));
+            response.setMovies(movies);
+            mainThreadExecutor.execute(() -> request.onFetched(response));
+        });
+        return request;
+    }
+
+    /**
+     * Fetches a search page from the OMDb API and stores successful responses in the cache.
+     *
+     * @param query   The search query.
+     * @param filter  The filter of the search.
+     * @param page    The page number.
+     * @param request The request of the caller, or null for a background revalidation.
+     */
+    private void fetchMovies(String query, SearchFilter filter, int page, @Nullable SearchRequest request) {
+        // Nobody waits for a revalidation, so it only runs while the key has budget to spare
+        RequestPriority priority = request != null ? RequestPriority.USER : RequestPriority.BACKGROUND;
+        Call<MovieResponse> searchCall = omdbApi.get().getMovies(API_KEY, query,
+                filter.getTypeQuery(), filter.getYear(), page, priority);
+        if (request != null && !request.attach(searchCall))
+            return;
+        searchCall.enqueue(new Callback<MovieResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<MovieResponse> call, @NonNull Response<MovieResponse> response) {
+                if (call.isCanceled())
+                    return;
+                MovieResponse movieResponse = response.body();
+                if (response.isSuccessful() && movieResponse != null && "True".equals(movieResponse.getResponse())) {
+                    scheduler.execute(TaskScheduler.Lane.CACHE, () -> {
+                        searchPageCache.put(query, filter, page, movieResponse);
+                        if (movieResponse.getMovies() != null)
+                            localMovieIndex.addSearchResults(movieResponse.getMovies());
+                    });
+                    if (request != null)
+                        request.onFetched(movieResponse);
+                } else if (request != null) {
+                    // OMDb reports errors such as "Movie not found!" in the body of a 200 response
+                    request.onError(movieResponse != null && movieResponse.getErrorMsg() != null
+                            ? movieResponse.getErrorMsg()
+                            : "Error fetching movies");
                 }
             }
 
             @Override
             public void onFailure(@NonNull Call<MovieResponse> call, @NonNull Throwable t) {
-                if (t instanceof IOException) {
-                    // Network or connectivity error, such as no internet connection
-                    listener.onError("No internet connection");
+                // A superseded search is cancelled on purpose, that's not an error
+                if (request == null || call.isCanceled())
+                    return;
+                if (t instanceof OmdbException) {
+                    // Request limit reached or OMDb down, the message explains which
+                    request.onError(t.getMessage());
+                } else if (t instanceof IOException) {
+                    // Network or connectivity error that persisted through the retries
+                    request.onError("No internet connection");
                 } else
-                    listener.onError(t.getMessage());
+                    request.onError(t.getMessage());
 
             }
         });
     }
 
     /**
-     * Fetches details of a specific movie using its IMDb ID from the OMDb API.
+     * A search page request handed out by {@link #getMovies}. Results are delivered to the
+     * caller's listener until the request is cancelled; cancelling also cancels the OMDb call.
+     */
+    private static final class SearchRequest implements Cancellable, OnMoviesFetchedListener {
+        private final OnMoviesFetchedListener listener;
+        @Nullable
+        private Call<MovieResponse> call;
+        private boolean cancelled;
+
+        SearchRequest(OnMoviesFetchedListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * @return False if the request was cancelled before the call could start.
+         */
+        synchronized boolean attach(Call<MovieResponse> call) {
+            if (cancelled)
+                return false;
+            this.call = call;
+            return true;
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void cancel() {
+            Call<MovieResponse> inFlightCall;
+            synchronized (this) {
+                cancelled = true;
+                inFlightCall = call;
+                call = null;
+            }
+            if (inFlightCall != null)
+                inFlightCall.cancel();
+        }
+
+        @Override
+        public void onFetched(MovieResponse movies) {
+            if (!isCancelled())
+                listener.onFetched(movies);
+        }
+
+        @Override
+        public void onError(String error) {
+            if (!isCancelled())
+                listener.onError(error);
+        }
+    }
+
+    /**
+     * Fetches details of a specific movie using its IMDb ID.
+     * Details are served from the in-memory cache when possible, then from the database, and
+     * stale stored details are refreshed in the background. Concurrent requests for the same
+     * movie share a single lookup and OMDb API call whose result is delivered to every listener.
      * Uses a callback interface (`OnMovieDetailsFetchedListener`) to notify the caller of the results.
      *
      * @param imdbID   The IMDb ID of the movie to fetch details for.
      * @param listener The callback listener for receiving fetched movie details or errors.
      */
     public void getMovieDetails(String imdbID, OnMovieDetailsFetchedListener listener) {
-        Call<Movie> call = omdbApi.getMovieDetails(imdbID, API_KEY);
+        getMovieDetails(imdbID, RequestPriority.USER, listener);
+    }
+
+    /**
+     * @param priority The budget lane of a call to OMDb, raised to {@link RequestPriority#USER}
+     *                 if a user request joins it before it is sent.
+     */
+    private void getMovieDetails(String imdbID, RequestPriority priority, OnMovieDetailsFetchedListener listener) {
+        Movie cachedMovie = movieDetailsCache.get(imdbID);
+        if (cachedMovie != null) {
+            listener.onFetched(cachedMovie);
+            return;
+        }
+
+        List<OnMovieDetailsFetchedListener> waiting;
+        synchronized (pendingDetailRequests) {
+            waiting = pendingDetailRequests.get(imdbID);
+            boolean joined = waiting != null;
+            if (!joined) {
+                waiting = new ArrayList<>();
+                pendingDetailRequests.put(imdbID, waiting);
+            }
+            waiting.add(listener);
+            if (priority == RequestPriority.USER)
+                awaitedByUser.add(waiting);
+            // A request for this movie is already in flight, wait for its result
+            if (joined)
+                return;
+        }
+        List<OnMovieDetailsFetchedListener> waitingForDetails = waiting;
+        scheduler.execute(TaskScheduler.Lane.USER, () -> {
+            MovieDetailsStore.CachedDetails storedDetails = movieDetailsStore.get(imdbID);
+            if (storedDetails == null) {
+                enqueueDetailsRequest(imdbID, waitingForDetails,
+                        isAwaitedByUser(waitingForDetails) ? RequestPriority.USER : priority, null);
+                return;
+            }
+            Movie movie = storedDetails.getMovie();
+            movieDetailsCache.put(imdbID, movie);
+            mainThreadExecutor.execute(() -> {
+                for (OnMovieDetailsFetchedListener waitingListener : takePendingListeners(imdbID, waitingForDetails))
+                    waitingListener.onFetched(movie);
+            });
+            if (storedDetails.isStale())
+                refreshDetails(imdbID);
+        });
+    }
+
+    /**
+     * Refreshes stored details nobody is waiting for, only while the key has budget to spare.
+     * The request bypasses the HTTP cache, which keeps details longer than they are fresh here.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     */
+    private void refreshDetails(String imdbID) {
+        omdbApi.get().refreshMovieDetails(imdbID, API_KEY, RequestPriority.BACKGROUND).enqueue(new Callback<Movie>() {
+            @Override
+            public void onResponse(@NonNull Call<Movie> call, @NonNull Response<Movie> response) {
+                Movie movie = response.body();
+                if (response.isSuccessful() && movie != null && !"False".equals(movie.getResponse()))
+                    storeDetails(imdbID, movie);
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<Movie> call, @NonNull Throwable t) {
+                // The stored copy was already delivered, try again next time
+            }
+        });
+    }
+
+    /**
+     * Keeps fetched details in memory and on disk, and makes them searchable offline.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     * @param movie  The details returned by the OMDb API.
+     */
+    private void storeDetails(String imdbID, Movie movie) {
+        movieDetailsCache.put(imdbID, movie);
+        scheduler.execute(TaskScheduler.Lane.CACHE, () -> {
+            movieDetailsStore.put(movie);
+            localMovieIndex.addDetails(movie);
+        });
+    }
+
+    /**
+     * Loads the details of the movies of a search page, so rows can be filtered or sorted by
+     * genre, director or actors. Up to {@code maxInFlight} movies are loaded at once, each one
+     * through {@link #getMovieDetails}, so cached details are reused and requests are shared
+     * with the details screen and prefetching. Calls are sent at {@link RequestPriority#BACKGROUND},
+     * so a page of hydration never spends the budget kept for the user.
+     *
+     * @param imdbIDs     The IMDb IDs to load, in the order they should start.
+     * @param maxInFlight The maximum number of details loaded at the same time.
+     * @param listener    Receives the details of each movie as they arrive, or an error per failed movie.
+     * @return A handle that stops the hydration and drops later results, e.g. when the query changes.
+     */
+    public Cancellable hydrateDetails(List<String> imdbIDs, int maxInFlight, OnMovieDetailsFetchedListener listener) {
+        DetailHydrator hydrator = new DetailHydrator(imdbIDs, maxInFlight, RequestPriority.BACKGROUND,
+                this::getMovieDetails, listener);
+        hydrator.start();
+        return hydrator;
+    }
+
+    /**
+     * Prefetches details for movies the user is likely to open next, at most
+     * {@link #MAX_PREFETCH_IN_FLIGHT} at a time. Replaces any previous prefetch request.
+     *
+     * @param imdbIDs The IMDb IDs to prefetch, nearest to the viewport first.
+     */
+    public void prefetchMovieDetails(List<String> imdbIDs) {
+        detailsPrefetcher.prefetch(imdbIDs);
+    }
+
+    /**
+     * Cancels all queued and in-flight prefetch requests.
+     */
+    public void cancelPrefetch() {
+        detailsPrefetcher.cancelAll();
+    }
+
+    /**
+     * Enqueues a details request whose result is delivered to the given waiting listeners.
+     * A request below {@link RequestPriority#USER} that fails after a user request joined it, e.g.
+     * because the rate limiter shed it, is sent again at user priority instead of failing the user.
+     *
+     * @param imdbID     The IMDb ID of the movie.
+     * @param waiting    The listeners registered for this request in {@link #pendingDetailRequests}.
+     * @param priority   The budget lane of the request.
+     * @param onComplete Optional callback invoked after the listeners were notified.
+     * @return The enqueued call.
+     */
+    private Call<Movie> enqueueDetailsRequest(String imdbID,
+                                              List<OnMovieDetailsFetchedListener> waiting,
+                                              RequestPriority priority,
+                                              @Nullable Runnable onComplete) {
+        Call<Movie> call = omdbApi.get().getMovieDetails(imdbID, API_KEY, priority);
         call.enqueue(new Callback<Movie>() {
             @Override
             public void onResponse(Call<Movie> call, Response<Movie> response) {
+                Movie movie = response.body();
                 if (response.isSuccessful()) {
-                    listener.onFetched(response.body());
+                    if (movie != null && !"False".equals(movie.getResponse()))
+                        storeDetails(imdbID, movie);
+                    for (OnMovieDetailsFetchedListener listener : takePendingListeners(imdbID, waiting))
+                        listener.onFetched(movie);
                 } else {
-                    listener.onError("Error fetching movie details");
+                    for (OnMovieDetailsFetchedListener listener : takePendingListeners(imdbID, waiting))
+                        listener.onError("Error fetching movie details");
                 }
+                if (onComplete != null)
+                    onComplete.run();
             }
 
             @Override
             public void onFailure(Call<Movie> call, Throwable t) {
-                listener.onError(t.getMessage());
+                if (priority != RequestPriority.USER && isAwaitedByUser(waiting)) {
+                    enqueueDetailsRequest(imdbID, waiting, RequestPriority.USER, onComplete);
+                    return;
+                }
+                for (OnMovieDetailsFetchedListener listener : takePendingListeners(imdbID, waiting))
+                    listener.onError(t.getMessage());
+                if (onComplete != null)
+                    onComplete.run();
             }
         });
+        return call;
+    }
+
+    /**
+     * @param waiting The listeners registered for a request.
+     * @return Whether a user request waits for it.
+     */
+    private boolean isAwaitedByUser(List<OnMovieDetailsFetchedListener> waiting) {
+        synchronized (pendingDetailRequests) {
+            return awaitedByUser.contains(waiting);
+        }
+    }
+
+    /**
+     * Unregisters a finished request and returns the listeners waiting for it.
+     *
+     * @param imdbID  The IMDb ID of the movie.
+     * @param waiting The listeners registered for the finished request.
+     * @return A copy of the listeners to notify.
+     */
+    private List<OnMovieDetailsFetchedListener> takePendingListeners(String imdbID,
+                                                                     List<OnMovieDetailsFetchedListener> waiting) {
+        synchronized (pendingDetailRequests) {
+            pendingDetailRequests.remove(imdbID, waiting);
+            awaitedByUser.remove(waiting);
+            return new ArrayList<>(waiting);
+        }
+    }
+
+    /**
+     * Starts and cancels speculative details requests. Prefetch requests take part in
+     * request coalescing, so opening a movie while its prefetch is in flight reuses it.
+     * Details stored on disk are loaded into memory instead of being fetched again.
+     */
+    private class PrefetchRequester implements DetailsPrefetcher.Requester {
+        @Nullable
+        @Override
+        public Cancellable start(String imdbID, Runnable onComplete) {
+            if (movieDetailsCache.contains(imdbID))
+                return null;
+            List<OnMovieDetailsFetchedListener> waiting = new ArrayList<>();
+            synchronized (pendingDetailRequests) {
+                if (pendingDetailRequests.containsKey(imdbID))
+                    return null;
+                pendingDetailRequests.put(imdbID, waiting);
+            }
+            PrefetchRequest request = new PrefetchRequest(imdbID, waiting, onComplete);
+            scheduler.execute(TaskScheduler.Lane.PREFETCH, request);
+            return request;
+        }
+
+        @Override
+        public boolean cancel(String imdbID, Cancellable request) {
+            synchronized (pendingDetailRequests) {
+                List<OnMovieDetailsFetchedListener> waiting = pendingDetailRequests.get(imdbID);
+                // Keep the request alive if the user opened this movie in the meantime
+                if (waiting != null && !waiting.isEmpty())
+                    return false;
+                pendingDetailRequests.remove(imdbID);
+            }
+            request.cancel();
+            return true;
+        }
+    }
+
+    /**
+     * A prefetch of one movie: a lookup in {@link MovieDetailsStore} on the prefetch lane,
+     * then a speculative OMDb request only if no fresh copy is stored. Once a caller joined, the
+     * movie is fetched at user priority. If the scheduler sheds the lookup, the movie is fetched
+     * right away for a caller that joined it, or dropped.
+     */
+    private final class PrefetchRequest implements Runnable, Cancellable {
+        private final String imdbID;
+        private final List<OnMovieDetailsFetchedListener> waiting;
+        private final Runnable onComplete;
+        // Guarded by this
+        private boolean started;
+        private boolean cancelled;
+        @Nullable
+        private Call<Movie> call;
+
+        PrefetchRequest(String imdbID, List<OnMovieDetailsFetchedListener> waiting, Runnable onComplete) {
+            this.imdbID = imdbID;
+            this.waiting = waiting;
+            this.onComplete = onComplete;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (cancelled)
+                    return;
+                started = true;
+            }
+            MovieDetailsStore.CachedDetails storedDetails = movieDetailsStore.get(imdbID);
+            if (storedDetails != null && !storedDetails.isStale()) {
+                Movie movie = storedDetails.getMovie();
+                movieDetailsCache.put(imdbID, movie);
+                mainThreadExecutor.execute(() -> {
+                    for (OnMovieDetailsFetchedListener listener : takePendingListeners(imdbID, waiting))
+                        listener.onFetched(movie);
+                    onComplete.run();
+                });
+                return;
+            }
+            // A user who opened the movie while the lookup was queued is waiting for this request
+            RequestPriority priority = isAwaitedByUser(waiting) ? RequestPriority.USER : RequestPriority.SPECULATIVE;
+            Call<Movie> detailsCall = enqueueDetailsRequest(imdbID, waiting, priority, onComplete);
+            synchronized (this) {
+                call = detailsCall;
+                if (!cancelled)
+                    return;
+            }
+            detailsCall.cancel();
+        }
+
+        @Override
+        public void cancel() {
+            Call<Movie> startedCall;
+            synchronized (this) {
+                if (cancelled)
+                    return;
+                cancelled = true;
+                // A lookup that is running cancels the call it starts itself
+                if (started && call == null)
+                    return;
+                startedCall = call;
+            }
+            if (startedCall != null) {
+                startedCall.cancel();
+                return;
+            }
+            // The lookup never ran, e.g. it was shed by the scheduler
+            boolean joined;
+            synchronized (pendingDetailRequests) {
+                joined = !waiting.isEmpty();
+                if (!joined)
+                    pendingDetailRequests.remove(imdbID, waiting);
+            }
+            if (joined)
+                enqueueDetailsRequest(imdbID, waiting,
+                        isAwaitedByUser(waiting) ? RequestPriority.USER : RequestPriority.BACKGROUND, onComplete);
+            else
+                onComplete.run();
+        }
+    }
+
+    /**
+     * Exposes hit, miss and eviction counters of the movie details cache.
+     *
+     * @return A snapshot of the cache counters.
+     */
+    public MovieDetailsCache.Stats getDetailsCacheStats() {
+        return movieDetailsCache.getStats();
+    }
+
+    /**
+     * Toggles the favorite status of a movie. The favorites index is updated right away and the
+     * database write is buffered, so a burst of toggles is written in a single transaction.
+     *
+     * @param movie The movie whose favorite status is toggled, carrying its current status.
+     */
+    public void updateFavoriteStatus(MovieListItem movie) {
+        if (movie.isFavorite()) {
+            favoritesIndex.remove(movie.getImdbID());
+            favoriteWriteBuffer.remove(movie.getImdbID());
+        } else {
+            favoritesIndex.add(movie.getImdbID());
+            favoriteWriteBuffer.add(movie);
+        }
+    }
+
+    /**
+     * Writes buffered favorite changes now, e.g. when the app goes to the background.
+     */
+    public void flushFavoriteChanges() {
+        favoriteWriteBuffer.flush();
+    }
+
+    /**
+     * Exposes the first favorites in title order as lightweight list items.
+     *
+     * @param limit The number of favorites to load.
+     * @return LiveData for the favorites, re-emitted when the favorites change.
+     */
+    public LiveData<List<FavoriteMovieItem>> getFavoriteMoviesPage(int limit) {
+        return movieDao.getFavoriteMoviesPage(limit);
     }
 
     /**
-     * Updates the favorite status of a movie in the local database.
+     * Exposes snapshots of the favorite IMDb IDs, emitted whenever the favorites change.
      *
-     * @param movie The movie to update the favorite status for.
+     * @return LiveData for the favorite IDs.
      */
-    public void updateFavoriteStatus(Movie movie) {
-        if (movie.isFavorite())
-            executor.execute(() -> movieDao.deleteById(movie.getImdbID()));
-        else
-            executor.execute(() -> movieDao.insert(movie));
+    public LiveData<Set<String>> getFavoriteIds() {
+        return favoritesIndex.getFavoriteIds();
     }
 
-    public LiveData<List<Movie>> getFavoriteMovies() {
-        return movieDao.getFavoriteMovies();
+    /**
+     * Checks whether a movie is a favorite without touching the database.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     * @return True if the movie is stored as a favorite.
+     */
+    public boolean isFavorite(String imdbID) {
+        return favoritesIndex.contains(imdbID);
     }
 
 
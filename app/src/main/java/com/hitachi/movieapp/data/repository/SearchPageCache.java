@@ -0,0 +1,143 @@
+package com.hitachi.movieapp.data.repository;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.hitachi.movieapp.data.local.SearchCacheDao;
+import com.hitachi.movieapp.data.local.entity.SearchPageEntity;
+import com.hitachi.movieapp.data.local.entity.SearchResultEntity;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.SearchFilter;
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Persistent cache of OMDb search pages backed by Room.
+ * Pages are keyed by the normalized query, the search filter and the page number. A page older than
+ * {@link #TTL_MILLIS} is still served but reported as stale so the caller can
+ * revalidate it in the background.
+ */
+@Singleton
+public class SearchPageCache {
+    /**
+     * Age after which a cached page should be revalidated against the network.
+     */
+    public static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    /**
+     * Age after which a cached page is deleted instead of being served.
+     */
+    public static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private final SearchCacheDao searchCacheDao;
+
+    @Inject
+    public SearchPageCache(SearchCacheDao searchCacheDao) {
+        this.searchCacheDao = searchCacheDao;
+    }
+
+    /**
+     * Looks up a cached search page.
+     *
+     * @param query  The raw search query.
+     * @param filter The filter of the search.
+     * @param page   The page number.
+     * @return The cached page, or null if nothing usable is stored.
+     */
+    @Nullable
+    @WorkerThread
+    public CachedPage get(String query, SearchFilter filter, int page) {
+        String queryKey = keyOf(query, filter);
+        SearchPageEntity pageEntity = searchCacheDao.getPage(queryKey, page);
+        if (pageEntity == null)
+            return null;
+
+        long age = System.currentTimeMillis() - pageEntity.getFetchedAt();
+        if (age > MAX_AGE_MILLIS)
+            return null;
+
+        List<SearchResultEntity> results = searchCacheDao.getResults(queryKey, page);
+        List<MovieListItem> movies = new ArrayList<>(results.size());
+        for (SearchResultEntity result : results)
+            movies.add(new MovieListItem(result.getImdbID(), result.getTitle(), result.getYear(),
+                    result.getType(), result.getPoster()));
+
+        MovieResponse response = new MovieResponse();
+        response.setResponse("True");
+        response.setTotalResults(pageEntity.getTotalResults());
+        response.setMovies(movies);
+        return new CachedPage(response, age > TTL_MILLIS);
+    }
+
+    /**
+     * Stores a successfully fetched search page, replacing any previous copy.
+     *
+     * @param query    The raw search query.
+     * @param filter   The filter of the search.
+     * @param page     The page number.
+     * @param response The response returned by the OMDb API.
+     */
+    @WorkerThread
+    public void put(String query, SearchFilter filter, int page, MovieResponse response) {
+        if (response.getMovies() == null)
+            return;
+        String queryKey = keyOf(query, filter);
+        long now = System.currentTimeMillis();
+
+        List<MovieListItem> movies = response.getMovies();
+        List<SearchResultEntity> results = new ArrayList<>(movies.size());
+        for (int i = 0; i < movies.size(); i++) {
+            MovieListItem movie = movies.get(i);
+            results.add(new SearchResultEntity(queryKey, page, i, movie.getImdbID(),
+                    movie.getTitle(), movie.getYear(), movie.getType(), movie.getPoster()));
+        }
+        searchCacheDao.replacePage(new SearchPageEntity(queryKey, page, response.getTotalResults(), now), results);
+
+        // Housekeeping is cheap thanks to the fetchedAt index, do it once per new query
+        if (page == 1)
+            searchCacheDao.evictOlderThan(now - MAX_AGE_MILLIS);
+    }
+
+    /**
+     * Normalizes a query so that "Batman", " batman " and "BATMAN" share one cache entry.
+     *
+     * @param query The raw search query.
+     * @return The cache key for the query.
+     */
+    public static String normalize(String query) {
+        if (query == null)
+            return "";
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String keyOf(String query, SearchFilter filter) {
+        return normalize(query) + filter.getCacheKeySuffix();
+    }
+
+    /**
+     * A search page read from the cache together with its freshness.
+     */
+    public static class CachedPage {
+        private final MovieResponse response;
+        private final boolean stale;
+
+        CachedPage(MovieResponse response, boolean stale) {
+            this.response = response;
+            this.stale = stale;
+        }
+
+        public MovieResponse getResponse() {
+            return response;
+        }
+
+        public boolean isStale() {
+            return stale;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.hitachi.movieapp.data.scheduler;
+
+/**
+ * Handle to pending or in-flight work that is no longer needed.
+ */
+public interface Cancellable {
+
+    /**
+     * Cancels the work. Results that arrive afterwards are not delivered.
+     * Calling this more than once, or after the work finished, has no effect.
+     */
+    void cancel();
+}
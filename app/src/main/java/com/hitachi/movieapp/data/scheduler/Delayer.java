@@ -0,0 +1,19 @@
+package com.hitachi.movieapp.data.scheduler;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Runs tasks on the main thread after a delay.
+ */
+public interface Delayer {
+
+    /**
+     * Schedules a task to run once the delay has passed.
+     *
+     * @param task        The task to run.
+     * @param delayMillis The delay in milliseconds.
+     * @return A handle that removes the task if it hasn't run yet.
+     */
+    @NonNull
+    Cancellable schedule(@NonNull Runnable task, long delayMillis);
+}
@@ -0,0 +1,356 @@
+package com.hitachi.movieapp.data.scheduler;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Single-threaded scheduler for disk work with a bounded queue per lane.
+ * The worker always takes the oldest task of the highest-priority non-empty lane, so a favorite
+ * toggle waits at most for the task already running, never for a backlog of cache or prefetch work.
+ * Submitting never blocks, user work is often submitted from the main thread. When a background
+ * lane is full it drops its oldest task. User tasks are never dropped; once the user lane holds
+ * more than its capacity, the background lanes are shed so the worker only serves user work
+ * until it catches up. A dropped task that is also {@link Cancellable} is cancelled, so it can
+ * release what it holds.
+ * Queue wait and execution time are recorded per lane and can be observed per task.
+ */
+@Singleton
+public class IoScheduler implements TaskScheduler {
+    /**
+     * Default number of waiting user tasks above which background work is shed.
+     */
+    public static final int DEFAULT_USER_CAPACITY = 64;
+    /**
+     * Default capacity of each background lane.
+     */
+    public static final int DEFAULT_BACKGROUND_CAPACITY = 128;
+
+    /**
+     * Receives the timing of every task that ran, on the worker thread.
+     */
+    public interface TaskListener {
+        void onTaskFinished(Lane lane, long waitNanos, long runNanos);
+    }
+
+    private final Object lock = new Object();
+    private final Map<Lane, ArrayDeque<ScheduledTask>> queues = new EnumMap<>(Lane.class);
+    private final Map<Lane, LaneCounters> counters = new EnumMap<>(Lane.class);
+    // Tasks still waiting in a queue, keyed by lane and coalescing key
+    private final Map<String, ScheduledTask> pendingByKey = new HashMap<>();
+    private final int userCapacity;
+    private final int backgroundCapacity;
+    @Nullable
+    private volatile TaskListener taskListener;
+
+    @Inject
+    public IoScheduler() {
+        this(DEFAULT_USER_CAPACITY, DEFAULT_BACKGROUND_CAPACITY);
+    }
+
+    /**
+     * Constructor for the IoScheduler.
+     *
+     * @param userCapacity       The number of waiting user tasks above which background work is shed.
+     * @param backgroundCapacity The maximum number of waiting tasks in each background lane.
+     */
+    public IoScheduler(int userCapacity, int backgroundCapacity) {
+        if (userCapacity <= 0 || backgroundCapacity <= 0)
+            throw new IllegalArgumentException("Lane capacities must be positive");
+        this.userCapacity = userCapacity;
+        this.backgroundCapacity = backgroundCapacity;
+        for (Lane lane : Lane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+            counters.put(lane, new LaneCounters());
+        }
+        Thread worker = new Thread(this::runLoop, "io-scheduler");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void execute(@NonNull Lane lane, @NonNull Runnable task) {
+        submit(lane, null, task);
+    }
+
+    @Override
+    public void executeCoalesced(@NonNull Lane lane, @NonNull String key, @NonNull Runnable task) {
+        submit(lane, lane.name() + ':' + key, task);
+    }
+
+    /**
+     * Sets a listener notified of each task's queue wait and execution time.
+     *
+     * @param taskListener The listener, or null to remove it.
+     */
+    public void setTaskListener(@Nullable TaskListener taskListener) {
+        this.taskListener = taskListener;
+    }
+
+    /**
+     * Returns a snapshot of the counters of a lane.
+     *
+     * @param lane The lane.
+     * @return The lane's statistics.
+     */
+    public LaneStats getStats(Lane lane) {
+        synchronized (lock) {
+            LaneCounters laneCounters = counters.get(lane);
+            return new LaneStats(lane, queues.get(lane).size(), laneCounters.submitted, laneCounters.completed,
+                    laneCounters.failed, laneCounters.dropped, laneCounters.coalesced,
+                    laneCounters.totalWaitNanos, laneCounters.maxWaitNanos,
+                    laneCounters.totalRunNanos, laneCounters.maxRunNanos);
+        }
+    }
+
+    private void submit(Lane lane, @Nullable String key, Runnable task) {
+        List<Runnable> droppedTasks = new ArrayList<>(0);
+        synchronized (lock) {
+            enqueue(lane, key, task, droppedTasks);
+        }
+        // Outside the lock, a cancelled task may submit follow-up work
+        for (Runnable dropped : droppedTasks) {
+            if (dropped instanceof Cancellable)
+                ((Cancellable) dropped).cancel();
+        }
+    }
+
+    /**
+     * Queues a task, called with the lock held.
+     *
+     * @param droppedTasks Collects the tasks dropped to make room.
+     */
+    private void enqueue(Lane lane, @Nullable String key, Runnable task, List<Runnable> droppedTasks) {
+        LaneCounters laneCounters = counters.get(lane);
+        ScheduledTask pending = key != null ? pendingByKey.get(key) : null;
+        if (pending != null) {
+            // Keep the queue position of the earlier task, run only the latest request
+            pending.runnable = task;
+            laneCounters.coalesced++;
+            return;
+        }
+        ArrayDeque<ScheduledTask> queue = queues.get(lane);
+        if (lane == Lane.USER) {
+            if (queue.size() >= userCapacity) {
+                // The worker is behind on user work, background work can wait for another time
+                for (Lane backgroundLane : Lane.values()) {
+                    if (backgroundLane != Lane.USER)
+                        shed(backgroundLane, 0, droppedTasks);
+                }
+            }
+        } else {
+            shed(lane, backgroundCapacity - 1, droppedTasks);
+        }
+        ScheduledTask scheduledTask = new ScheduledTask(lane, key, task, System.nanoTime());
+        queue.addLast(scheduledTask);
+        if (key != null)
+            pendingByKey.put(key, scheduledTask);
+        laneCounters.submitted++;
+        lock.notifyAll();
+    }
+
+    /**
+     * Drops the oldest tasks of a lane until at most {@code keep} are left, called with the lock held.
+     */
+    private void shed(Lane lane, int keep, List<Runnable> droppedTasks) {
+        ArrayDeque<ScheduledTask> queue = queues.get(lane);
+        LaneCounters laneCounters = counters.get(lane);
+        while (queue.size() > keep) {
+            ScheduledTask dropped = queue.pollFirst();
+            if (dropped.key != null)
+                pendingByKey.remove(dropped.key);
+            droppedTasks.add(dropped.runnable);
+            laneCounters.dropped++;
+        }
+    }
+
+    private void runLoop() {
+        while (true) {
+            ScheduledTask task;
+            synchronized (lock) {
+                while ((task = pollHighestPriority()) == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (task.key != null)
+                    pendingByKey.remove(task.key);
+            }
+            run(task);
+        }
+    }
+
+    @Nullable
+    private ScheduledTask pollHighestPriority() {
+        for (Lane lane : Lane.values()) {
+            ScheduledTask task = queues.get(lane).pollFirst();
+            if (task != null)
+                return task;
+        }
+        return null;
+    }
+
+    private void run(ScheduledTask task) {
+        long startedAt = System.nanoTime();
+        Throwable failure = null;
+        Runnable runnable;
+        synchronized (lock) {
+            runnable = task.runnable;
+        }
+        try {
+            runnable.run();
+        } catch (Throwable t) {
+            failure = t;
+        }
+        long finishedAt = System.nanoTime();
+        long waitNanos = startedAt - task.enqueuedAt;
+        long runNanos = finishedAt - startedAt;
+        synchronized (lock) {
+            LaneCounters laneCounters = counters.get(task.lane);
+            if (failure == null)
+                laneCounters.completed++;
+            else
+                laneCounters.failed++;
+            laneCounters.totalWaitNanos += waitNanos;
+            laneCounters.maxWaitNanos = Math.max(laneCounters.maxWaitNanos, waitNanos);
+            laneCounters.totalRunNanos += runNanos;
+            laneCounters.maxRunNanos = Math.max(laneCounters.maxRunNanos, runNanos);
+        }
+        TaskListener listener = taskListener;
+        if (listener != null)
+            listener.onTaskFinished(task.lane, waitNanos, runNanos);
+        if (failure != null) {
+            // Report like a plain executor would, but keep the worker alive for the next task
+            Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+            if (handler != null)
+                handler.uncaughtException(Thread.currentThread(), failure);
+        }
+    }
+
+    private static final class ScheduledTask {
+        final Lane lane;
+        @Nullable
+        final String key;
+        final long enqueuedAt;
+        // Replaced when a duplicate request is coalesced, guarded by the scheduler lock
+        Runnable runnable;
+
+        ScheduledTask(Lane lane, @Nullable String key, Runnable runnable, long enqueuedAt) {
+            this.lane = lane;
+            this.key = key;
+            this.runnable = runnable;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private static final class LaneCounters {
+        long submitted;
+        long completed;
+        long failed;
+        long dropped;
+        long coalesced;
+        long totalWaitNanos;
+        long maxWaitNanos;
+        long totalRunNanos;
+        long maxRunNanos;
+    }
+
+    /**
+     * Snapshot of the counters of one lane.
+     */
+    public static class LaneStats {
+        private final Lane lane;
+        private final int queuedCount;
+        private final long submittedCount;
+        private final long completedCount;
+        private final long failedCount;
+        private final long droppedCount;
+        private final long coalescedCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long totalRunNanos;
+        private final long maxRunNanos;
+
+        LaneStats(Lane lane, int queuedCount, long submittedCount, long completedCount, long failedCount,
+                  long droppedCount, long coalescedCount, long totalWaitNanos, long maxWaitNanos,
+                  long totalRunNanos, long maxRunNanos) {
+            this.lane = lane;
+            this.queuedCount = queuedCount;
+            this.submittedCount = submittedCount;
+            this.completedCount = completedCount;
+            this.failedCount = failedCount;
+            this.droppedCount = droppedCount;
+            this.coalescedCount = coalescedCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.totalRunNanos = totalRunNanos;
+            this.maxRunNanos = maxRunNanos;
+        }
+
+        public Lane getLane() {
+            return lane;
+        }
+
+        public int getQueuedCount() {
+            return queuedCount;
+        }
+
+        public long getSubmittedCount() {
+            return submittedCount;
+        }
+
+        public long getCompletedCount() {
+            return completedCount;
+        }
+
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        public long getDroppedCount() {
+            return droppedCount;
+        }
+
+        public long getCoalescedCount() {
+            return coalescedCount;
+        }
+
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+
+        public long getMaxRunNanos() {
+            return maxRunNanos;
+        }
+
+        public long getAverageWaitNanos() {
+            long finished = completedCount + failedCount;
+            return finished == 0 ? 0 : totalWaitNanos / finished;
+        }
+
+        public long getAverageRunNanos() {
+            long finished = completedCount + failedCount;
+            return finished == 0 ? 0 : totalRunNanos / finished;
+        }
+
+        @Override
+        public String toString() {
+            return lane + ": queued=" + queuedCount + " submitted=" + submittedCount
+                    + " completed=" + completedCount + " failed=" + failedCount
+                    + " dropped=" + droppedCount + " coalesced=" + coalescedCount
+                    + " avgWaitUs=" + getAverageWaitNanos() / 1000 + " maxWaitUs=" + maxWaitNanos / 1000
+                    + " avgRunUs=" + getAverageRunNanos() / 1000 + " maxRunUs=" + maxRunNanos / 1000;
+        }
+    }
+}
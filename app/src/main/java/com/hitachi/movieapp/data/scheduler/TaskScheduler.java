@@ -0,0 +1,55 @@
+package com.hitachi.movieapp.data.scheduler;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor for background disk work, split into priority lanes.
+ * Plain {@link #execute(Runnable)} calls run on the {@link Lane#USER} lane.
+ */
+public interface TaskScheduler extends Executor {
+
+    /**
+     * Priority lanes, highest priority first.
+     */
+    enum Lane {
+        /**
+         * Work the user is waiting on, e.g. a favorite toggle or reading a cached page.
+         */
+        USER,
+        /**
+         * Cache writes and maintenance that can be dropped under load.
+         */
+        CACHE,
+        /**
+         * Speculative work that can be dropped under load.
+         */
+        PREFETCH
+    }
+
+    /**
+     * Schedules a task on a lane.
+     *
+     * @param lane The lane to run the task on.
+     * @param task The task to run.
+     */
+    void execute(@NonNull Lane lane, @NonNull Runnable task);
+
+    @Override
+    default void execute(@NonNull Runnable task) {
+        execute(Lane.USER, task);
+    }
+
+    /**
+     * Schedules a task that supersedes any task with the same key still waiting in the lane,
+     * so only the latest of a burst of duplicate requests runs.
+     *
+     * @param lane The lane to run the task on.
+     * @param key  The key identifying duplicate tasks.
+     * @param task The task to run.
+     */
+    default void executeCoalesced(@NonNull Lane lane, @NonNull String key, @NonNull Runnable task) {
+        execute(lane, task);
+    }
+}
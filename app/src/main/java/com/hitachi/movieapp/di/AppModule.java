@@ -1,11 +1,22 @@
 package com.hitachi.movieapp.di;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.room.Room;
 
 import com.hitachi.movieapp.data.local.AppDatabase;
+import com.hitachi.movieapp.data.local.Migrations;
 import com.hitachi.movieapp.data.local.MovieDao;
+import com.hitachi.movieapp.data.local.MovieSearchDao;
+import com.hitachi.movieapp.data.local.SearchCacheDao;
+import com.hitachi.movieapp.data.repository.FavoriteWriteBuffer;
+import com.hitachi.movieapp.data.repository.FavoritesIndex;
+import com.hitachi.movieapp.data.scheduler.Delayer;
+import com.hitachi.movieapp.data.scheduler.IoScheduler;
+import com.hitachi.movieapp.data.scheduler.TaskScheduler;
+import com.hitachi.movieapp.startup.StartupTracer;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -26,7 +37,8 @@ import dagger.hilt.components.SingletonComponent;
 public class AppModule {
 
     /**
-     * Provides an instance of AppDatabase using Room.
+     * Provides an instance of AppDatabase using Room. Older schemas are migrated in place,
+     * Room fails loudly rather than dropping data if a migration is missing.
      *
      * @param context The application context.
      * @return The AppDatabase instance.
@@ -36,10 +48,12 @@ public class AppModule {
     public AppDatabase provideDatabase(
             @ApplicationContext Context context
     ) {
-        return Room.databaseBuilder(context.getApplicationContext(),
-                AppDatabase.class, "movie_database")
-                .fallbackToDestructiveMigration()
-                .build();
+        try (StartupTracer.Section ignored = StartupTracer.getInstance().begin("AppModule.database")) {
+            return Room.databaseBuilder(context.getApplicationContext(),
+                    AppDatabase.class, "movie_database")
+                    .addMigrations(Migrations.ALL)
+                    .build();
+        }
     }
 
     /**
@@ -54,11 +68,120 @@ public class AppModule {
         return database.movieDao();
     }
 
+    /**
+     * Provides the DAO backing the persisted search page cache.
+     *
+     * @param database The AppDatabase instance.
+     * @return The SearchCacheDao instance.
+     */
+    @Provides
+    @Singleton
+    public SearchCacheDao provideSearchCacheDao(AppDatabase database) {
+        return database.searchCacheDao();
+    }
+
+    /**
+     * Provides the DAO backing the offline full-text movie index.
+     *
+     * @param database The AppDatabase instance.
+     * @return The MovieSearchDao instance.
+     */
+    @Provides
+    @Singleton
+    public MovieSearchDao provideMovieSearchDao(AppDatabase database) {
+        return database.movieSearchDao();
+    }
+
+    /**
+     * Provides the in-memory index of favorite IMDb IDs, kept in sync with the favorites table.
+     *
+     * @param database The AppDatabase instance.
+     * @param favoriteWriteBuffer The buffer holding favorite changes not written yet.
+     * @param scheduler The scheduler for disk work.
+     * @return The FavoritesIndex instance.
+     */
+    @Provides
+    @Singleton
+    public FavoritesIndex provideFavoritesIndex(AppDatabase database, FavoriteWriteBuffer favoriteWriteBuffer,
+                                                TaskScheduler scheduler) {
+        FavoritesIndex favoritesIndex = new FavoritesIndex(database.movieDao(), favoriteWriteBuffer, scheduler);
+        database.getInvalidationTracker().addObserver(favoritesIndex.createInvalidationObserver());
+        favoritesIndex.reload();
+        return favoritesIndex;
+    }
+
+    /**
+     * Provides the prioritized scheduler used for disk work.
+     *
+     * @param ioScheduler The IoScheduler instance.
+     * @return The TaskScheduler instance.
+     */
+    @Provides
+    @Singleton
+    public TaskScheduler provideTaskScheduler(IoScheduler ioScheduler) {
+        return ioScheduler;
+    }
+
+    /**
+     * Provides the executor for CPU work on lists, kept off the disk scheduler so sorting never
+     * waits behind disk work. A single thread keeps published lists in order.
+     *
+     * @return The computation Executor.
+     */
+    @Provides
+    @Singleton
+    @ComputationExecutor
+    public Executor provideComputationExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "list-computation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Provides the executor running favorites exports and imports. A backup can take a while,
+     * so it gets its own thread instead of holding the disk scheduler's worker.
+     *
+     * @return The backup Executor.
+     */
+    @Provides
+    @Singleton
+    @BackupExecutor
+    public Executor provideBackupExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "favorites-backup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Provides an executor that delivers results back on the main thread.
+     *
+     * @return The main thread Executor.
+     */
+    @Provides
+    @Singleton
+    @MainThreadExecutor
+    public Executor provideMainThreadExecutor() {
+        Handler handler = new Handler(Looper.getMainLooper());
+        return handler::post;
+    }
+
+    /**
+     * Provides a delayer that runs tasks on the main thread, e.g. to debounce search input.
+     *
+     * @return The main thread Delayer.
+     */
     @Provides
     @Singleton
-    public Executor provideExecutor() {
-        // Use a single-threaded executor for background operations
-        return Executors.newSingleThreadExecutor();
+    public Delayer provideDelayer() {
+        Handler handler = new Handler(Looper.getMainLooper());
+        return (task, delayMillis) -> {
+            handler.postDelayed(task, delayMillis);
+            return () -> handler.removeCallbacks(task);
+        };
     }
 
 }
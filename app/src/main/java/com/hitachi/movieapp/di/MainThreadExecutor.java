@@ -0,0 +1,16 @@
+package com.hitachi.movieapp.di;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import javax.inject.Qualifier;
+
+/**
+ * Qualifier for the {@link java.util.concurrent.Executor} that runs tasks on the Android main thread.
+ */
+@Qualifier
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MainThreadExecutor {
+}
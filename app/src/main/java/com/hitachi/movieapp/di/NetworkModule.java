@@ -1,13 +1,44 @@
 package com.hitachi.movieapp.di;
 
+import android.content.Context;
+
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.hitachi.movieapp.BuildConfig;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.local.QuotaPreferences;
+import com.hitachi.movieapp.data.network.CacheControlInterceptor;
+import com.hitachi.movieapp.data.network.CircuitBreaker;
+import com.hitachi.movieapp.data.network.MovieListItemTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieResponseTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieTypeAdapter;
+import com.hitachi.movieapp.data.network.NetworkMetrics;
 import com.hitachi.movieapp.data.network.OmdbApi;
+import com.hitachi.movieapp.data.network.OmdbEndpoint;
+import com.hitachi.movieapp.data.network.RateLimiter;
+import com.hitachi.movieapp.data.network.ResilientCallAdapterFactory;
+import com.hitachi.movieapp.data.network.RetryPolicy;
+import com.hitachi.movieapp.data.network.TelemetryEventListener;
+import com.hitachi.movieapp.data.paging.PagingConfig;
+import com.hitachi.movieapp.startup.StartupTracer;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import dagger.Module;
 import dagger.Provides;
 import dagger.hilt.InstallIn;
+import dagger.hilt.android.qualifiers.ApplicationContext;
 import dagger.hilt.components.SingletonComponent;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
@@ -23,27 +54,124 @@ import javax.inject.Singleton;
 public class NetworkModule {
 
     /**
-     * Provides an OkHttpClient instance with a logging interceptor.
+     * Size of the on-disk HTTP cache.
+     */
+    private static final long HTTP_CACHE_SIZE_BYTES = 10L * 1024 * 1024;
+    /**
+     * OMDb is a single host, a few idle connections are enough to reuse TLS sessions.
+     */
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    /**
+     * OkHttp runs 5 calls per host by default, too few to hydrate a page of details in one round trip.
+     */
+    private static final int MAX_REQUESTS_PER_HOST = PagingConfig.HYDRATION_PARALLELISM + 2;
+    private static final long CONNECT_TIMEOUT_SECONDS = 10;
+    private static final long READ_TIMEOUT_SECONDS = 15;
+    private static final long WRITE_TIMEOUT_SECONDS = 10;
+    private static final long CALL_TIMEOUT_SECONDS = 30;
+    /**
+     * Search pages are what the user waits for, so they are retried a little more patiently
+     * than details, which are often speculative prefetches.
+     */
+    private static final RetryPolicy SEARCH_RETRY_POLICY = new RetryPolicy(3, 500, 4000, TimeUnit.SECONDS.toMillis(12));
+    private static final RetryPolicy DETAILS_RETRY_POLICY = new RetryPolicy(2, 500, 2000, TimeUnit.SECONDS.toMillis(8));
+
+    /**
+     * Provides the on-disk cache for OMDb responses.
+     *
+     * @param context The application context.
+     * @return The Cache instance.
+     */
+    @Provides
+    @Singleton
+    public Cache provideHttpCache(@ApplicationContext Context context) {
+        return new Cache(new File(context.getCacheDir(), "http_cache"), HTTP_CACHE_SIZE_BYTES);
+    }
+
+    /**
+     * Provides an OkHttpClient instance with a disk cache, tuned connection pool and timeouts.
+     * OkHttp requests gzip and unzips responses transparently, so no Accept-Encoding header is set here.
+     * Bodies are logged in debug builds only. Every call reports its timings to {@link NetworkMetrics}.
      *
+     * @param cache The disk cache for responses.
+     * @param networkMetrics The telemetry the calls are recorded in.
      * @return The OkHttpClient instance.
      */
     @Provides
     @Singleton
-    public OkHttpClient provideOkHttpClient() {
-        return new OkHttpClient.Builder()
-                .addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY))
-                .build();
+    public OkHttpClient provideOkHttpClient(Cache cache, NetworkMetrics networkMetrics) {
+        try (StartupTracer.Section ignored = StartupTracer.getInstance().begin("NetworkModule.okHttpClient")) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                    .dispatcher(dispatcher)
+                    .cache(cache)
+                    .addNetworkInterceptor(new CacheControlInterceptor())
+                    .eventListenerFactory(new TelemetryEventListener.Factory(networkMetrics))
+                    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                    .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .writeTimeout(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .callTimeout(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (BuildConfig.DEBUG)
+                builder.addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY));
+            return builder.build();
+        }
     }
     /**
      * Provides  
      a Gson instance for JSON parsing.
+     * OMDb models are decoded by streaming adapters instead of reflection.
      *
      * @return The Gson instance.
      */
     @Provides
     @Singleton
     public Gson provideGson() {
-        return new GsonBuilder().create();
+        try (StartupTracer.Section ignored = StartupTracer.getInstance().begin("NetworkModule.gson")) {
+            MovieListItemTypeAdapter listItemTypeAdapter = new MovieListItemTypeAdapter();
+            return new GsonBuilder()
+                    .registerTypeAdapter(Movie.class, new MovieTypeAdapter())
+                    .registerTypeAdapter(MovieListItem.class, listItemTypeAdapter)
+                    .registerTypeAdapter(MovieResponse.class, new MovieResponseTypeAdapter(listItemTypeAdapter))
+                    .create();
+        }
+    }
+
+    /**
+     * Provides the budget of the OMDb API key, with today's usage persisted across restarts.
+     *
+     * @param context The application context.
+     * @return The RateLimiter instance.
+     */
+    @Provides
+    @Singleton
+    public RateLimiter provideRateLimiter(@ApplicationContext Context context) {
+        return new RateLimiter(RateLimiter.DEFAULT_PERMITS_PER_SECOND, RateLimiter.DEFAULT_BURST,
+                RateLimiter.DEFAULT_DAILY_QUOTA, new QuotaPreferences(context), System::currentTimeMillis);
+    }
+
+    /**
+     * Provides the call adapter that budgets and retries OMDb calls and fails fast while OMDb is down.
+     *
+     * @param circuitBreaker The breaker shared by all OMDb calls.
+     * @param rateLimiter The budget shared by all OMDb calls.
+     * @return The ResilientCallAdapterFactory instance.
+     */
+    @Provides
+    @Singleton
+    public ResilientCallAdapterFactory provideResilientCallAdapterFactory(CircuitBreaker circuitBreaker,
+                                                                          RateLimiter rateLimiter) {
+        Map<OmdbEndpoint, RetryPolicy> retryPolicies = new EnumMap<>(OmdbEndpoint.class);
+        retryPolicies.put(OmdbEndpoint.SEARCH, SEARCH_RETRY_POLICY);
+        retryPolicies.put(OmdbEndpoint.DETAILS, DETAILS_RETRY_POLICY);
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "omdb-retry-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new ResilientCallAdapterFactory(retryPolicies, circuitBreaker, rateLimiter, timer);
     }
 
     /**
@@ -51,19 +179,24 @@ public class NetworkModule {
      *
      * @param okHttpClient The OkHttpClient instance.
      * @param gson The Gson instance.
+     * @param resilientCallAdapterFactory The adapter adding retries and the circuit breaker.
      * @return The Retrofit instance.
      */
     @Provides
     @Singleton
     public Retrofit provideRetrofit(
             OkHttpClient okHttpClient,
-            Gson gson
+            Gson gson,
+            ResilientCallAdapterFactory resilientCallAdapterFactory
     ) {
-        return new Retrofit.Builder()
-                .baseUrl("https://www.omdbapi.com/")
-                .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create(gson))
-                .build();
+        try (StartupTracer.Section ignored = StartupTracer.getInstance().begin("NetworkModule.retrofit")) {
+            return new Retrofit.Builder()
+                    .baseUrl("https://www.omdbapi.com/")
+                    .client(okHttpClient)
+                    .addCallAdapterFactory(resilientCallAdapterFactory)
+                    .addConverterFactory(GsonConverterFactory.create(gson))
+                    .build();
+        }
     }
     /**
      * Provides an OmdbApi interface for making API calls.
@@ -76,6 +209,8 @@ public class NetworkModule {
     public OmdbApi provideApiService(
             Retrofit retrofit
     ) {
-        return retrofit.create(OmdbApi.class);
+        try (StartupTracer.Section ignored = StartupTracer.getInstance().begin("NetworkModule.omdbApi")) {
+            return retrofit.create(OmdbApi.class);
+        }
     }
 }
@@ -1,7 +1,6 @@
 package com.hitachi.movieapp.presentation.adapter;
 
 import android.annotation.SuppressLint;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,38 +8,67 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.hitachi.movieapp.R;
-import com.hitachi.movieapp.data.model.response.Movie;
-import com.hitachi.movieapp.presentation.movies_list.OnFavoriteClickListener;
-import com.hitachi.movieapp.presentation.movies_list.OnMovieClickListener;
+import com.hitachi.movieapp.data.model.FavoriteMovieItem;
+import com.hitachi.movieapp.presentation.image.PosterRequests;
+import com.hitachi.movieapp.presentation.favorite_movies.OnFavoriteMovieClickListener;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter for displaying a list of favorite movies in a RecyclerView.
  * Handles view binding, click events, and updates to the movie list.
+ * Lists are diffed on a background thread and rows keep stable IDs derived from their IMDb ID.
+ * Also provides the posters to preload ahead of scrolling, see {@link #getPreloadSizeProvider()}.
  */
-public class FavoriteAdapter extends RecyclerView.Adapter<BaseViewHolder> {
-    // List of favorite movies to display
-    private final List<Movie> movieList;
+public class FavoriteAdapter extends RecyclerView.Adapter<BaseViewHolder>
+        implements ListPreloader.PreloadModelProvider<FavoriteMovieItem> {
+    private static final DiffUtil.ItemCallback<FavoriteMovieItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<FavoriteMovieItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FavoriteMovieItem oldItem, @NonNull FavoriteMovieItem newItem) {
+            return Objects.equals(oldItem.getImdbID(), newItem.getImdbID());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FavoriteMovieItem oldItem, @NonNull FavoriteMovieItem newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    // Diffs submitted lists against the displayed one off the main thread
+    private final AsyncListDiffer<FavoriteMovieItem> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     // Callback for when a movie item is clicked
-    private final OnMovieClickListener listener;
+    private final OnFavoriteMovieClickListener listener;
+    // Loads posters for this adapter's screen
+    private final RequestManager glide;
+    // Size of the poster views, so preloads match the requests of bound rows
+    private final ViewPreloadSizeProvider<FavoriteMovieItem> preloadSizeProvider = new ViewPreloadSizeProvider<>();
 
-    public FavoriteAdapter(List<Movie> movieList,
-                           OnMovieClickListener listener) {
-        this.movieList = movieList;
+    public FavoriteAdapter(OnFavoriteMovieClickListener listener, RequestManager glide) {
         this.listener = listener;
+        this.glide = glide;
+        setHasStableIds(true);
     }
 
     @NonNull
     @Override
     public BaseViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
 
-        return new MovieViewHolder(LayoutInflater.from(parent.getContext())
+        MovieViewHolder holder = new MovieViewHolder(LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_favorite, parent, false));
+        preloadSizeProvider.setView(holder.poster);
+        return holder;
 
     }
 
@@ -51,13 +79,44 @@ public class FavoriteAdapter extends RecyclerView.Adapter<BaseViewHolder> {
 
     @Override
     public int getItemCount() {
-        return movieList != null ? movieList.size() : 0;
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return MovieDiffCallback.stableIdOf(differ.getCurrentList().get(position).getImdbID());
     }
 
-    @SuppressLint("NotifyDataSetChanged")
-    public void updateMovies(List<Movie> movies) {
-        movieList.addAll(movies);
-        notifyDataSetChanged();
+    /**
+     * Replaces the displayed favorites, notifying only the rows that changed.
+     *
+     * @param movies The favorite movies to display.
+     */
+    public void updateMovies(List<FavoriteMovieItem> movies) {
+        differ.submitList(movies);
+    }
+
+    /**
+     * Provides the size of the poster views to a {@code RecyclerViewPreloader}.
+     *
+     * @return The size provider, measured from the first bound row.
+     */
+    public ViewPreloadSizeProvider<FavoriteMovieItem> getPreloadSizeProvider() {
+        return preloadSizeProvider;
+    }
+
+    @NonNull
+    @Override
+    public List<FavoriteMovieItem> getPreloadItems(int position) {
+        if (position < 0 || position >= differ.getCurrentList().size())
+            return Collections.emptyList();
+        return Collections.singletonList(differ.getCurrentList().get(position));
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull FavoriteMovieItem movie) {
+        return PosterRequests.thumbnail(glide, movie.getPoster());
     }
 
 
@@ -75,11 +134,11 @@ public class FavoriteAdapter extends RecyclerView.Adapter<BaseViewHolder> {
         @Override
         public void onBind(int position) {
 
-                Movie movie = movieList.get(position);
+                FavoriteMovieItem movie = differ.getCurrentList().get(position);
                 title.setText(movie.getTitle());
                 year.setText(movie.getYear());
-                Glide.with(poster.getContext()).load(movie.getPoster()).placeholder(R.drawable.place_holder).into(poster);
-                itemView.setOnClickListener(v -> listener.onMovieClick(movie));
+                PosterRequests.thumbnail(glide, movie.getPoster()).into(poster);
+                itemView.setOnClickListener(v -> listener.onFavoriteMovieClick(movie));
 
             }
         }
@@ -7,23 +7,35 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncListDiffer;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.hitachi.movieapp.R;
-import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.presentation.image.PosterRequests;
 import com.hitachi.movieapp.presentation.movies_list.OnFavoriteClickListener;
 import com.hitachi.movieapp.presentation.movies_list.OnMovieClickListener;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 /**
  * Adapter for displaying a list of movies in a RecyclerView.
  * Handles view binding, click events, and updates to the movie list.
+ * Lists are diffed on a background thread and rows keep stable IDs derived from their IMDb ID.
+ * Also provides the posters to preload ahead of scrolling, see {@link #getPreloadSizeProvider()}.
  */
-public class MovieAdapter extends RecyclerView.Adapter<BaseViewHolder> {
-    // List of movies to display
-    private final List<Movie> movieList;
+public class MovieAdapter extends RecyclerView.Adapter<BaseViewHolder>
+        implements ListPreloader.PreloadModelProvider<MovieListItem> {
+    // Diffs submitted lists against the displayed one off the main thread
+    private final AsyncListDiffer<MovieListItem> differ = new AsyncListDiffer<>(this, MovieDiffCallback.INSTANCE);
     // Callback for when a movie item is clicked
     private final OnMovieClickListener listener;
     // Callback for when the favorite button is clicked
@@ -31,32 +43,39 @@ public class MovieAdapter extends RecyclerView.Adapter<BaseViewHolder> {
     // View types for loading indicator and movie items
     private static final int VIEW_TYPE_LOADING = 0;
     private static final int VIEW_TYPE_MOVIE = 1;
-    // Flag to indicate if a loading footer is added
+    // Flag to indicate if the loading footer is shown after the last movie
     private boolean isLoadingAdded = false;
+    // Loads posters for this adapter's screen
+    private final RequestManager glide;
+    // Size of the poster views, so preloads match the requests of bound rows
+    private final ViewPreloadSizeProvider<MovieListItem> preloadSizeProvider = new ViewPreloadSizeProvider<>();
 
 
     /**
      * Constructor for the MovieAdapter.
      *
-     * @param movieList The list of movies to display.
      * @param listener The callback for movie item clicks.
      * @param onFavoriteClickListener The callback for favorite button clicks.
+     * @param glide The request manager loading the posters.
      */
-    public MovieAdapter(List<Movie> movieList,
-                        OnMovieClickListener listener,
-                        OnFavoriteClickListener onFavoriteClickListener
+    public MovieAdapter(OnMovieClickListener listener,
+                        OnFavoriteClickListener onFavoriteClickListener,
+                        RequestManager glide
     ) {
         this.onFavoriteClickListener = onFavoriteClickListener;
-        this.movieList = movieList;
         this.listener = listener;
+        this.glide = glide;
+        setHasStableIds(true);
     }
 
     @NonNull
     @Override
     public BaseViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         if (viewType == VIEW_TYPE_MOVIE) {
-            return new MovieViewHolder(LayoutInflater.from(parent.getContext())
+            MovieViewHolder holder = new MovieViewHolder(LayoutInflater.from(parent.getContext())
                     .inflate(R.layout.item_movie, parent, false));
+            preloadSizeProvider.setView(holder.poster);
+            return holder;
         } else {
             return new ProgressHolder(LayoutInflater.from(parent.getContext())
                     .inflate(R.layout.item_loading, parent, false));
@@ -68,88 +87,141 @@ public class MovieAdapter extends RecyclerView.Adapter<BaseViewHolder> {
         holder.onBind(position);
     }
 
-    /**
-     * Adds a loading footer to the adapter for indicating data is being fetched.
-     */
-    public void addLoadingFooter() {
-        isLoadingAdded = true;
-        movieList.add(new Movie()); // Adding an empty item as the loading placeholder
-        notifyItemInserted(movieList.size() - 1);
+    @Override
+    public void onBindViewHolder(@NonNull BaseViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // A favorite toggle only needs the heart icon, skip the poster and text rebind
+        if (holder instanceof MovieViewHolder && !payloads.isEmpty()
+                && payloads.stream().allMatch(payload -> payload == MovieDiffCallback.PAYLOAD_FAVORITE)) {
+            ((MovieViewHolder) holder).bindFavorite(getMovie(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        if (getItemViewType(position) == VIEW_TYPE_LOADING)
+            return MovieDiffCallback.NO_MOVIE_ID;
+        return MovieDiffCallback.stableIdOf(getMovie(position));
+    }
+
+    private MovieListItem getMovie(int position) {
+        return differ.getCurrentList().get(position);
     }
 
     /**
-     * Removes the loading footer from the adapter.
+     * Provides the size of the poster views to a {@code RecyclerViewPreloader}.
+     *
+     * @return The size provider, measured from the first bound row.
      */
-    public void removeLoadingFooter() {
-        isLoadingAdded = false;
-        int position = movieList.size() - 1;
-        Movie item = getItem(position);
-        if (item != null) {
-            movieList.remove(position);
-            notifyItemRemoved(position);
-        }
+    public ViewPreloadSizeProvider<MovieListItem> getPreloadSizeProvider() {
+        return preloadSizeProvider;
+    }
+
+    @NonNull
+    @Override
+    public List<MovieListItem> getPreloadItems(int position) {
+        if (position < 0 || position >= differ.getCurrentList().size())
+            return Collections.emptyList();
+        return Collections.singletonList(getMovie(position));
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull MovieListItem movie) {
+        return PosterRequests.thumbnail(glide, movie.getPoster());
     }
 
     /**
-     * Gets the movie item at the specified position.
+     * Shows or hides the loading footer after the last movie.
      *
-     * @param position The position of the item.
-     * @return The movie item at the given position, or null if it doesn't exist.
+     * @param visible True to show the footer.
      */
-    private Movie getItem(int position) {
-        return movieList.get(position);
+    public void setLoadingFooterVisible(boolean visible) {
+        if (isLoadingAdded == visible)
+            return;
+        isLoadingAdded = visible;
+        int footerPosition = differ.getCurrentList().size();
+        if (visible)
+            notifyItemInserted(footerPosition);
+        else
+            notifyItemRemoved(footerPosition);
     }
 
     @Override
     public int getItemCount() {
-        return movieList != null ? movieList.size() : 0;
+        return differ.getCurrentList().size() + (isLoadingAdded ? 1 : 0);
     }
 
     @Override
     public int getItemViewType(int position) {
-        return (position == movieList.size() - 1 && isLoadingAdded) ? VIEW_TYPE_LOADING : VIEW_TYPE_MOVIE;
+        return (position == differ.getCurrentList().size() && isLoadingAdded) ? VIEW_TYPE_LOADING : VIEW_TYPE_MOVIE;
     }
 
     /**
-     * Updates the movie list with the provided list of movies.
+     * Replaces the displayed movies. The diff runs on a background thread and only rows that were
+     * inserted, removed, moved or changed are notified, so sorting or paging keeps the other rows bound.
      *
      * @param movies The new list of movies.
      */
-    @SuppressLint("NotifyDataSetChanged")
-    public void updateMovies(List<Movie> movies) {
-        movieList.addAll(movies);
-        notifyDataSetChanged();
+    public void submitMovies(List<MovieListItem> movies) {
+        submitMovies(movies, null);
     }
 
     /**
-     * Adds a list of new movies to the end of the existing movie list.
+     * Replaces the displayed movies and runs a callback once the diff has been applied.
      *
-     * @param newMovies The list of new movies to add.
+     * @param movies      The new list of movies.
+     * @param onCommitted Run on the main thread after the list is displayed, may be null.
      */
-    public void addMovies(List<Movie> newMovies) {
-        int startPosition = movieList.size();
-        this.movieList.addAll(newMovies);
-        notifyItemRangeInserted(startPosition, newMovies.size());
+    public void submitMovies(List<MovieListItem> movies, @Nullable Runnable onCommitted) {
+        differ.submitList(withoutDuplicates(movies), onCommitted);
     }
 
     /**
-     * Clears the movie list.
+     * OMDb occasionally repeats a movie across pages, keep the first occurrence so stable IDs stay unique.
      */
-    public void removeMovies() {
-        movieList.clear();
-        notifyDataSetChanged();
+    private static List<MovieListItem> withoutDuplicates(List<MovieListItem> movies) {
+        Set<String> seen = new HashSet<>();
+        List<MovieListItem> unique = new ArrayList<>(movies.size());
+        for (MovieListItem movie : movies) {
+            if (movie.getImdbID() == null || seen.add(movie.getImdbID()))
+                unique.add(movie);
+        }
+        return unique;
     }
 
     /**
-     * Edits the movie at the specified position to toggle its favorite status.
+     * Collects the IMDb IDs of the rows nearest to the visible range, closest first.
+     * Visible rows come first, then rows alternately below and above the viewport.
      *
-     * @param position The position of the movie to edit.
+     * @param firstVisible The first visible adapter position.
+     * @param lastVisible  The last visible adapter position.
+     * @param count        The maximum number of IDs to return.
+     * @return The IMDb IDs ordered by distance from the viewport.
      */
-    public void editMovie(int position) {
-        if (!movieList.isEmpty()) {
-            movieList.get(position).setFavorite(true);
-            notifyItemChanged(position);
+    public List<String> getImdbIdsAround(int firstVisible, int lastVisible, int count) {
+        List<String> imdbIDs = new ArrayList<>();
+        int size = differ.getCurrentList().size();
+        for (int position = Math.max(firstVisible, 0); position <= lastVisible && position < size; position++)
+            addImdbId(imdbIDs, position, count);
+        for (int distance = 1; imdbIDs.size() < count; distance++) {
+            int below = lastVisible + distance;
+            int above = firstVisible - distance;
+            if (below >= size && above < 0)
+                break;
+            addImdbId(imdbIDs, below, count);
+            addImdbId(imdbIDs, above, count);
         }
+        return imdbIDs;
+    }
+
+    private void addImdbId(List<String> imdbIDs, int position, int count) {
+        if (position < 0 || position >= differ.getCurrentList().size() || imdbIDs.size() >= count)
+            return;
+        String imdbID = getMovie(position).getImdbID();
+        if (imdbID != null)
+            imdbIDs.add(imdbID);
     }
 
     /**
@@ -166,31 +238,51 @@ public class MovieAdapter extends RecyclerView.Adapter<BaseViewHolder> {
             poster = itemView.findViewById(R.id.imageViewPoster);
             fav = itemView.findViewById(R.id.buttonFavorite);
 
+            // Rows are immutable and a favorite toggle only rebinds the heart, so the listeners
+            // read the row displayed now instead of the one bound first
+            itemView.setOnClickListener(v -> {
+                MovieListItem movie = getBoundMovie();
+                if (movie != null)
+                    listener.onMovieClick(movie);
+            });
+            fav.setOnClickListener(v -> {
+                MovieListItem movie = getBoundMovie();
+                if (movie != null)
+                    onFavoriteClickListener.onFavoriteClick(movie);
+            });
         }
 
         @Override
         public void onBind(int position) {
             if (getItemViewType() == VIEW_TYPE_MOVIE) {
-                Movie movie = movieList.get(position);
+                MovieListItem movie = getMovie(position);
                 title.setText(movie.getTitle());
                 year.setText(movie.getYear());
-                Glide.with(poster.getContext()).load(movie.getPoster()).placeholder(R.drawable.place_holder).into(poster);
-
-                // Check if the movie is a favorite and update the favorite button accordingly
-                if (movie.isFavorite())
-                    Glide.with(fav.getContext()).load(R.drawable.baseline_favorite_24).into(fav);
-                else
-                    Glide.with(fav.getContext()).load(R.drawable.baseline_favorite_border_24).into(fav);
+                PosterRequests.thumbnail(glide, movie.getPoster()).into(poster);
+                bindFavorite(movie);
+            }
+        }
 
-                itemView.setOnClickListener(v -> listener.onMovieClick(movie));
-                fav.setOnClickListener(v -> {
-                    onFavoriteClickListener.onFavoriteClick(movie);
-                    // Toggle favorite status
-                    movie.setFavorite(!movie.isFavorite());
-                    notifyItemChanged(position);
-                });
+        /**
+         * @return The row this holder displays now, or null while it is being removed.
+         */
+        @Nullable
+        private MovieListItem getBoundMovie() {
+            int position = getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION || position >= differ.getCurrentList().size())
+                return null;
+            return getMovie(position);
+        }
 
-            }
+        /**
+         * Updates the favorite button to match the movie's favorite status.
+         *
+         * @param movie The movie bound to this row.
+         */
+        void bindFavorite(MovieListItem movie) {
+            fav.setImageResource(movie.isFavorite()
+                    ? R.drawable.baseline_favorite_24
+                    : R.drawable.baseline_favorite_border_24);
         }
     }
 
@@ -0,0 +1,93 @@
+package com.hitachi.movieapp.presentation.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+
+import java.util.Objects;
+
+/**
+ * Diff callback for movie lists. Rows are matched by IMDb ID, or by title and year for a row
+ * without one, and a change that only
+ * flips the favorite flag is reported with {@link #PAYLOAD_FAVORITE} so just the heart icon rebinds.
+ */
+public class MovieDiffCallback extends DiffUtil.ItemCallback<MovieListItem> {
+    /**
+     * Payload for a row whose favorite flag changed.
+     */
+    public static final Object PAYLOAD_FAVORITE = new Object();
+    /**
+     * Stable ID reserved for rows that are not movies, e.g. the loading footer.
+     * {@link #stableIdOf} never returns it.
+     */
+    public static final long NO_MOVIE_ID = Long.MIN_VALUE;
+    // Hashed IMDb IDs take the 2^32 IDs below zero, rows without an IMDb ID the 2^32 below those
+    private static final long NO_IMDB_ID_BASE = -(1L << 32) - 1;
+
+    public static final MovieDiffCallback INSTANCE = new MovieDiffCallback();
+
+    @Override
+    public boolean areItemsTheSame(@NonNull MovieListItem oldItem, @NonNull MovieListItem newItem) {
+        if (oldItem.getImdbID() == null || newItem.getImdbID() == null)
+            return oldItem.getImdbID() == null && newItem.getImdbID() == null
+                    && Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getYear(), newItem.getYear());
+        return oldItem.getImdbID().equals(newItem.getImdbID());
+    }
+
+    @Override
+    public boolean areContentsTheSame(@NonNull MovieListItem oldItem, @NonNull MovieListItem newItem) {
+        return oldItem.isFavorite() == newItem.isFavorite() && areRowFieldsTheSame(oldItem, newItem);
+    }
+
+    @Nullable
+    @Override
+    public Object getChangePayload(@NonNull MovieListItem oldItem, @NonNull MovieListItem newItem) {
+        if (areRowFieldsTheSame(oldItem, newItem))
+            return PAYLOAD_FAVORITE;
+        return null;
+    }
+
+    private static boolean areRowFieldsTheSame(MovieListItem oldItem, MovieListItem newItem) {
+        return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                && Objects.equals(oldItem.getYear(), newItem.getYear())
+                && Objects.equals(oldItem.getPoster(), newItem.getPoster());
+    }
+
+    /**
+     * Derives a stable RecyclerView item ID for a row. A row without an IMDb ID gets a hash of
+     * its title and year, in a range apart from the IDs of movies that have one.
+     *
+     * @param movie The movie of the row.
+     * @return The stable item ID, never {@link #NO_MOVIE_ID}.
+     */
+    public static long stableIdOf(MovieListItem movie) {
+        if (movie.getImdbID() != null)
+            return stableIdOf(movie.getImdbID());
+        String titleAndYear = movie.getTitle() + '\n' + movie.getYear();
+        return NO_IMDB_ID_BASE - (titleAndYear.hashCode() & 0xffffffffL);
+    }
+
+    /**
+     * Derives a stable RecyclerView item ID from an IMDb ID.
+     * IDs of the form "tt1234567" map to their number, anything else falls back to a hash.
+     *
+     * @param imdbID The IMDb ID of the movie.
+     * @return The stable item ID.
+     */
+    public static long stableIdOf(@NonNull String imdbID) {
+        if (imdbID.length() > 2 && imdbID.startsWith("tt")) {
+            try {
+                long number = Long.parseLong(imdbID.substring(2));
+                if (number >= 0)
+                    return number;
+            } catch (NumberFormatException ignored) {
+                // Fall through to the hash
+            }
+        }
+        // Keep hashed IDs negative so they never collide with numeric ones
+        return -1L - (imdbID.hashCode() & 0xffffffffL);
+    }
+}
@@ -0,0 +1,58 @@
+package com.hitachi.movieapp.presentation.favorite_movies;
+
+/**
+ * State of the latest favorites export or import, shown while it runs and once it is done.
+ */
+public final class BackupStatus {
+    public enum Operation {
+        EXPORT,
+        IMPORT
+    }
+
+    public enum State {
+        RUNNING,
+        FINISHED,
+        FAILED
+    }
+
+    private final Operation operation;
+    private final State state;
+    private final int rows;
+
+    private BackupStatus(Operation operation, State state, int rows) {
+        this.operation = operation;
+        this.state = state;
+        this.rows = rows;
+    }
+
+    public static BackupStatus running(Operation operation, int rows) {
+        return new BackupStatus(operation, State.RUNNING, rows);
+    }
+
+    public static BackupStatus finished(Operation operation, int rows) {
+        return new BackupStatus(operation, State.FINISHED, rows);
+    }
+
+    public static BackupStatus failed(Operation operation, int rows) {
+        return new BackupStatus(operation, State.FAILED, rows);
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return The number of favorites exported or restored so far.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+}
@@ -1,18 +1,32 @@
 package com.hitachi.movieapp.presentation.favorite_movies;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.View;
+import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.LinearLayoutManager;
-import com.hitachi.movieapp.data.model.response.Movie;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.hitachi.movieapp.R;
+import com.hitachi.movieapp.data.model.FavoriteMovieItem;
 import com.hitachi.movieapp.databinding.ActivityFavouriteMoviesBinding;
 import com.hitachi.movieapp.presentation.adapter.FavoriteAdapter;
 import com.hitachi.movieapp.presentation.movie_details.MovieDetailsActivity;
-import com.hitachi.movieapp.presentation.movies_list.OnMovieClickListener;
-import java.util.ArrayList;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 import dagger.hilt.android.AndroidEntryPoint;
 
 /**
@@ -20,11 +34,21 @@ import dagger.hilt.android.AndroidEntryPoint;
  * It retrieves favorite movies from the FavoriteMoviesViewModel and displays them in a RecyclerView.
  */
 @AndroidEntryPoint
-public class FavoriteMoviesActivity extends AppCompatActivity implements OnMovieClickListener {
+public class FavoriteMoviesActivity extends AppCompatActivity implements OnFavoriteMovieClickListener {
+    // Load the next page when this many rows are left below the viewport
+    private static final int LOAD_MORE_THRESHOLD = 10;
+    // Number of posters preloaded ahead of the scroll direction
+    private static final int POSTER_PRELOAD_COUNT = 10;
+    // Favorites backups are JSON lines, one favorite per line
+    private static final String BACKUP_MIME_TYPE = "application/x-ndjson";
+    private static final String BACKUP_FILE_NAME = "favorites.jsonl";
     private ActivityFavouriteMoviesBinding binding;
     private FavoriteAdapter adapter;
     private FavoriteMoviesViewModel favoriteMoviesViewModel;
-
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument(BACKUP_MIME_TYPE), this::exportFavorites);
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importFavorites);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -39,9 +63,22 @@ public class FavoriteMoviesActivity extends AppCompatActivity implements OnMovie
         favoriteMoviesViewModel = new ViewModelProvider(this).get(FavoriteMoviesViewModel.class);
 
         // Initialize adapter and RecyclerView
-        adapter = new FavoriteAdapter(new ArrayList<>(), this);
-        binding.recyclerViewMovies.setLayoutManager(new LinearLayoutManager(this));
+        RequestManager glide = Glide.with(this);
+        adapter = new FavoriteAdapter(this, glide);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        binding.recyclerViewMovies.setLayoutManager(layoutManager);
         binding.recyclerViewMovies.setAdapter(adapter);
+        binding.recyclerViewMovies.addOnScrollListener(new RecyclerViewPreloader<>(
+                glide, adapter, adapter.getPreloadSizeProvider(), POSTER_PRELOAD_COUNT));
+
+        // Page in more favorites as the end of the list comes into view
+        binding.recyclerViewMovies.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - LOAD_MORE_THRESHOLD)
+                    favoriteMoviesViewModel.loadMore();
+            }
+        });
 
         // Observe ViewModel for favorite movies LiveData
         favoriteMoviesViewModel.getFavoriteMovies().observe(this, movies -> {
@@ -49,10 +86,60 @@ public class FavoriteMoviesActivity extends AppCompatActivity implements OnMovie
 
         });
 
+        // Export and import the favorites through documents picked by the user
+        binding.buttonExport.setOnClickListener(v -> exportLauncher.launch(BACKUP_FILE_NAME));
+        // Picked documents often carry a generic type, so any file can be chosen
+        binding.buttonImport.setOnClickListener(v -> importLauncher.launch(new String[]{"*/*"}));
+        favoriteMoviesViewModel.getBackupStatus().observe(this, this::showBackupStatus);
+
+    }
+
+    private void exportFavorites(Uri uri) {
+        if (uri == null)
+            return;
+        try {
+            OutputStream out = getContentResolver().openOutputStream(uri);
+            if (out != null)
+                favoriteMoviesViewModel.exportFavorites(out);
+        } catch (FileNotFoundException e) {
+            Toast.makeText(this, getString(R.string.backup_export_failed, 0), Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void importFavorites(Uri uri) {
+        if (uri == null)
+            return;
+        try {
+            InputStream in = getContentResolver().openInputStream(uri);
+            if (in != null)
+                favoriteMoviesViewModel.importFavorites(in);
+        } catch (FileNotFoundException e) {
+            Toast.makeText(this, getString(R.string.backup_import_failed, 0), Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void showBackupStatus(BackupStatus status) {
+        boolean export = status.getOperation() == BackupStatus.Operation.EXPORT;
+        int message;
+        switch (status.getState()) {
+            case RUNNING:
+                message = export ? R.string.backup_export_running : R.string.backup_import_running;
+                break;
+            case FINISHED:
+                message = export ? R.string.backup_export_finished : R.string.backup_import_finished;
+                break;
+            default:
+                message = export ? R.string.backup_export_failed : R.string.backup_import_failed;
+        }
+        binding.textViewBackupStatus.setText(getString(message, status.getRows()));
+        binding.textViewBackupStatus.setVisibility(View.VISIBLE);
+        // One backup at a time, the buttons come back once it is done
+        binding.buttonExport.setEnabled(!status.isRunning());
+        binding.buttonImport.setEnabled(!status.isRunning());
     }
 
     @Override
-    public void onMovieClick(Movie movie) {
+    public void onFavoriteMovieClick(FavoriteMovieItem movie) {
         // Handle movie click to open MovieDetailsActivity
         Intent intent = new Intent(FavoriteMoviesActivity.this, MovieDetailsActivity.class);
         intent.putExtra("imdbID", movie.getImdbID());
@@ -2,13 +2,21 @@ package com.hitachi.movieapp.presentation.favorite_movies;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
 
-import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.backup.FavoritesBackup;
+import com.hitachi.movieapp.data.backup.OnBackupProgressListener;
+import com.hitachi.movieapp.data.model.FavoriteMovieItem;
 import com.hitachi.movieapp.data.repository.MovieRepository;
-import com.hitachi.movieapp.data.repository.OnMovieDetailsFetchedListener;
+import com.hitachi.movieapp.di.BackupExecutor;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 
@@ -16,22 +24,120 @@ import dagger.hilt.android.lifecycle.HiltViewModel;
 
 @HiltViewModel
 public class FavoriteMoviesViewModel extends ViewModel {
-    private final MutableLiveData<List<Movie>> favoriteMovies;
+    /**
+     * Number of favorites loaded at first and added by each {@link #loadMore()}.
+     */
+    public static final int PAGE_SIZE = 50;
+
+    private final MutableLiveData<List<FavoriteMovieItem>> favoriteMovies;
+    private final MutableLiveData<BackupStatus> backupStatus;
     private final MovieRepository movieRepository;
+    private final FavoritesBackup favoritesBackup;
+    private final Executor backupExecutor;
+    private final Observer<List<FavoriteMovieItem>> pageObserver;
+    /**
+     * Room query for the favorites loaded so far, replaced when more are requested.
+     */
+    private LiveData<List<FavoriteMovieItem>> pageSource;
+    private int limit;
 
     @Inject
     public FavoriteMoviesViewModel(
-            MovieRepository movieRepository
+            MovieRepository movieRepository,
+            FavoritesBackup favoritesBackup,
+            @BackupExecutor Executor backupExecutor
     ) {
         this.movieRepository = movieRepository;
+        this.favoritesBackup = favoritesBackup;
+        this.backupExecutor = backupExecutor;
         this.favoriteMovies = new MutableLiveData<>();
-
+        this.backupStatus = new MutableLiveData<>();
+        this.pageObserver = favoriteMovies::setValue;
     }
 
-    public LiveData<List<Movie>> getFavoriteMovies() {
-        movieRepository.getFavoriteMovies().observeForever(favoriteMovies::setValue);
+    /**
+     * Exposes the favorites loaded so far, starting with the first page.
+     *
+     * @return LiveData for the favorite movies.
+     */
+    public LiveData<List<FavoriteMovieItem>> getFavoriteMovies() {
+        if (pageSource == null)
+            observeFirst(PAGE_SIZE);
         return favoriteMovies;
     }
 
+    /**
+     * Loads the next page of favorites, e.g. when the list is scrolled near its end.
+     * Does nothing while fewer favorites than requested were returned.
+     */
+    public void loadMore() {
+        List<FavoriteMovieItem> loaded = favoriteMovies.getValue();
+        if (pageSource == null || loaded == null || loaded.size() < limit)
+            return;
+        observeFirst(limit + PAGE_SIZE);
+    }
+
+    /**
+     * Exposes the progress and outcome of the latest export or import.
+     *
+     * @return LiveData for the backup status, empty until a backup is started.
+     */
+    public LiveData<BackupStatus> getBackupStatus() {
+        return backupStatus;
+    }
+
+    /**
+     * Writes every favorite to the stream in the background and closes it.
+     * The favorites list itself doesn't change.
+     *
+     * @param out The stream of the document picked to export to.
+     */
+    public void exportFavorites(OutputStream out) {
+        runBackup(BackupStatus.Operation.EXPORT, listener -> favoritesBackup.exportTo(out, listener));
+    }
+
+    /**
+     * Restores the favorites of a backup in the background and closes the stream.
+     * The favorites list updates as the batches are committed.
+     *
+     * @param in The stream of the document picked to import from.
+     */
+    public void importFavorites(InputStream in) {
+        runBackup(BackupStatus.Operation.IMPORT, listener -> favoritesBackup.importFrom(in, listener));
+    }
+
+    private void runBackup(BackupStatus.Operation operation, BackupTask task) {
+        backupStatus.setValue(BackupStatus.running(operation, 0));
+        backupExecutor.execute(() -> {
+            AtomicInteger progress = new AtomicInteger();
+            try {
+                int rows = task.run(done -> {
+                    progress.set(done);
+                    backupStatus.postValue(BackupStatus.running(operation, done));
+                });
+                backupStatus.postValue(BackupStatus.finished(operation, rows));
+            } catch (IOException e) {
+                backupStatus.postValue(BackupStatus.failed(operation, progress.get()));
+            }
+        });
+    }
+
+    private interface BackupTask {
+        int run(OnBackupProgressListener listener) throws IOException;
+    }
+
+    private void observeFirst(int limit) {
+        if (pageSource != null)
+            pageSource.removeObserver(pageObserver);
+        this.limit = limit;
+        pageSource = movieRepository.getFavoriteMoviesPage(limit);
+        pageSource.observeForever(pageObserver);
+    }
 
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (pageSource != null)
+            pageSource.removeObserver(pageObserver);
+    }
 }
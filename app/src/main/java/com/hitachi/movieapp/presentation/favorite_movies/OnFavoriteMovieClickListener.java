@@ -0,0 +1,7 @@
+package com.hitachi.movieapp.presentation.favorite_movies;
+
+import com.hitachi.movieapp.data.model.FavoriteMovieItem;
+
+public interface OnFavoriteMovieClickListener {
+    void onFavoriteMovieClick(FavoriteMovieItem movie);
+}
@@ -0,0 +1,30 @@
+package com.hitachi.movieapp.presentation.image;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.module.AppGlideModule;
+
+import java.io.InputStream;
+
+/**
+ * App-wide Glide configuration: posters are loaded through {@link PosterModelLoader}.
+ */
+@GlideModule
+public class MovieGlideModule extends AppGlideModule {
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.prepend(Poster.class, InputStream.class, new PosterModelLoader.Factory());
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        // No library declares a manifest module, skip the reflective lookup at startup
+        return false;
+    }
+}
@@ -0,0 +1,53 @@
+package com.hitachi.movieapp.presentation.image;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Glide model for an OMDb poster. Loading a {@code Poster} instead of its URL string lets
+ * {@link PosterModelLoader} request an image sized for the target view.
+ */
+public final class Poster {
+    @NonNull
+    private final String url;
+
+    private Poster(@NonNull String url) {
+        this.url = url;
+    }
+
+    /**
+     * Wraps a poster URL as returned by OMDb.
+     *
+     * @param url The poster URL, or "N/A" / null when the movie has none.
+     * @return The poster, or null so Glide shows the placeholder.
+     */
+    @Nullable
+    public static Poster of(@Nullable String url) {
+        if (url == null || url.isEmpty() || "N/A".equals(url))
+            return null;
+        return new Poster(url);
+    }
+
+    @NonNull
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return url.equals(((Poster) o).url);
+    }
+
+    @Override
+    public int hashCode() {
+        return url.hashCode();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return url;
+    }
+}
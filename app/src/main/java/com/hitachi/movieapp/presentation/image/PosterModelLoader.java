@@ -0,0 +1,53 @@
+package com.hitachi.movieapp.presentation.image;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelCache;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.load.model.stream.BaseGlideUrlLoader;
+
+import java.io.InputStream;
+
+/**
+ * Glide loader that downloads each {@link Poster} at the width of the view it is loaded into,
+ * instead of the full-size image OMDb links to.
+ */
+public class PosterModelLoader extends BaseGlideUrlLoader<Poster> {
+    // Sized URLs already built, keyed by poster and target size
+    private static final int MODEL_CACHE_SIZE = 500;
+
+    PosterModelLoader(ModelLoader<GlideUrl, InputStream> urlLoader, ModelCache<Poster, GlideUrl> modelCache) {
+        super(urlLoader, modelCache);
+    }
+
+    @Override
+    protected String getUrl(Poster poster, int width, int height, Options options) {
+        return PosterUrls.sized(poster.getUrl(), width);
+    }
+
+    @Override
+    public boolean handles(@NonNull Poster poster) {
+        return true;
+    }
+
+    /**
+     * Registered in {@link MovieGlideModule}.
+     */
+    public static class Factory implements ModelLoaderFactory<Poster, InputStream> {
+        private final ModelCache<Poster, GlideUrl> modelCache = new ModelCache<>(MODEL_CACHE_SIZE);
+
+        @NonNull
+        @Override
+        public ModelLoader<Poster, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new PosterModelLoader(multiFactory.build(GlideUrl.class, InputStream.class), modelCache);
+        }
+
+        @Override
+        public void teardown() {
+        }
+    }
+}
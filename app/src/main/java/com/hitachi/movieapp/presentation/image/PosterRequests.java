@@ -0,0 +1,57 @@
+package com.hitachi.movieapp.presentation.image;
+
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.RequestOptions;
+import com.hitachi.movieapp.R;
+
+/**
+ * The poster requests used across the app. List rows and their preloads must build identical
+ * requests, otherwise a preloaded poster isn't found in the cache when its row is bound.
+ */
+public final class PosterRequests {
+    /**
+     * List thumbnails: posters are opaque, so RGB_565 halves the bitmap memory of ARGB_8888.
+     * The download is already sized for the row, so it is the only thing worth keeping on disk.
+     */
+    private static final RequestOptions THUMBNAIL_OPTIONS = new RequestOptions()
+            .format(DecodeFormat.PREFER_RGB_565)
+            .diskCacheStrategy(DiskCacheStrategy.DATA)
+            .placeholder(R.drawable.place_holder)
+            .dontAnimate();
+
+    private static final RequestOptions DETAILS_OPTIONS = new RequestOptions()
+            .diskCacheStrategy(DiskCacheStrategy.AUTOMATIC)
+            .placeholder(R.drawable.place_holder);
+
+    private PosterRequests() {
+    }
+
+    /**
+     * Builds the request for a poster in a movie list.
+     *
+     * @param glide     The request manager of the screen.
+     * @param posterUrl The poster URL returned by OMDb.
+     * @return The request builder.
+     */
+    public static RequestBuilder<Drawable> thumbnail(RequestManager glide, @Nullable String posterUrl) {
+        return glide.load(Poster.of(posterUrl)).apply(THUMBNAIL_OPTIONS);
+    }
+
+    /**
+     * Builds the request for the large poster of the details screen.
+     *
+     * @param glide     The request manager of the screen.
+     * @param posterUrl The poster URL returned by OMDb.
+     * @return The request builder.
+     */
+    public static RequestBuilder<Drawable> details(RequestManager glide, @Nullable String posterUrl) {
+        return glide.load(Poster.of(posterUrl)).apply(DETAILS_OPTIONS);
+    }
+}
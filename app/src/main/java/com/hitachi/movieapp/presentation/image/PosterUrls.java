@@ -0,0 +1,48 @@
+package com.hitachi.movieapp.presentation.image;
+
+import androidx.annotation.NonNull;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites OMDb poster URLs to the size actually displayed.
+ * OMDb posters are served by Amazon's image service, which scales on the fly from the
+ * {@code ._V1_<ops>.jpg} suffix: {@code ..._V1_SX300.jpg} is 300px wide, {@code ..._V1_SX150.jpg} 150px.
+ */
+public final class PosterUrls {
+    /**
+     * Requested widths are rounded up to a multiple of this, so nearby view sizes share cache entries.
+     */
+    public static final int WIDTH_STEP = 100;
+    /**
+     * Widest poster ever requested.
+     */
+    public static final int MAX_WIDTH = 1200;
+    // Everything up to "._V1_", the resize operations, and the extension
+    private static final Pattern AMAZON_POSTER = Pattern.compile(
+            "^(https?://[^/]*(?:media-amazon|images-amazon)\\.com/.*\\._V1_)[^/]*?(\\.(?:jpe?g|png))$",
+            Pattern.CASE_INSENSITIVE);
+
+    private PosterUrls() {
+    }
+
+    /**
+     * Returns the URL of a poster scaled to the given width. URLs that aren't served by
+     * Amazon's image service, and unknown widths, are returned unchanged.
+     *
+     * @param url   The poster URL returned by OMDb.
+     * @param width The target width in pixels, or a non-positive value if unknown.
+     * @return The URL to download.
+     */
+    @NonNull
+    public static String sized(@NonNull String url, int width) {
+        if (width <= 0)
+            return url;
+        Matcher matcher = AMAZON_POSTER.matcher(url);
+        if (!matcher.matches())
+            return url;
+        int bucket = Math.min(MAX_WIDTH, ((width + WIDTH_STEP - 1) / WIDTH_STEP) * WIDTH_STEP);
+        return matcher.group(1) + "SX" + bucket + matcher.group(2);
+    }
+}
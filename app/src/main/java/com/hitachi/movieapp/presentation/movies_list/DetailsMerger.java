@@ -0,0 +1,35 @@
+package com.hitachi.movieapp.presentation.movies_list;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.response.Movie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges hydrated details into the rows of a search page.
+ * Rows that gain details are replaced by copies carrying them; rows without hydrated details
+ * are reused as they are.
+ */
+public final class DetailsMerger {
+
+    private DetailsMerger() {
+    }
+
+    /**
+     * @param movies  The movies in display order.
+     * @param details The hydrated details, keyed by IMDb ID.
+     * @return A new list with the details attached to the rows they belong to.
+     */
+    public static List<MovieListItem> merge(List<MovieListItem> movies, Map<String, Movie> details) {
+        List<MovieListItem> merged = new ArrayList<>(movies.size());
+        for (MovieListItem movie : movies) {
+            Movie movieDetails = movie.getImdbID() != null ? details.get(movie.getImdbID()) : null;
+            if (movieDetails != null && movie.getDetails() == null)
+                movie = movie.withDetails(movieDetails);
+            merged.add(movie);
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,56 @@
+package com.hitachi.movieapp.presentation.movies_list;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps running facet counts over the pages of a search as they are loaded.
+ * Movies are counted once by IMDb ID, so pages the pager drops and loads again, or rows
+ * OMDb repeats across pages, don't inflate the counts. Not thread-safe; use it from the main thread.
+ */
+public final class FacetCounter {
+    private final Set<String> countedImdbIDs = new HashSet<>();
+    private final TreeMap<String, Integer> typeCounts = new TreeMap<>();
+    private final TreeMap<Integer, Integer> decadeCounts = new TreeMap<>();
+
+    /**
+     * Counts the movies that weren't counted yet.
+     *
+     * @param movies The movies of the loaded window.
+     * @return Whether any count changed.
+     */
+    public boolean addAll(List<MovieListItem> movies) {
+        boolean changed = false;
+        for (MovieListItem movie : movies) {
+            if (movie.getImdbID() == null || !countedImdbIDs.add(movie.getImdbID()))
+                continue;
+            changed = true;
+            if (movie.getType() != null)
+                typeCounts.merge(movie.getType(), 1, Integer::sum);
+            int startYear = MovieSorter.parseStartYear(movie.getYear());
+            if (startYear != MovieSorter.UNKNOWN_YEAR)
+                decadeCounts.merge(startYear - startYear % 10, 1, Integer::sum);
+        }
+        return changed;
+    }
+
+    /**
+     * Forgets every count, e.g. when a new query or filter is searched.
+     */
+    public void clear() {
+        countedImdbIDs.clear();
+        typeCounts.clear();
+        decadeCounts.clear();
+    }
+
+    /**
+     * @return An immutable copy of the current counts.
+     */
+    public SearchFacets snapshot() {
+        return new SearchFacets(countedImdbIDs.size(), new TreeMap<>(typeCounts), new TreeMap<>(decadeCounts));
+    }
+}
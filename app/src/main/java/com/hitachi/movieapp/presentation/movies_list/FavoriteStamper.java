@@ -0,0 +1,36 @@
+package com.hitachi.movieapp.presentation.movies_list;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the current favorite flags to a list of movies.
+ * Rows are immutable, so rows whose flag changes are replaced by copies and the adapter's diff
+ * sees the change; unchanged rows are reused as they are.
+ */
+public final class FavoriteStamper {
+
+    /**
+     * Answers whether a movie is a favorite, e.g. from the in-memory favorites index.
+     */
+    public interface FavoriteLookup {
+        boolean isFavorite(String imdbID);
+    }
+
+    private FavoriteStamper() {
+    }
+
+    /**
+     * @param movies         The movies in display order.
+     * @param favoriteLookup The source of the favorite flags.
+     * @return A new list with the flags applied.
+     */
+    public static List<MovieListItem> stamp(List<MovieListItem> movies, FavoriteLookup favoriteLookup) {
+        List<MovieListItem> stamped = new ArrayList<>(movies.size());
+        for (MovieListItem movie : movies)
+            stamped.add(movie.withFavorite(favoriteLookup.isFavorite(movie.getImdbID())));
+        return stamped;
+    }
+}
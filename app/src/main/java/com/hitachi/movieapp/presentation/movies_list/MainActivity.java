@@ -16,18 +16,20 @@ import android.view.inputmethod.InputMethodManager;
 import android.widget.AdapterView;
 import android.widget.Toast;
 
-import com.hitachi.movieapp.data.local.MovieDao;
-import com.hitachi.movieapp.data.model.response.Movie;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.SearchFilter;
+import com.hitachi.movieapp.data.paging.MoviePager;
 import com.hitachi.movieapp.databinding.ActivityMainBinding;
 import com.hitachi.movieapp.presentation.adapter.MovieAdapter;
 import com.hitachi.movieapp.presentation.favorite_movies.FavoriteMoviesActivity;
 import com.hitachi.movieapp.presentation.movie_details.MovieDetailsActivity;
+import com.hitachi.movieapp.startup.StartupTracer;
 import com.hitachi.movieapp.utils.NetworkUtils;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.inject.Inject;
+import java.util.Map;
 
 import dagger.hilt.android.AndroidEntryPoint;
 
@@ -43,41 +45,52 @@ public class MainActivity extends AppCompatActivity implements
      */
     private MovieAdapter adapter;
     /**
-     * Indicates if data is currently being loaded.
+     * View binding of the activity layout.
      */
-    private boolean isLoading = false;
+    private ActivityMainBinding binding;
     /**
-     * The current page number for pagination.
+     * The current search query.
      */
-    private int currentPage = 1;
+    private String movieName = "batman";
     /**
-     * The total number of available pages.
+     * Number of rows around the viewport whose details are prefetched.
      */
-    private Integer totalPages = 0;
+    private static final int PREFETCH_ROW_COUNT = 6;
     /**
-     * Indicates if movies exist.
+     * Number of posters preloaded ahead of the scroll direction.
      */
-    private boolean isMoviesExist = false;
+    private static final int POSTER_PRELOAD_COUNT = 10;
     /**
-     * The current search query.
+     * Indicates if the first rendered results were reported to the startup tracer.
      */
-    private String movieName = "batman";
+    private boolean firstResultsReported = false;
 
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-        com.hitachi.movieapp.databinding.ActivityMainBinding binding = ActivityMainBinding.inflate(getLayoutInflater());
-        View view = binding.getRoot();
-        setContentView(view);
+        StartupTracer tracer = StartupTracer.getInstance();
+        try (StartupTracer.Section ignored = tracer.begin("MainActivity.inject")) {
+            super.onCreate(savedInstanceState);
+        }
+        try (StartupTracer.Section ignored = tracer.begin("MainActivity.inflate")) {
+            binding = ActivityMainBinding.inflate(getLayoutInflater());
+            View view = binding.getRoot();
+            setContentView(view);
+        }
 
-        // Initialize ViewModel
-        movieViewModel = new ViewModelProvider(this).get(MovieViewModel.class);
+        // Initialize ViewModel, this builds the repository and its dependencies on first launch
+        try (StartupTracer.Section ignored = tracer.begin("MainActivity.viewModel")) {
+            movieViewModel = new ViewModelProvider(this).get(MovieViewModel.class);
+        }
 
         // Set up the adapter and RecyclerView
-        adapter = new MovieAdapter(new ArrayList<>(), this, this);
+        RequestManager glide = Glide.with(this);
+        adapter = new MovieAdapter(this, this, glide);
         binding.recyclerViewMovies.setLayoutManager(new LinearLayoutManager(this));
         binding.recyclerViewMovies.setAdapter(adapter);
+        // Preload the posters of the rows about to scroll into view, in the direction of the scroll
+        binding.recyclerViewMovies.addOnScrollListener(new RecyclerViewPreloader<>(
+                glide, adapter, adapter.getPreloadSizeProvider(), POSTER_PRELOAD_COUNT));
 
         // Configure SwipeRefreshLayout for refreshing data
         binding.swipeRefreshLayout.setOnRefreshListener(() -> {
@@ -85,9 +98,7 @@ public class MainActivity extends AppCompatActivity implements
             binding.spinnerSort.setSelection(0);
             if (movieName.isEmpty())
                 movieName = "batman";
-            adapter.removeMovies();
-            currentPage = 1;
-            loadNextPage();
+            loadMovies(movieName);
         });
 
         // Set up search functionality
@@ -102,9 +113,26 @@ public class MainActivity extends AppCompatActivity implements
         binding.spinnerSort.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                String selectedSortOption = parent.getItemAtPosition(position).toString();
-                if (isMoviesExist && !selectedSortOption.equals("Select sort"))
-                    movieViewModel.sortMovies(selectedSortOption);
+                // The ViewModel keeps the order for every later page, "Select sort" restores the loaded order
+                movieViewModel.sortMovies(SortOption.fromLabel(parent.getItemAtPosition(position).toString()));
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+
+        // Set up the type filter, OMDb narrows the results so fewer pages are requested
+        binding.spinnerType.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                TypeFilterOption option = TypeFilterOption.fromLabel(parent.getItemAtPosition(position).toString());
+                SearchFilter filter = new SearchFilter(option.getType(), movieViewModel.getSearchFilter().getYear());
+                // Restored selections after a rotation fire too, only a new filter searches again
+                if (filter.equals(movieViewModel.getSearchFilter()))
+                    return;
+                binding.spinnerSort.setSelection(0);
+                movieViewModel.setSearchFilter(filter);
             }
 
             @Override
@@ -130,74 +158,65 @@ public class MainActivity extends AppCompatActivity implements
             @Override
             public boolean onQueryTextChange(String newText) {
                 movieName = newText;
+                // Search as the user types, the ViewModel waits for typing to pause
+                movieViewModel.onQueryTextChanged(newText, NetworkUtils.isInternetAvailable(MainActivity.this));
                 return false;
             }
         });
 
-        // Observe LiveData from ViewModel responsible for sorting movies
-        movieViewModel.getSortedMovies().observe(this, movies -> {
-            adapter.removeMovies();
-            adapter.updateMovies(movies);
+        // Observe the paged window of movies in the selected order, pages are appended and dropped by the pager
+        movieViewModel.getPagedMovies().observe(this, movies -> {
+            adapter.submitMovies(movies, () -> {
+                prefetchVisibleDetails(binding.recyclerViewMovies);
+                if (!movies.isEmpty())
+                    onFirstResultsSubmitted();
+            });
         });
 
-        // Observe LiveData from ViewModel responsible for fetching movies
-        movieViewModel.getMoviesLiveData().observe(this, movieResponse -> {
-            List<Movie> movies = movieResponse.getMovies();
-            totalPages = Integer.parseInt(movieResponse.getTotalResults()) / 10;
-
-            if (movies != null) {
-                isMoviesExist = true;
-                adapter.removeLoadingFooter();
-                isLoading = false;
-
-                movieViewModel.getFavoriteMovies().observe(this, favMovies -> {
-                    for (int i = 0; i < movies.size(); i++)
-                        for (Movie favMovie : favMovies) {
-                            if (favMovie.getImdbID().equals(movies.get(i).getImdbID())) {
-                                movies.get(i).setFavorite(true);
-                                adapter.editMovie(i);
-                            }
-                        }
-
-                });
-                if (currentPage == 1) {
-                    adapter.updateMovies(movies);
-                } else {
-                    adapter.addMovies(movies);
-                }
-                // Stop the refreshing animation
-                binding.swipeRefreshLayout.setRefreshing(false);
-            } else {
+        movieViewModel.getLoadState().observe(this, loadState -> {
+            adapter.setLoadingFooterVisible(loadState == MoviePager.LoadState.APPEND);
+            if (loadState == MoviePager.LoadState.NOT_LOADING)
                 binding.swipeRefreshLayout.setRefreshing(false);
-                Toast.makeText(MainActivity.this, "Failed to load movies", Toast.LENGTH_SHORT).show();
-            }
+        });
+
+        movieViewModel.getFacets().observe(this, facets -> {
+            binding.textViewFacets.setVisibility(facets.getMovieCount() > 0 ? View.VISIBLE : View.GONE);
+            binding.textViewFacets.setText(formatFacets(facets));
         });
 
         movieViewModel.getError().observe(this, errorMsg -> {
-            adapter.removeLoadingFooter();
             binding.swipeRefreshLayout.setRefreshing(false);
             Toast.makeText(MainActivity.this, errorMsg, Toast.LENGTH_SHORT).show();
         });
 
-        // Set the scroll listener for pagination
+        // Report the visible range so the pager can prefetch pages before the end is reached
         binding.recyclerViewMovies.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                super.onScrollStateChanged(recyclerView, newState);
+                // A new gesture after a failed page load retries it
+                if (newState == RecyclerView.SCROLL_STATE_DRAGGING)
+                    movieViewModel.retryPaging();
+                // Prefetch only once scrolling settles so flings don't start throwaway requests
+                if (newState == RecyclerView.SCROLL_STATE_IDLE)
+                    prefetchVisibleDetails(recyclerView);
+            }
+
             @Override
             public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
                 super.onScrolled(recyclerView, dx, dy);
 
                 LinearLayoutManager linearLayoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
-
-                if (!isLoading && linearLayoutManager != null && linearLayoutManager.findLastCompletelyVisibleItemPosition() == adapter.getItemCount() - 1) {
-                    // Load more data when reaching the last item
-                    if (currentPage < totalPages) {
-                        currentPage++;
-                        loadNextPage();
-                    }
-                }
+                if (linearLayoutManager != null)
+                    movieViewModel.onVisibleRangeChanged(
+                            linearLayoutManager.findFirstVisibleItemPosition(),
+                            linearLayoutManager.findLastVisibleItemPosition());
             }
         });
 
-        loadNextPage();
+        // Only start the first search once, the ViewModel keeps the results across rotations
+        if (movieViewModel.getPagedMovies().getValue() == null)
+            loadMovies(movieName);
 
     }
     /**
@@ -208,41 +227,79 @@ public class MainActivity extends AppCompatActivity implements
     private void loadMovies(String searchText) {
         if (NetworkUtils.isInternetAvailable(this)) {
             movieName = searchText;
-            isLoading = true;
-            currentPage = 1;
-            adapter.removeMovies();
-            adapter.addLoadingFooter();
-            movieViewModel.loadNextPage(searchText, currentPage);
+            movieViewModel.search(searchText);
         } else {
-            adapter.removeLoadingFooter();
-            Toast.makeText(MainActivity.this, "No internet connection", Toast.LENGTH_SHORT).show();
+            // Fall back to the movies stored on the device
+            movieName = searchText;
+            movieViewModel.searchOffline(searchText);
+            binding.swipeRefreshLayout.setRefreshing(false);
+            Toast.makeText(MainActivity.this, "No internet connection, showing saved movies", Toast.LENGTH_SHORT).show();
         }
 
     }
+
     /**
-     * Loads the next page of movies.
+     * Formats the facet counts as a single line, e.g. "14 movie · 6 series | 1990s 10 · 2000s 10".
+     *
+     * @param facets The facet counts of the loaded movies.
+     * @return The summary shown above the list.
      */
-    private void loadNextPage() {
-        isLoading = true;
-        adapter.addLoadingFooter();
-        if (NetworkUtils.isInternetAvailable(this))
-            movieViewModel.loadNextPage(movieName, currentPage);
-        else {
-            adapter.removeLoadingFooter();
-            Toast.makeText(MainActivity.this, "No internet connection", Toast.LENGTH_SHORT).show();
+    private static String formatFacets(SearchFacets facets) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Integer> type : facets.getTypeCounts().entrySet()) {
+            if (text.length() > 0)
+                text.append(" \u00b7 ");
+            text.append(type.getValue()).append(' ').append(type.getKey());
+        }
+        String separator = text.length() > 0 ? " | " : "";
+        for (Map.Entry<Integer, Integer> decade : facets.getDecadeCounts().entrySet()) {
+            text.append(separator).append(decade.getKey()).append("s ").append(decade.getValue());
+            separator = " \u00b7 ";
         }
+        return text.toString();
+    }
 
+    /**
+     * Reports the startup metrics once the rows of the first results have been laid out and drawn.
+     */
+    private void onFirstResultsSubmitted() {
+        if (firstResultsReported)
+            return;
+        firstResultsReported = true;
+        // Runs after the traversal that lays out and draws the new rows
+        binding.recyclerViewMovies.post(() -> {
+            StartupTracer tracer = StartupTracer.getInstance();
+            if (tracer.onFirstResultsShown())
+                Log.i(StartupTracer.TAG, tracer.getReport());
+            reportFullyDrawn();
+        });
+    }
+
+    /**
+     * Prefetches details for the rows nearest the visible range of the list.
+     *
+     * @param recyclerView The movies RecyclerView.
+     */
+    private void prefetchVisibleDetails(RecyclerView recyclerView) {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager == null)
+            return;
+        int firstVisible = layoutManager.findFirstVisibleItemPosition();
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (firstVisible == RecyclerView.NO_POSITION)
+            return;
+        movieViewModel.prefetchDetails(adapter.getImdbIdsAround(firstVisible, lastVisible, PREFETCH_ROW_COUNT));
     }
 
     @Override
-    public void onMovieClick(Movie movie) {
+    public void onMovieClick(MovieListItem movie) {
         Intent intent = new Intent(MainActivity.this, MovieDetailsActivity.class);
         intent.putExtra("imdbID", movie.getImdbID());
         startActivity(intent);
     }
 
     @Override
-    public void onFavoriteClick(Movie movie) {
+    public void onFavoriteClick(MovieListItem movie) {
         if (movie.isFavorite())
             Toast.makeText(this, "movie removed from favorites", Toast.LENGTH_SHORT).show();
         else
@@ -250,4 +307,4 @@ public class MainActivity extends AppCompatActivity implements
 
         movieViewModel.updateFavoriteStatus(movie);
     }
-}
\ No newline at end of file
+}
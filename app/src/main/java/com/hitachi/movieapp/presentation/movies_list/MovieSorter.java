@@ -0,0 +1,121 @@
+package com.hitachi.movieapp.presentation.movies_list;
+
+import androidx.annotation.Nullable;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sorts movie lists on precomputed keys.
+ * Each movie's start year and title collation key are derived once per sort instead of on
+ * every comparison, so large result sets sort in O(n log n) cheap comparisons.
+ * Not thread-safe; use it from a single background executor.
+ */
+public class MovieSorter {
+    /**
+     * Sort key for movies whose year can't be parsed, keeps them after dated movies.
+     */
+    static final int UNKNOWN_YEAR = Integer.MAX_VALUE;
+
+    private final Collator collator;
+
+    /**
+     * Constructor for the MovieSorter.
+     *
+     * @param locale The locale whose collation rules order titles and types.
+     */
+    public MovieSorter(Locale locale) {
+        collator = Collator.getInstance(locale);
+        // Ignore case but keep accents significant
+        collator.setStrength(Collator.SECONDARY);
+    }
+
+    /**
+     * Returns a sorted copy of the movies. The sort is stable, so ties keep their loaded order.
+     *
+     * @param movies     The movies to sort.
+     * @param sortOption The sort option selected by the user.
+     * @return A new list with the movies in sorted order.
+     */
+    public List<MovieListItem> sort(List<MovieListItem> movies, SortOption sortOption) {
+        if (sortOption == SortOption.NONE)
+            return new ArrayList<>(movies);
+        List<SortKey> keys = new ArrayList<>(movies.size());
+        for (MovieListItem movie : movies)
+            keys.add(new SortKey(movie));
+        keys.sort(comparatorFor(sortOption));
+        List<MovieListItem> sorted = new ArrayList<>(keys.size());
+        for (SortKey key : keys)
+            sorted.add(key.movie);
+        return sorted;
+    }
+
+    private static Comparator<SortKey> comparatorFor(SortOption sortOption) {
+        Comparator<SortKey> byTitle = Comparator.comparing(key -> key.titleKey);
+        Comparator<SortKey> byYear = Comparator.comparingInt(key -> key.startYear);
+        switch (sortOption) {
+            case YEAR:
+                return byYear.thenComparing(byTitle);
+            case YEAR_DESCENDING:
+                // Unknown years still go last when sorting newest first
+                return Comparator.<SortKey>comparingInt(key -> key.startYear == UNKNOWN_YEAR ? 1 : 0)
+                        .thenComparing(byYear.reversed())
+                        .thenComparing(byTitle);
+            case TITLE:
+                return byTitle.thenComparing(byYear);
+            case TYPE:
+                return Comparator.<SortKey, CollationKey>comparing(key -> key.typeKey)
+                        .thenComparing(byTitle);
+            case FAVORITES_FIRST:
+                return Comparator.comparingInt(key -> key.movie.isFavorite() ? 0 : 1);
+            default:
+                return (first, second) -> 0;
+        }
+    }
+
+    /**
+     * Parses the start year of an OMDb year such as "2010", "2005–2010" or "2019–".
+     *
+     * @param year The year string, may be null.
+     * @return The first four-digit year, or {@link #UNKNOWN_YEAR} if there is none.
+     */
+    static int parseStartYear(@Nullable String year) {
+        if (year == null)
+            return UNKNOWN_YEAR;
+        int value = 0;
+        int digits = 0;
+        for (int i = 0; i < year.length() && digits < 4; i++) {
+            char c = year.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits++;
+            } else if (digits > 0) {
+                break;
+            }
+        }
+        return digits == 4 ? value : UNKNOWN_YEAR;
+    }
+
+    /**
+     * A movie decorated with the keys it is compared on.
+     */
+    private final class SortKey {
+        final MovieListItem movie;
+        final int startYear;
+        final CollationKey titleKey;
+        final CollationKey typeKey;
+
+        SortKey(MovieListItem movie) {
+            this.movie = movie;
+            startYear = parseStartYear(movie.getYear());
+            titleKey = collator.getCollationKey(movie.getTitle() != null ? movie.getTitle() : "");
+            typeKey = collator.getCollationKey(movie.getType() != null ? movie.getType() : "");
+        }
+    }
+}
@@ -2,17 +2,32 @@ package com.hitachi.movieapp.presentation.movies_list;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
 
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.SearchFilter;
 import com.hitachi.movieapp.data.model.response.Movie;
 import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.paging.MoviePager;
+import com.hitachi.movieapp.data.paging.PagingConfig;
 import com.hitachi.movieapp.data.repository.MovieRepository;
+import com.hitachi.movieapp.data.repository.OnMovieDetailsFetchedListener;
 import com.hitachi.movieapp.data.repository.OnMoviesFetchedListener;
+import com.hitachi.movieapp.data.scheduler.Cancellable;
+import com.hitachi.movieapp.data.scheduler.Delayer;
+import com.hitachi.movieapp.di.ComputationExecutor;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import javax.inject.Inject;
 
@@ -20,6 +35,15 @@ import dagger.hilt.android.lifecycle.HiltViewModel;
 
 @HiltViewModel
 public class MovieViewModel extends ViewModel {
+    /**
+     * How long typing has to pause before a live search starts.
+     */
+    public static final long SEARCH_DEBOUNCE_MILLIS = 350;
+    /**
+     * Shortest query searched while typing, OMDb answers shorter ones with "Too many results."
+     */
+    public static final int MIN_QUERY_LENGTH = 3;
+
     /**
      * Repository instance for accessing movie data.
      */
@@ -31,9 +55,19 @@ public class MovieViewModel extends ViewModel {
     private final MutableLiveData<MovieResponse> moviesLiveData;
 
     /**
-     * MutableLiveData for sorted movies based on user selection.
+     * MutableLiveData for the movies of the paged window, in display order.
+     */
+    private final MutableLiveData<List<MovieListItem>> pagedMoviesLiveData;
+
+    /**
+     * MutableLiveData for the load state of the pager.
+     */
+    private final MutableLiveData<MoviePager.LoadState> loadStateLiveData;
+
+    /**
+     * Paging engine for the current search query.
      */
-    private  MutableLiveData<List<Movie>> sortedMoviesLiveData;
+    private final MoviePager moviePager;
 
     /**
      * MutableLiveData for any errors encountered during data fetching.
@@ -41,33 +75,256 @@ public class MovieViewModel extends ViewModel {
     private final MutableLiveData<String> errorLiveData;
 
     /**
-     * LiveData from the MovieRepository containing favorite movies.
+     * MutableLiveData for the facet counts of the movies loaded for the current search.
+     */
+    private final MutableLiveData<SearchFacets> facetsLiveData;
+
+    /**
+     * Running facet counts of the current search, only used on the main thread.
+     */
+    private final FacetCounter facetCounter = new FacetCounter();
+
+    /**
+     * The type and year searches are narrowed to, sent to OMDb with every page request.
+     */
+    private SearchFilter searchFilter = SearchFilter.NONE;
+
+    /**
+     * Whether the current query searches only the movies stored on the device.
+     */
+    private boolean searchingOffline;
+
+    /**
+     * Executor used to stamp favorite flags and sort pages off the main thread.
+     */
+    private final Executor executor;
+
+    /**
+     * Sorts the paged movies on precomputed keys, only used on the executor.
+     */
+    private final MovieSorter movieSorter = new MovieSorter(Locale.getDefault());
+
+    /**
+     * Paging settings of the pager, also used to tell when the end of a sorted list comes near.
+     */
+    private final PagingConfig pagingConfig = PagingConfig.omdbDefault();
+
+    /**
+     * The order selected by the user, applied to every published window.
+     */
+    private SortOption sortOption = SortOption.NONE;
+
+    /**
+     * Every movie loaded for the current query keyed by IMDb ID (title and year for the rare row
+     * without one), in loaded order, including
+     * those the pager dropped from its window. A sort is applied to all of them, so rows don't
+     * vanish from a sorted list when the window moves. Only used on the main thread.
+     */
+    private final Map<String, MovieListItem> accumulatedMovies = new LinkedHashMap<>();
+
+    /**
+     * Single long-lived observer re-stamping the paged movies whenever the favorites change.
+     */
+    private final Observer<Set<String>> favoriteIdsObserver;
+
+    /**
+     * Delays live searches until typing pauses.
+     */
+    private final Delayer delayer;
+
+    /**
+     * The live search waiting for typing to pause, if any.
+     */
+    private Cancellable pendingSearch;
+
+    /**
+     * The query searched last, online or offline.
      */
-    private final LiveData<List<Movie>> favoriteMovies;
+    private String currentQuery;
+
+    /**
+     * Matches from the offline index, shown until the first network page of the query arrives.
+     */
+    private List<MovieListItem> localMovies = Collections.emptyList();
+
+    /**
+     * The local search still running, if any.
+     */
+    private Cancellable localSearch;
+
+    /**
+     * Whether the details of every loaded page are fetched and merged into its rows.
+     */
+    private boolean detailsHydrationEnabled;
+
+    /**
+     * Details hydrated for the current query, keyed by IMDb ID. Written on the main thread,
+     * read when a window is published.
+     */
+    private final Map<String, Movie> hydratedDetails = new ConcurrentHashMap<>();
+
+    /**
+     * IMDb IDs of the current query whose hydration was started.
+     */
+    private final Set<String> hydrationRequested = new HashSet<>();
+
+    /**
+     * Hydrations of the current query that may still deliver results.
+     */
+    private final List<Cancellable> hydrations = new ArrayList<>();
+
+    /**
+     * Incremented for every published window, so a stale stamping result is never posted
+     * over a newer one.
+     */
+    private volatile int publishGeneration;
 
     /**
      * Constructor for injecting the MovieRepository dependency.
      *
      * @param movieRepository The MovieRepository instance.
+     * @param executor        The executor used for CPU work on the lists.
+     * @param delayer         The delayer used to debounce live searches.
      */
     @Inject
     public MovieViewModel(
-            MovieRepository movieRepository
+            MovieRepository movieRepository,
+            @ComputationExecutor Executor executor,
+            Delayer delayer
     ) {
         this.movieRepository = movieRepository;
+        this.executor = executor;
+        this.delayer = delayer;
         moviesLiveData = new MutableLiveData<>();
-        sortedMoviesLiveData = new MutableLiveData<>();
+        pagedMoviesLiveData = new MutableLiveData<>();
+        loadStateLiveData = new MutableLiveData<>(MoviePager.LoadState.NOT_LOADING);
         errorLiveData = new MutableLiveData<>();
-        this.favoriteMovies = movieRepository.getFavoriteMovies();
+        facetsLiveData = new MutableLiveData<>(SearchFacets.EMPTY);
+        moviePager = new MoviePager(pagingConfig, movieRepository::getMovies, new MoviePager.Callback() {
+            @Override
+            public void onMoviesChanged(List<MovieListItem> movies) {
+                // Local matches stay on screen until the first network page replaces them
+                if (!movies.isEmpty()) {
+                    cancelLocalSearch();
+                    localMovies = Collections.emptyList();
+                    updateFacets(movies);
+                    for (MovieListItem movie : movies) {
+                        String key = movie.getImdbID() != null
+                                ? movie.getImdbID() : movie.getTitle() + '\n' + movie.getYear();
+                        accumulatedMovies.put(key, movie);
+                    }
+                } else {
+                    accumulatedMovies.clear();
+                }
+                publishPagedMovies(getLoadedMovies());
+                if (detailsHydrationEnabled)
+                    hydrateDetails(movies);
+            }
 
+            @Override
+            public void onLoadStateChanged(MoviePager.LoadState loadState) {
+                loadStateLiveData.setValue(loadState);
+            }
+
+            @Override
+            public void onError(String error) {
+                errorLiveData.setValue(error);
+            }
+        });
+        favoriteIdsObserver = favoriteIds -> {
+            if (pagedMoviesLiveData.getValue() != null)
+                publishPagedMovies(getLoadedMovies());
+        };
+        movieRepository.getFavoriteIds().observeForever(favoriteIdsObserver);
+    }
+
+    /**
+     * @return The movies to publish in loaded order: the offline matches while the pager is empty,
+     * every movie loaded for the query while a sort is selected, and the pager's window otherwise.
+     */
+    private List<MovieListItem> getLoadedMovies() {
+        if (moviePager.isEmpty())
+            return localMovies;
+        if (sortOption != SortOption.NONE)
+            return new ArrayList<>(accumulatedMovies.values());
+        return moviePager.getMovies();
+    }
+
+    /**
+     * Stamps the favorite flag on the movies off the main thread, applies the selected sort
+     * and publishes the result. Each lookup is a set membership check; movies whose flag
+     * changes are copied so the adapter's diff sees the change. Sorting after stamping keeps
+     * "favorites first" right when a favorite is toggled.
+     *
+     * @param movies The movies of the paged window, in loaded order.
+     */
+    private void publishPagedMovies(List<MovieListItem> movies) {
+        int generation = ++publishGeneration;
+        SortOption order = sortOption;
+        executor.execute(() -> {
+            if (generation != publishGeneration)
+                return;
+            List<MovieListItem> merged = hydratedDetails.isEmpty() ? movies : DetailsMerger.merge(movies, hydratedDetails);
+            List<MovieListItem> stamped = FavoriteStamper.stamp(merged, movieRepository::isFavorite);
+            List<MovieListItem> sorted = movieSorter.sort(stamped, order);
+            if (generation == publishGeneration)
+                pagedMoviesLiveData.postValue(sorted);
+        });
+    }
+
+    /**
+     * Turns hydration of search pages on or off. While on, the details of every loaded page are
+     * fetched a page at a time and merged into the rows as they arrive, so each arrival
+     * publishes an updated window. Turning it off cancels the running hydrations.
+     *
+     * @param enabled Whether rows should be enriched with their genre, director and actors.
+     */
+    public void setDetailsHydrationEnabled(boolean enabled) {
+        if (detailsHydrationEnabled == enabled)
+            return;
+        detailsHydrationEnabled = enabled;
+        if (enabled)
+            hydrateDetails(moviePager.getMovies());
+        else
+            cancelHydrations();
     }
+
     /**
-     * Exposes LiveData containing favorite movies.
+     * Starts hydrating the movies of the window that weren't requested yet.
      *
-     * @return LiveData for favorite movies.
+     * @param movies The movies of the paged window.
      */
-    public LiveData<List<Movie>> getFavoriteMovies() {
-        return favoriteMovies;
+    private void hydrateDetails(List<MovieListItem> movies) {
+        List<String> imdbIDs = new ArrayList<>();
+        for (MovieListItem movie : movies) {
+            if (movie.getImdbID() != null && hydrationRequested.add(movie.getImdbID()))
+                imdbIDs.add(movie.getImdbID());
+        }
+        if (imdbIDs.isEmpty())
+            return;
+        hydrations.add(movieRepository.hydrateDetails(imdbIDs, PagingConfig.HYDRATION_PARALLELISM,
+                new OnMovieDetailsFetchedListener() {
+                    @Override
+                    public void onFetched(Movie movie) {
+                        if (movie.getImdbID() == null)
+                            return;
+                        hydratedDetails.put(movie.getImdbID(), movie);
+                        if (!moviePager.isEmpty())
+                            publishPagedMovies(getLoadedMovies());
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        // The row keeps showing what the search returned
+                    }
+                }));
+    }
+
+    private void cancelHydrations() {
+        for (Cancellable hydration : hydrations)
+            hydration.cancel();
+        hydrations.clear();
+        hydrationRequested.clear();
     }
 
     /**
@@ -80,12 +337,31 @@ public class MovieViewModel extends ViewModel {
     }
 
     /**
-     * Exposes MutableLiveData containing sorted movies based on user selection.
+     * Exposes LiveData containing the movies of the paged window, in the selected sort order.
+     *
+     * @return LiveData for paged movies.
+     */
+    public LiveData<List<MovieListItem>> getPagedMovies() {
+        return pagedMoviesLiveData;
+    }
+
+    /**
+     * Exposes LiveData containing the load state of the pager.
+     *
+     * @return LiveData for the load state.
+     */
+    public LiveData<MoviePager.LoadState> getLoadState() {
+        return loadStateLiveData;
+    }
+
+    /**
+     * Exposes LiveData containing the type and decade counts of the movies loaded so far for
+     * the current search, including pages the pager has since dropped.
      *
-     * @return LiveData for sorted movies.
+     * @return LiveData for the facet counts.
      */
-    public MutableLiveData<List<Movie>> getSortedMovies() {
-        return sortedMoviesLiveData;
+    public LiveData<SearchFacets> getFacets() {
+        return facetsLiveData;
     }
 
     /**
@@ -104,7 +380,7 @@ public class MovieViewModel extends ViewModel {
      * @param currentPage The current page number for pagination.
      */
     public void loadMovies(String query, int currentPage) {
-        movieRepository.getMovies(query, currentPage, new OnMoviesFetchedListener() {
+        movieRepository.getMovies(query, searchFilter, currentPage, new OnMoviesFetchedListener() {
             @Override
             public void onFetched(MovieResponse movieResponse) {
                 moviesLiveData.setValue(movieResponse);
@@ -118,25 +394,236 @@ public class MovieViewModel extends ViewModel {
     }
 
     /**
-     * Sorts the fetched movies based on the provided sort option.
+     * Sorts the movies of the paged window by the sort option with the given label.
      *
-     * @param sortOption The user-selected sort option (e.g., "Sort by Year", "Sort by Title").
+     * @param sortOption The label of the user-selected sort option (e.g., "Sort by Year", "Sort by Title").
      */
     public void sortMovies(String sortOption) {
-        List<Movie> sortedMovies = new ArrayList<>(moviesLiveData.getValue().getMovies());
-        if (sortOption.equals("Sort by Year")) {
-            sortedMovies.sort(Comparator.comparing(Movie::getYear));
-        } else if (sortOption.equals("Sort by Title")) {
-            sortedMovies.sort(Comparator.comparing(Movie::getTitle));
+        sortMovies(SortOption.fromLabel(sortOption));
+    }
+
+    /**
+     * Selects the order of the paged movies. The order is kept and applied on the background
+     * executor whenever the list is published again, e.g. when a page loads or a favorite
+     * changes. It covers every movie loaded for the query, not only the pager's window.
+     * {@link SortOption#NONE} restores the loaded order and the window.
+     *
+     * @param sortOption The user-selected sort option.
+     */
+    public void sortMovies(SortOption sortOption) {
+        if (this.sortOption == sortOption)
+            return;
+        this.sortOption = sortOption;
+        if (pagedMoviesLiveData.getValue() != null)
+            publishPagedMovies(getLoadedMovies());
+    }
+
+    public SortOption getSortOption() {
+        return sortOption;
+    }
+
+    /**
+     * Starts paging the results of a new search query right away, e.g. when it is submitted.
+     * Matching movies stored on the device are shown until the first page arrives.
+     * A live search still waiting for typing to pause is dropped.
+     *
+     * @param query The search query for movies.
+     */
+    public void search(String query) {
+        resetSearch(query);
+        searchingOffline = false;
+        moviePager.start(query, searchFilter);
+        showLocalResults(query);
+    }
+
+    /**
+     * Searches only the movies stored on the device, e.g. while there is no connection.
+     *
+     * @param query The search query for movies.
+     */
+    public void searchOffline(String query) {
+        resetSearch(query);
+        searchingOffline = true;
+        moviePager.clear();
+        showLocalResults(query);
+    }
+
+    /**
+     * Narrows searches to a type and year. OMDb applies the filter, so only matching pages are
+     * requested; the current query is searched again with it, online or offline as before.
+     *
+     * @param filter The type and year to keep, or {@link SearchFilter#NONE}.
+     */
+    public void setSearchFilter(SearchFilter filter) {
+        if (searchFilter.equals(filter))
+            return;
+        searchFilter = filter;
+        if (currentQuery == null)
+            return;
+        if (searchingOffline)
+            searchOffline(currentQuery);
+        else
+            search(currentQuery);
+    }
+
+    public SearchFilter getSearchFilter() {
+        return searchFilter;
+    }
+
+    /**
+     * Searches as the user types. The search starts once typing pauses for
+     * {@link #SEARCH_DEBOUNCE_MILLIS}, and only for queries of at least {@link #MIN_QUERY_LENGTH}
+     * characters that differ from the current one. Starting a search cancels the calls of the
+     * previous query, so its late results never replace the new ones.
+     *
+     * @param text   The current text of the search field.
+     * @param online Whether the network can be used, otherwise only stored movies are searched.
+     */
+    public void onQueryTextChanged(String text, boolean online) {
+        cancelPendingSearch();
+        String query = text == null ? "" : text.trim();
+        if (query.length() < MIN_QUERY_LENGTH || query.equalsIgnoreCase(currentQuery))
+            return;
+        pendingSearch = delayer.schedule(() -> {
+            pendingSearch = null;
+            if (online)
+                search(query);
+            else
+                searchOffline(query);
+        }, SEARCH_DEBOUNCE_MILLIS);
+    }
+
+    private void resetSearch(String query) {
+        currentQuery = query;
+        cancelPendingSearch();
+        cancelLocalSearch();
+        localMovies = Collections.emptyList();
+        movieRepository.cancelPrefetch();
+        cancelHydrations();
+        hydratedDetails.clear();
+        facetCounter.clear();
+        facetsLiveData.setValue(SearchFacets.EMPTY);
+    }
+
+    private void updateFacets(List<MovieListItem> movies) {
+        if (facetCounter.addAll(movies))
+            facetsLiveData.setValue(facetCounter.snapshot());
+    }
+
+    private void showLocalResults(String query) {
+        localSearch = movieRepository.searchLocal(query, new OnMoviesFetchedListener() {
+            @Override
+            public void onFetched(MovieResponse movieResponse) {
+                localSearch = null;
+                // The network was faster, its results win
+                if (!moviePager.isEmpty() || movieResponse.getMovies() == null)
+                    return;
+                localMovies = filterLocal(movieResponse.getMovies());
+                // Offline the stored matches are all there is to count
+                if (searchingOffline)
+                    updateFacets(localMovies);
+                publishPagedMovies(localMovies);
+            }
+
+            @Override
+            public void onError(String error) {
+                localSearch = null;
+            }
+        });
+    }
+
+    /**
+     * Applies the search filter to offline matches, which the index doesn't filter.
+     */
+    private List<MovieListItem> filterLocal(List<MovieListItem> movies) {
+        if (searchFilter.isEmpty())
+            return movies;
+        List<MovieListItem> filtered = new ArrayList<>();
+        for (MovieListItem movie : movies) {
+            if (searchFilter.matches(movie))
+                filtered.add(movie);
+        }
+        return filtered;
+    }
+
+    private void cancelLocalSearch() {
+        if (localSearch != null) {
+            localSearch.cancel();
+            localSearch = null;
+        }
+    }
+
+    private void cancelPendingSearch() {
+        if (pendingSearch != null) {
+            pendingSearch.cancel();
+            pendingSearch = null;
         }
-        sortedMoviesLiveData.setValue(sortedMovies);
     }
 
-    public void loadNextPage(String query, int currentPage) {
-        loadMovies(query, currentPage);
+    /**
+     * Reloads the current search query from its first page.
+     */
+    public void refresh() {
+        movieRepository.cancelPrefetch();
+        moviePager.refresh();
+    }
+
+    /**
+     * Notifies the pager of the visible range so the next page is requested before the end is reached.
+     * While a sort is selected every loaded movie is displayed, so the only page to ask for is the
+     * next one, once the end of the sorted list comes near.
+     *
+     * @param firstVisible The first visible position.
+     * @param lastVisible  The last visible position.
+     */
+    public void onVisibleRangeChanged(int firstVisible, int lastVisible) {
+        List<MovieListItem> displayed = pagedMoviesLiveData.getValue();
+        if (sortOption == SortOption.NONE || displayed == null || moviePager.isEmpty()) {
+            moviePager.loadAround(firstVisible, lastVisible);
+            return;
+        }
+        if (lastVisible < displayed.size() - 1 - pagingConfig.getPrefetchDistance())
+            return;
+        // Report the end of the window, so the pager appends and never reloads a dropped page
+        int windowEnd = moviePager.getMovies().size() - 1;
+        moviePager.loadAround(windowEnd, windowEnd);
+    }
+
+    /**
+     * Resumes paging after a failed page load.
+     */
+    public void retryPaging() {
+        moviePager.retry();
     }
 
-    public void updateFavoriteStatus(Movie movie) {
+    public void updateFavoriteStatus(MovieListItem movie) {
         movieRepository.updateFavoriteStatus(movie);
     }
+
+    /**
+     * Prefetches details for the movies nearest the viewport so opening them is instant.
+     *
+     * @param imdbIDs The IMDb IDs to prefetch, nearest first.
+     */
+    public void prefetchDetails(List<String> imdbIDs) {
+        movieRepository.prefetchMovieDetails(imdbIDs);
+    }
+
+    /**
+     * Cancels outstanding prefetch work, e.g. when the search query changes.
+     */
+    public void cancelPrefetch() {
+        movieRepository.cancelPrefetch();
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        movieRepository.getFavoriteIds().removeObserver(favoriteIdsObserver);
+        cancelPendingSearch();
+        cancelLocalSearch();
+        moviePager.cancelInFlightLoads();
+        movieRepository.cancelPrefetch();
+        cancelHydrations();
+    }
 }
@@ -1,7 +1,7 @@
 package com.hitachi.movieapp.presentation.movies_list;
 
-import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.model.MovieListItem;
 
 public interface OnFavoriteClickListener {
-        void onFavoriteClick(Movie movie);
+        void onFavoriteClick(MovieListItem movie);
     }
\ No newline at end of file
@@ -1,8 +1,7 @@
 package com.hitachi.movieapp.presentation.movies_list;
 
-import com.hitachi.movieapp.data.model.response.Movie;
-import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.model.MovieListItem;
 
 public interface OnMovieClickListener {
-        void onMovieClick(Movie movie);
+        void onMovieClick(MovieListItem movie);
     }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.hitachi.movieapp.presentation.movies_list;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Snapshot of the facet counts of a search: how many of the movies loaded so far are of each
+ * type and from each decade. Shown so users can see what a type or year filter would keep.
+ */
+public final class SearchFacets {
+    /**
+     * Facets of a search that hasn't loaded anything yet.
+     */
+    public static final SearchFacets EMPTY = new SearchFacets(0, new TreeMap<>(), new TreeMap<>());
+
+    private final int movieCount;
+    private final Map<String, Integer> typeCounts;
+    private final Map<Integer, Integer> decadeCounts;
+
+    SearchFacets(int movieCount, TreeMap<String, Integer> typeCounts, TreeMap<Integer, Integer> decadeCounts) {
+        this.movieCount = movieCount;
+        this.typeCounts = Collections.unmodifiableMap(typeCounts);
+        this.decadeCounts = Collections.unmodifiableMap(decadeCounts);
+    }
+
+    /**
+     * @return The number of distinct movies counted.
+     */
+    public int getMovieCount() {
+        return movieCount;
+    }
+
+    /**
+     * @return The number of movies per OMDb type ("movie", "series", ...), in type order.
+     */
+    public Map<String, Integer> getTypeCounts() {
+        return typeCounts;
+    }
+
+    /**
+     * @return The number of movies per decade, keyed by its first year (1990 for the 1990s),
+     * oldest first. Movies without a known year are left out.
+     */
+    public Map<Integer, Integer> getDecadeCounts() {
+        return decadeCounts;
+    }
+}
@@ -0,0 +1,37 @@
+package com.hitachi.movieapp.presentation.movies_list;
+
+/**
+ * Sort options offered for the movie list, in the order of the sort spinner.
+ */
+public enum SortOption {
+    NONE("Select sort"),
+    YEAR("Sort by Year"),
+    YEAR_DESCENDING("Sort by Year (newest first)"),
+    TITLE("Sort by Title"),
+    TYPE("Sort by Type"),
+    FAVORITES_FIRST("Favorites first");
+
+    private final String label;
+
+    SortOption(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Finds the sort option shown with the given label.
+     *
+     * @param label The label of the selected spinner item.
+     * @return The matching option, or {@link #NONE} if the label is unknown.
+     */
+    public static SortOption fromLabel(String label) {
+        for (SortOption option : values()) {
+            if (option.label.equals(label))
+                return option;
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,50 @@
+package com.hitachi.movieapp.presentation.movies_list;
+
+import androidx.annotation.Nullable;
+
+import com.hitachi.movieapp.data.model.SearchFilter;
+
+/**
+ * Type filters offered for the movie list, in the order of the type spinner.
+ */
+public enum TypeFilterOption {
+    ALL("All types", null),
+    MOVIES("Movies", SearchFilter.Type.MOVIE),
+    SERIES("Series", SearchFilter.Type.SERIES),
+    EPISODES("Episodes", SearchFilter.Type.EPISODE);
+
+    private final String label;
+    @Nullable
+    private final SearchFilter.Type type;
+
+    TypeFilterOption(String label, @Nullable SearchFilter.Type type) {
+        this.label = label;
+        this.type = type;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return The OMDb type kept by this option, or null for every type.
+     */
+    @Nullable
+    public SearchFilter.Type getType() {
+        return type;
+    }
+
+    /**
+     * Finds the type filter shown with the given label.
+     *
+     * @param label The label of the selected spinner item.
+     * @return The matching option, or {@link #ALL} if the label is unknown.
+     */
+    public static TypeFilterOption fromLabel(String label) {
+        for (TypeFilterOption option : values()) {
+            if (option.label.equals(label))
+                return option;
+        }
+        return ALL;
+    }
+}
@@ -0,0 +1,207 @@
+package com.hitachi.movieapp.startup;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the phases of a cold start as named trace sections and measures the time from process
+ * start to the first rendered search results.
+ * Sections show up in system traces and are kept in memory until the first results are shown;
+ * {@link #getReport()} then gives the breakdown.
+ * The tracer is process-wide rather than injected, because it also times building the Hilt graph.
+ */
+public class StartupTracer {
+    /**
+     * Log tag for the startup report.
+     */
+    public static final String TAG = "Startup";
+
+    /**
+     * Source of monotonic time in milliseconds.
+     */
+    public interface Clock {
+        long uptimeMillis();
+    }
+
+    /**
+     * Receives the sections for the platform trace.
+     */
+    public interface SystemTrace {
+        void beginSection(String name);
+
+        void endSection();
+    }
+
+    private static volatile StartupTracer instance;
+
+    private final Clock clock;
+    private final SystemTrace systemTrace;
+    private final long processStartMillis;
+    // Guarded by this, only filled until the first results are shown
+    private final List<Phase> phases = new ArrayList<>();
+    private long timeToFirstResultsMillis = -1;
+
+    /**
+     * Constructor for the StartupTracer.
+     *
+     * @param clock              The clock sections are timed with.
+     * @param systemTrace        The platform trace the sections are also written to.
+     * @param processStartMillis When the process started, on the clock's timeline.
+     */
+    public StartupTracer(Clock clock, SystemTrace systemTrace, long processStartMillis) {
+        this.clock = clock;
+        this.systemTrace = systemTrace;
+        this.processStartMillis = processStartMillis;
+    }
+
+    /**
+     * @return The tracer of this process, timed from the moment the process was forked.
+     */
+    public static StartupTracer getInstance() {
+        if (instance == null) {
+            synchronized (StartupTracer.class) {
+                if (instance == null) {
+                    instance = new StartupTracer(SystemClock::uptimeMillis, new SystemTrace() {
+                        @Override
+                        public void beginSection(String name) {
+                            Trace.beginSection(name);
+                        }
+
+                        @Override
+                        public void endSection() {
+                            Trace.endSection();
+                        }
+                    }, Process.getStartUptimeMillis());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts a section on the current thread. Close it on the same thread, e.g. with
+     * try-with-resources.
+     *
+     * @param name The name shown in traces, e.g. "NetworkModule.okHttpClient".
+     * @return The open section.
+     */
+    public Section begin(String name) {
+        systemTrace.beginSection(name);
+        return new Section(name, clock.uptimeMillis());
+    }
+
+    /**
+     * Records that the first search results were rendered. Only the first call counts, later
+     * sections are still traced but no longer kept.
+     *
+     * @return True if this was the first call.
+     */
+    public synchronized boolean onFirstResultsShown() {
+        if (timeToFirstResultsMillis >= 0)
+            return false;
+        timeToFirstResultsMillis = clock.uptimeMillis() - processStartMillis;
+        return true;
+    }
+
+    /**
+     * @return Milliseconds from process start to the first rendered results, or -1 if not shown yet.
+     */
+    public synchronized long getTimeToFirstResultsMillis() {
+        return timeToFirstResultsMillis;
+    }
+
+    /**
+     * @return The sections finished before the first results were shown, in the order they ended.
+     */
+    public synchronized List<Phase> getPhases() {
+        return Collections.unmodifiableList(new ArrayList<>(phases));
+    }
+
+    private synchronized void record(Phase phase) {
+        if (timeToFirstResultsMillis < 0)
+            phases.add(phase);
+    }
+
+    /**
+     * @return The time to first results followed by one line per recorded section.
+     */
+    public synchronized String getReport() {
+        StringBuilder report = new StringBuilder(timeToFirstResultsMillis < 0
+                ? "No results shown yet"
+                : "First results after " + timeToFirstResultsMillis + " ms");
+        for (Phase phase : phases)
+            report.append('\n').append("  ").append(phase);
+        return report.toString();
+    }
+
+    /**
+     * An open trace section, ends when closed.
+     */
+    public final class Section implements AutoCloseable {
+        private final String name;
+        private final long startMillis;
+        private boolean closed;
+
+        private Section(String name, long startMillis) {
+            this.name = name;
+            this.startMillis = startMillis;
+        }
+
+        @Override
+        public void close() {
+            if (closed)
+                return;
+            closed = true;
+            systemTrace.endSection();
+            long endMillis = clock.uptimeMillis();
+            record(new Phase(name, Thread.currentThread().getName(),
+                    startMillis - processStartMillis, endMillis - startMillis));
+        }
+    }
+
+    /**
+     * A finished section, timed relative to process start.
+     */
+    public static class Phase {
+        private final String name;
+        private final String threadName;
+        private final long startOffsetMillis;
+        private final long durationMillis;
+
+        Phase(String name, String threadName, long startOffsetMillis, long durationMillis) {
+            this.name = name;
+            this.threadName = threadName;
+            this.startOffsetMillis = startOffsetMillis;
+            this.durationMillis = durationMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public long getStartOffsetMillis() {
+            return startOffsetMillis;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name + " [" + threadName + "] +" + startOffsetMillis + " ms, " + durationMillis + " ms";
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.hitachi.movieapp.startup;
+
+import com.hitachi.movieapp.data.local.AppDatabase;
+import com.hitachi.movieapp.data.network.OmdbApi;
+import com.hitachi.movieapp.data.repository.FavoritesIndex;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import dagger.Lazy;
+
+/**
+ * Builds the expensive singletons on a background thread while the first activity inflates.
+ * Opening Room, loading the favorite IDs and creating OkHttp, Gson and the Retrofit proxy would
+ * otherwise happen on the main thread the first time a screen injects its ViewModel. Anything
+ * not warmed yet when it is needed is simply built by the caller.
+ */
+@Singleton
+public class StartupWarmer {
+    private final Lazy<AppDatabase> database;
+    private final Lazy<FavoritesIndex> favoritesIndex;
+    private final Lazy<OmdbApi> omdbApi;
+    private boolean started;
+
+    @Inject
+    public StartupWarmer(Lazy<AppDatabase> database, Lazy<FavoritesIndex> favoritesIndex, Lazy<OmdbApi> omdbApi) {
+        this.database = database;
+        this.favoritesIndex = favoritesIndex;
+        this.omdbApi = omdbApi;
+    }
+
+    /**
+     * Starts warming up on a new thread. Later calls do nothing.
+     */
+    public synchronized void start() {
+        if (started)
+            return;
+        started = true;
+        Thread thread = new Thread(this::warm, "startup-warmer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warm() {
+        StartupTracer tracer = StartupTracer.getInstance();
+        // The first search needs the network stack, the cache lookups need the database
+        try (StartupTracer.Section ignored = tracer.begin("StartupWarmer.network")) {
+            omdbApi.get();
+        }
+        try (StartupTracer.Section ignored = tracer.begin("StartupWarmer.database")) {
+            // Creating or migrating the schema happens on the first open
+            database.get().getOpenHelper().getWritableDatabase();
+        }
+        try (StartupTracer.Section ignored = tracer.begin("StartupWarmer.favorites")) {
+            favoritesIndex.get();
+        }
+    }
+}
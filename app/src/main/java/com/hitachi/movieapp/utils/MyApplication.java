@@ -1,15 +1,60 @@
 package com.hitachi.movieapp.utils;
 
 import android.app.Application;
+import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
+import com.hitachi.movieapp.BuildConfig;
+import com.hitachi.movieapp.data.network.NetworkMetrics;
+import com.hitachi.movieapp.data.network.RateLimiter;
+import com.hitachi.movieapp.data.repository.FavoriteWriteBuffer;
+import com.hitachi.movieapp.startup.StartupTracer;
+import com.hitachi.movieapp.startup.StartupWarmer;
+
+import javax.inject.Inject;
+
+import dagger.Lazy;
 import dagger.hilt.android.HiltAndroidApp;
 
 @HiltAndroidApp
 public class MyApplication extends Application {
+    private static final String NETWORK_METRICS_TAG = "NetworkMetrics";
+
+    // Lazy so injecting the application doesn't build the database on the main thread
+    @Inject
+    Lazy<FavoriteWriteBuffer> favoriteWriteBuffer;
+
+    @Inject
+    Lazy<NetworkMetrics> networkMetrics;
+
+    @Inject
+    Lazy<RateLimiter> rateLimiter;
+
+    @Inject
+    StartupWarmer startupWarmer;
 
     @Override
     public void onCreate() {
-        super.onCreate();
+        try (StartupTracer.Section ignored = StartupTracer.getInstance().begin("MyApplication.onCreate")) {
+            super.onCreate();
+            // Build the database and network stack while the first activity inflates
+            startupWarmer.start();
+            // Write buffered favorite changes and today's OMDb usage before the process can be
+            // killed in the background, and dump the network telemetry in debug builds
+            ProcessLifecycleOwner.get().getLifecycle().addObserver(new DefaultLifecycleObserver() {
+                @Override
+                public void onStop(@NonNull LifecycleOwner owner) {
+                    favoriteWriteBuffer.get().flush();
+                    rateLimiter.get().flush();
+                    if (BuildConfig.DEBUG)
+                        Log.d(NETWORK_METRICS_TAG, networkMetrics.get().dump());
+                }
+            });
+        }
     }
 
 }
@@ -0,0 +1,89 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.data.network.CacheControlInterceptor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class CacheControlInterceptorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient.Builder()
+                .cache(new Cache(temporaryFolder.newFolder("http_cache"), 1024 * 1024))
+                .addNetworkInterceptor(new CacheControlInterceptor())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testRepeatedDetailsRequest_isServedFromDisk() throws IOException {
+        // Arrange: OMDb sends no caching headers of its own
+        server.enqueue(new MockResponse().setBody("{\"Title\":\"Batman Begins\",\"imdbID\":\"tt0372784\",\"Response\":\"True\"}"));
+
+        // Act
+        String first = get("/?i=tt0372784&apikey=key");
+        try (Response second = client.newCall(new Request.Builder().url(server.url("/?i=tt0372784&apikey=key")).build()).execute()) {
+            // Assert: only one request reached the network
+            assertEquals(first, second.body().string());
+            assertNotNull(second.cacheResponse());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testOmdbErrorBody_isNotCached() throws IOException {
+        // Arrange: errors come back as HTTP 200, here gzipped like a real server would
+        Buffer gzipped = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(gzipped))) {
+            sink.writeUtf8("{\"Response\":\"False\",\"Error\":\"Incorrect IMDb ID.\"}");
+        }
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(gzipped.clone()));
+        server.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(gzipped));
+
+        // Act
+        String first = get("/?i=tt0000000&apikey=key");
+        get("/?i=tt0000000&apikey=key");
+
+        // Assert
+        assertEquals("{\"Response\":\"False\",\"Error\":\"Incorrect IMDb ID.\"}", first);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    private String get(String path) throws IOException {
+        try (Response response = client.newCall(new Request.Builder().url(server.url(path)).build()).execute()) {
+            return response.body().string();
+        }
+    }
+}
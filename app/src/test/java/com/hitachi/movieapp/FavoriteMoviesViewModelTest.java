@@ -4,8 +4,11 @@ import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
-import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.backup.FavoritesBackup;
+import com.hitachi.movieapp.data.backup.OnBackupProgressListener;
+import com.hitachi.movieapp.data.model.FavoriteMovieItem;
 import com.hitachi.movieapp.data.repository.MovieRepository;
+import com.hitachi.movieapp.presentation.favorite_movies.BackupStatus;
 import com.hitachi.movieapp.presentation.favorite_movies.FavoriteMoviesViewModel;
 
 import org.junit.Before;
@@ -15,10 +18,18 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class FavoriteMoviesViewModelTest {
@@ -29,45 +40,86 @@ public class FavoriteMoviesViewModelTest {
     @Mock
     private MovieRepository movieRepository;
 
+    @Mock
+    private FavoritesBackup favoritesBackup;
+
     private FavoriteMoviesViewModel favoriteMoviesViewModel;
 
     @Before
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        favoriteMoviesViewModel = new FavoriteMoviesViewModel(movieRepository); // Initialize ViewModel with mocked repo
+        favoriteMoviesViewModel = new FavoriteMoviesViewModel(movieRepository, favoritesBackup,
+                Runnable::run); // Initialize ViewModel with mocked repo, backups run inline
     }
 
     @Test
     public void testGetFavoriteMovies() {
         // Arrange: Mock the favorite movies data
-        Movie mockMovie1 =new Movie();
-        mockMovie1.setTitle("Inception");
-        mockMovie1.setYear("2010");
-        mockMovie1.setPoster("https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
-        mockMovie1.setPlot("Plot of the movie");
-        mockMovie1.setGenre("Sci-Fi");
-        mockMovie1.setActors("Leonardo DiCaprio");
-        mockMovie1.setDirector("Christopher Nolan");
-
-        Movie mockMovie2 =new Movie();
-        mockMovie2.setTitle("Interstellar");
-        mockMovie2.setYear("2014");
-        mockMovie2.setPoster("https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
-        mockMovie2.setPlot("Plot 2");
-        mockMovie2.setGenre("Sci-Fi");
-        mockMovie2.setActors("Matthew McConaughey");
-        mockMovie2.setDirector("Christopher Nolan");
-        List<Movie> mockFavoriteMovies = Arrays.asList(mockMovie1, mockMovie2);
-
-        // Set up the mock repository to return a LiveData object with the favorite movies
-        MutableLiveData<List<Movie>> favoriteMoviesLiveData = new MutableLiveData<>();
+        FavoriteMovieItem mockMovie1 = new FavoriteMovieItem("tt1375666", "Inception", "2010",
+                "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
+        FavoriteMovieItem mockMovie2 = new FavoriteMovieItem("tt0816692", "Interstellar", "2014",
+                "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
+        List<FavoriteMovieItem> mockFavoriteMovies = Arrays.asList(mockMovie1, mockMovie2);
+
+        // Set up the mock repository to return a LiveData object with the first page of favorites
+        MutableLiveData<List<FavoriteMovieItem>> favoriteMoviesLiveData = new MutableLiveData<>();
         favoriteMoviesLiveData.setValue(mockFavoriteMovies);
-        when(movieRepository.getFavoriteMovies()).thenReturn(favoriteMoviesLiveData);
+        when(movieRepository.getFavoriteMoviesPage(FavoriteMoviesViewModel.PAGE_SIZE)).thenReturn(favoriteMoviesLiveData);
 
         // Act: Get the favorite movies from the ViewModel
-        LiveData<List<Movie>> favoriteMovies = favoriteMoviesViewModel.getFavoriteMovies();
+        LiveData<List<FavoriteMovieItem>> favoriteMovies = favoriteMoviesViewModel.getFavoriteMovies();
 
         // Assert: Check if the ViewModel's LiveData contains the expected favorite movies
         assertEquals(mockFavoriteMovies, favoriteMovies.getValue());
+
+        // A short list has nothing more to load
+        favoriteMoviesViewModel.loadMore();
+        verify(movieRepository, never()).getFavoriteMoviesPage(FavoriteMoviesViewModel.PAGE_SIZE * 2);
+    }
+
+    @Test
+    public void testLoadMore_growsThePageWhenItIsFull() {
+        // Arrange: the first page is full, so there may be more favorites
+        int pageSize = FavoriteMoviesViewModel.PAGE_SIZE;
+        MutableLiveData<List<FavoriteMovieItem>> firstPage = new MutableLiveData<>(createItems(pageSize));
+        MutableLiveData<List<FavoriteMovieItem>> secondPage = new MutableLiveData<>(createItems(pageSize + 7));
+        when(movieRepository.getFavoriteMoviesPage(pageSize)).thenReturn(firstPage);
+        when(movieRepository.getFavoriteMoviesPage(pageSize * 2)).thenReturn(secondPage);
+        LiveData<List<FavoriteMovieItem>> favoriteMovies = favoriteMoviesViewModel.getFavoriteMovies();
+
+        // Act
+        favoriteMoviesViewModel.loadMore();
+
+        // Assert: the ViewModel follows the larger query only
+        assertEquals(pageSize + 7, favoriteMovies.getValue().size());
+        firstPage.setValue(createItems(1));
+        assertEquals(pageSize + 7, favoriteMovies.getValue().size());
+    }
+
+    @Test
+    public void testImportFavorites_FailsPartWay_ReportsRowsRestored() throws IOException {
+        // Arrange: the backup is cut off after its first batch was committed
+        InputStream in = new ByteArrayInputStream(new byte[0]);
+        when(favoritesBackup.importFrom(eq(in), any())).thenAnswer(invocation -> {
+            OnBackupProgressListener listener = invocation.getArgument(1);
+            listener.onProgress(500);
+            throw new IOException("Truncated");
+        });
+
+        // Act
+        favoriteMoviesViewModel.importFavorites(in);
+
+        // Assert: the failure is reported with the favorites already restored
+        BackupStatus status = favoriteMoviesViewModel.getBackupStatus().getValue();
+        assertEquals(BackupStatus.Operation.IMPORT, status.getOperation());
+        assertEquals(BackupStatus.State.FAILED, status.getState());
+        assertEquals(500, status.getRows());
+    }
+
+    private List<FavoriteMovieItem> createItems(int count) {
+        List<FavoriteMovieItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            items.add(new FavoriteMovieItem("tt" + i, "Movie " + i, "2000", null));
+        return items;
     }
 }
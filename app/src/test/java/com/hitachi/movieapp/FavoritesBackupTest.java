@@ -0,0 +1,155 @@
+package com.hitachi.movieapp;
+
+import android.database.Cursor;
+
+import com.hitachi.movieapp.data.backup.FavoritesBackup;
+import com.hitachi.movieapp.data.local.MovieDao;
+import com.hitachi.movieapp.data.local.entity.FavoriteEntity;
+import com.hitachi.movieapp.data.local.entity.MovieEntity;
+import com.hitachi.movieapp.data.repository.FavoriteWriteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FavoritesBackupTest {
+    private static final int FAVORITES = 10_000;
+    private static final String[] COLUMNS = {"imdbID", "title", "year", "type", "poster", "favoritedAt"};
+
+    @Mock
+    private MovieDao movieDao;
+
+    @Mock
+    private FavoriteWriteBuffer favoriteWriteBuffer;
+
+    private FavoritesBackup favoritesBackup;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        favoritesBackup = new FavoritesBackup(movieDao, favoriteWriteBuffer);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportThenImport_RoundTripsEveryFavoriteInBatches() throws IOException {
+        // Arrange: a cursor over ten thousand favorites, the first without a poster
+        Cursor cursor = createCursor(FAVORITES);
+        when(movieDao.getFavoritesCursor()).thenReturn(cursor);
+        List<Integer> exportProgress = new ArrayList<>();
+        List<Integer> importProgress = new ArrayList<>();
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int exported = favoritesBackup.exportTo(out, exportProgress::add);
+        int imported = favoritesBackup.importFrom(new ByteArrayInputStream(out.toByteArray()), importProgress::add);
+
+        // Assert: one line per favorite after the header, the cursor is closed
+        assertEquals(FAVORITES, exported);
+        assertEquals(FAVORITES, imported);
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(FAVORITES + 1, lines.length);
+        verify(cursor).close();
+        verify(favoriteWriteBuffer, times(2)).flushNow();
+
+        // Every favorite comes back, written in transactions of 500
+        ArgumentCaptor<List<MovieEntity>> movies = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<FavoriteEntity>> favorites = ArgumentCaptor.forClass(List.class);
+        verify(movieDao, times(FAVORITES / 500)).importFavorites(movies.capture(), favorites.capture());
+        MovieEntity first = movies.getAllValues().get(0).get(0);
+        assertEquals("tt0", first.getImdbID());
+        assertEquals("Movie \"0\"", first.getTitle());
+        assertEquals("2000", first.getYear());
+        assertEquals("movie", first.getType());
+        assertNull(first.getPoster());
+        FavoriteEntity last = favorites.getAllValues().get(FAVORITES / 500 - 1).get(499);
+        assertEquals("tt" + (FAVORITES - 1), last.getImdbID());
+        assertEquals(1_000L + FAVORITES - 1, last.getFavoritedAt());
+
+        // Progress is reported per batch and ends with the total
+        assertEquals(FAVORITES / 500 + 1, exportProgress.size());
+        assertEquals(Integer.valueOf(500), importProgress.get(0));
+        assertEquals(Integer.valueOf(FAVORITES), importProgress.get(importProgress.size() - 1));
+    }
+
+    @Test
+    public void testImport_SkipsUnknownFieldsAndRowsWithoutId() throws IOException {
+        // Arrange: a newer writer added a field, and one row lost its ID
+        String backup = "{\"format\":\"movie-app-favorites\",\"version\":1}\n"
+                + "{\"id\":\"tt1375666\",\"title\":\"Inception\",\"rating\":9,\"at\":5}\n"
+                + "{\"title\":\"No ID\"}\n";
+
+        // Act
+        int imported = favoritesBackup.importFrom(
+                new ByteArrayInputStream(backup.getBytes(StandardCharsets.UTF_8)), null);
+
+        // Assert
+        assertEquals(1, imported);
+        verify(movieDao).importFavorites(anyList(), anyList());
+    }
+
+    @Test
+    public void testImport_RejectsFilesThatAreNoBackup() {
+        // Arrange: a JSON file of some other app
+        String other = "{\"Search\":[]}\n";
+
+        // Act
+        try {
+            favoritesBackup.importFrom(new ByteArrayInputStream(other.getBytes(StandardCharsets.UTF_8)), null);
+            fail("Expected the file to be refused");
+        } catch (IOException e) {
+            // Assert: nothing is written
+            assertTrue(e.getMessage().contains("favorites backup"));
+            verify(movieDao, never()).importFavorites(anyList(), anyList());
+        }
+    }
+
+    /**
+     * Cursor over generated favorites, read row by row like Room's.
+     */
+    private static Cursor createCursor(int rows) {
+        Cursor cursor = mock(Cursor.class);
+        int[] position = {-1};
+        for (int column = 0; column < COLUMNS.length; column++)
+            when(cursor.getColumnIndexOrThrow(COLUMNS[column])).thenReturn(column);
+        when(cursor.moveToNext()).thenAnswer(invocation -> ++position[0] < rows);
+        when(cursor.getString(anyInt())).thenAnswer(invocation -> {
+            int row = position[0];
+            switch ((int) invocation.getArgument(0)) {
+                case 0:
+                    return "tt" + row;
+                case 1:
+                    return "Movie \"" + row + "\"";
+                case 2:
+                    return String.valueOf(2000 + row % 20);
+                case 3:
+                    return "movie";
+                default:
+                    return row == 0 ? null : "https://m.media-amazon.com/images/M/" + row + ".jpg";
+            }
+        });
+        when(cursor.getLong(5)).thenAnswer(invocation -> 1_000L + position[0]);
+        return cursor;
+    }
+}
@@ -0,0 +1,120 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.data.scheduler.IoScheduler;
+import com.hitachi.movieapp.data.scheduler.TaskScheduler.Lane;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IoSchedulerTest {
+
+    private IoScheduler ioScheduler;
+    private CountDownLatch gate;
+    private final Semaphore finished = new Semaphore(0);
+    private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws InterruptedException {
+        ioScheduler = new IoScheduler(4, 2);
+        ioScheduler.setTaskListener((lane, waitNanos, runNanos) -> finished.release());
+        // Hold the worker so the following submissions queue up
+        gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        ioScheduler.execute(Lane.CACHE, () -> {
+            started.countDown();
+            await(gate);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUserLaneRunsBeforeQueuedBackgroundWork() throws InterruptedException {
+        // Arrange
+        ioScheduler.execute(Lane.PREFETCH, () -> ran.add("prefetch"));
+        ioScheduler.execute(Lane.CACHE, () -> ran.add("cache"));
+        ioScheduler.execute(Lane.USER, () -> ran.add("favorite"));
+
+        // Act
+        drain(3);
+
+        // Assert
+        assertEquals(Arrays.asList("favorite", "cache", "prefetch"), ran);
+    }
+
+    @Test
+    public void testCoalescedTasksRunOnlyTheLatest() throws InterruptedException {
+        // Arrange: a favorite toggled on, off and on again before the write ran
+        ioScheduler.executeCoalesced(Lane.USER, "favorite:tt0372784", () -> ran.add("insert"));
+        ioScheduler.executeCoalesced(Lane.USER, "favorite:tt0372784", () -> ran.add("delete"));
+        ioScheduler.executeCoalesced(Lane.USER, "favorite:tt0372784", () -> ran.add("insert again"));
+
+        // Act
+        drain(1);
+
+        // Assert
+        assertEquals(Collections.singletonList("insert again"), ran);
+        assertEquals(2, ioScheduler.getStats(Lane.USER).getCoalescedCount());
+    }
+
+    @Test
+    public void testFullBackgroundLaneDropsOldestTask() throws InterruptedException {
+        // Arrange: the prefetch lane holds two tasks
+        ioScheduler.execute(Lane.PREFETCH, () -> ran.add("first"));
+        ioScheduler.execute(Lane.PREFETCH, () -> ran.add("second"));
+        ioScheduler.execute(Lane.PREFETCH, () -> ran.add("third"));
+
+        // Act
+        drain(2);
+
+        // Assert
+        assertEquals(Arrays.asList("second", "third"), ran);
+        IoScheduler.LaneStats stats = ioScheduler.getStats(Lane.PREFETCH);
+        assertEquals(1, stats.getDroppedCount());
+        assertEquals(2, stats.getCompletedCount());
+        assertTrue(ioScheduler.getStats(Lane.CACHE).getMaxRunNanos() > 0);
+    }
+
+    @Test
+    public void testFullUserLaneShedsBackgroundWorkInsteadOfBlocking() throws InterruptedException {
+        // Arrange: background work is queued behind the held worker
+        ioScheduler.execute(Lane.CACHE, () -> ran.add("cache"));
+        ioScheduler.execute(Lane.PREFETCH, () -> ran.add("prefetch"));
+
+        // Act: more user tasks than the lane's capacity, submitted from this thread
+        for (int i = 0; i < 6; i++) {
+            int task = i;
+            ioScheduler.execute(Lane.USER, () -> ran.add("user" + task));
+        }
+
+        // Assert: every submission returned, user work all runs and background work was shed
+        drain(6);
+        assertEquals(Arrays.asList("user0", "user1", "user2", "user3", "user4", "user5"), ran);
+        assertEquals(1, ioScheduler.getStats(Lane.CACHE).getDroppedCount());
+        assertEquals(1, ioScheduler.getStats(Lane.PREFETCH).getDroppedCount());
+    }
+
+    private void drain(int queuedTasks) throws InterruptedException {
+        gate.countDown();
+        // The held task finishes first, then everything queued behind it
+        assertTrue(finished.tryAcquire(queuedTasks + 1, 5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.data.local.MovieSearchDao;
+import com.hitachi.movieapp.data.local.entity.MovieFtsEntity;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.MovieSearchMatch;
+import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.repository.LocalMovieIndex;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LocalMovieIndexTest {
+
+    @Mock
+    private MovieSearchDao movieSearchDao;
+
+    private LocalMovieIndex localMovieIndex;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        localMovieIndex = new LocalMovieIndex(movieSearchDao);
+    }
+
+    @Test
+    public void testToMatchQuery_prefixesEveryWordAndDropsOperators() {
+        assertEquals("dark* kni*", LocalMovieIndex.toMatchQuery("  Dark  Kni"));
+        assertEquals("spider* man* 2*", LocalMovieIndex.toMatchQuery("Spider-Man 2"));
+        assertEquals("amélie*", LocalMovieIndex.toMatchQuery("\"Amélie\""));
+        assertEquals("batman* or* superman*", LocalMovieIndex.toMatchQuery("batman OR superman"));
+        assertNull(LocalMovieIndex.toMatchQuery(" *-\" "));
+    }
+
+    @Test
+    public void testSearch_ranksTitleHitsAbovePlotHits() {
+        // Arrange: one phrase, four indexed columns (title, director, actors, plot)
+        MovieSearchMatch plotHit = match("tt0000001", "A Quiet Film", 0, 0, 0, 2);
+        MovieSearchMatch titleHit = match("tt0372784", "Batman Begins", 1, 0, 0, 0);
+        when(movieSearchDao.search(eq("batman*"), eq("title:batman*"), anyInt())).thenReturn(Arrays.asList(plotHit, titleHit));
+
+        // Act
+        List<MovieListItem> movies = localMovieIndex.search("Batman", 10);
+
+        // Assert
+        assertEquals(2, movies.size());
+        assertEquals("tt0372784", movies.get(0).getImdbID());
+        assertEquals("Batman Begins", movies.get(0).getTitle());
+        assertEquals("tt0000001", movies.get(1).getImdbID());
+    }
+
+    @Test
+    public void testSearch_emptyQuery_skipsTheDatabase() {
+        // Act
+        List<MovieListItem> movies = localMovieIndex.search("  ", 10);
+
+        // Assert
+        assertTrue(movies.isEmpty());
+        verify(movieSearchDao, never()).search(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    public void testAddDetails_indexesUnderTheImdbNumber() {
+        // Arrange
+        Movie movie = new Movie();
+        movie.setImdbID("tt0372784");
+        movie.setTitle("Batman Begins");
+        movie.setDirector("Christopher Nolan");
+        movie.setPlot("N/A");
+        ArgumentCaptor<List<MovieFtsEntity>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        localMovieIndex.addDetails(movie);
+
+        // Assert: the row replaces the one stored from a search page, "N/A" isn't searchable
+        verify(movieSearchDao).upsert(captor.capture());
+        MovieFtsEntity row = captor.getValue().get(0);
+        assertEquals(372784L, row.getRowId());
+        assertEquals("Christopher Nolan", row.getDirector());
+        assertNull(row.getPlot());
+    }
+
+    @Test
+    public void testAddDetails_sweepsOldMoviesAtMostOncePerInterval() {
+        // Arrange
+        Movie first = new Movie();
+        first.setImdbID("tt0372784");
+        first.setTitle("Batman Begins");
+        Movie second = new Movie();
+        second.setImdbID("tt0468569");
+        second.setTitle("The Dark Knight");
+
+        // Act
+        localMovieIndex.addDetails(first);
+        localMovieIndex.addDetails(second);
+
+        // Assert: both movies are indexed, the table is scanned once
+        verify(movieSearchDao, times(2)).upsert(anyList());
+        verify(movieSearchDao, times(1)).deleteOlderThan(anyLong());
+    }
+
+    @Test
+    public void testAddSearchResults_passesTheTimeSeenForMoviesAlreadyIndexed() {
+        // Arrange
+        List<MovieListItem> page = Arrays.asList(
+                new MovieListItem("tt0372784", "Batman Begins", "2005", "movie", "N/A"),
+                new MovieListItem(null, "No ID", "2005", "movie", "N/A"));
+        ArgumentCaptor<List<MovieFtsEntity>> captor = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Long> seenAt = ArgumentCaptor.forClass(Long.class);
+
+        // Act
+        localMovieIndex.addSearchResults(page);
+
+        // Assert: rows without an ID are skipped, the rest carry the same time as the refresh
+        verify(movieSearchDao).insertMissing(captor.capture(), seenAt.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(seenAt.getValue().longValue(), captor.getValue().get(0).getUpdatedAt());
+    }
+
+    /**
+     * Builds a match whose matchinfo('pcx') blob holds one phrase with the given hits per column,
+     * each column having 4 hits across all rows.
+     */
+    private static MovieSearchMatch match(String imdbID, String title, int... hitsPerColumn) {
+        ByteBuffer info = ByteBuffer.allocate((2 + hitsPerColumn.length * 3) * 4).order(ByteOrder.nativeOrder());
+        info.putInt(1).putInt(hitsPerColumn.length);
+        for (int hits : hitsPerColumn)
+            info.putInt(hits).putInt(4).putInt(hits > 0 ? 1 : 0);
+        return new MovieSearchMatch(imdbID, title, "2005", "movie", "N/A", info.array());
+    }
+}
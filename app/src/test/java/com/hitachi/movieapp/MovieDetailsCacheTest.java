@@ -0,0 +1,54 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.data.cache.MovieDetailsCache;
+import com.hitachi.movieapp.data.model.response.Movie;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MovieDetailsCacheTest {
+
+    private Movie createMovie(String imdbID, int plotLength) {
+        Movie movie = new Movie();
+        movie.setImdbID(imdbID);
+        movie.setTitle("Title " + imdbID);
+        StringBuilder plot = new StringBuilder();
+        for (int i = 0; i < plotLength; i++)
+            plot.append('x');
+        movie.setPlot(plot.toString());
+        return movie;
+    }
+
+    @Test
+    public void testGet_countsHitsAndMisses() {
+        MovieDetailsCache cache = new MovieDetailsCache();
+        cache.put("tt1", createMovie("tt1", 10));
+
+        assertNotNull(cache.get("tt1"));
+        assertNull(cache.get("tt2"));
+
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+    }
+
+    @Test
+    public void testPut_evictsLeastRecentlyUsedWhenOverBudget() {
+        // Budget fits two movies with a 1000 character plot but not three
+        MovieDetailsCache cache = new MovieDetailsCache(6000);
+        cache.put("tt1", createMovie("tt1", 1000));
+        cache.put("tt2", createMovie("tt2", 1000));
+        cache.get("tt1"); // tt2 becomes the least recently used entry
+        cache.put("tt3", createMovie("tt3", 1000));
+
+        assertTrue(cache.contains("tt1"));
+        assertFalse(cache.contains("tt2"));
+        assertTrue(cache.contains("tt3"));
+        assertEquals(1, cache.getStats().getEvictionCount());
+        assertTrue(cache.getStats().getSizeBytes() <= 6000);
+    }
+}
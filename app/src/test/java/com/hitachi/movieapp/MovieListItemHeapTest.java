@@ -0,0 +1,132 @@
+package com.hitachi.movieapp;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.annotations.SerializedName;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.network.MovieListItemTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieResponseTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieTypeAdapter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the heap retained by a long scroll session: the same search page decoded thousands
+ * of times, kept as full {@link Movie} rows the way the list used to hold them, then as
+ * compact {@link MovieListItem} rows.
+ */
+public class MovieListItemHeapTest {
+    // 20,000 rows, about 70 minutes of flinging through OMDb pages
+    private static final int PAGE_COUNT = 2000;
+
+    /**
+     * A search page decoded with full movie rows, as the app did before list items.
+     */
+    private static class FullMoviePage {
+        @SerializedName("Search")
+        List<Movie> movies;
+    }
+
+    private interface RowLoader {
+        List<?> load() throws IOException;
+    }
+
+    @Test
+    public void testListItems_retainMuchLessHeapThanFullMovies() throws IOException {
+        // Arrange
+        String page = readResource("omdb/search_batman_page1.json");
+        Gson fullMovieGson = new GsonBuilder()
+                .registerTypeAdapter(Movie.class, new MovieTypeAdapter())
+                .create();
+        Gson listItemGson = new GsonBuilder()
+                .registerTypeAdapter(MovieResponse.class, new MovieResponseTypeAdapter(new MovieListItemTypeAdapter()))
+                .create();
+
+        // Act
+        long fullMovieBytes = retainedBytes(() -> {
+            List<Movie> rows = new ArrayList<>(PAGE_COUNT * 10);
+            for (int i = 0; i < PAGE_COUNT; i++)
+                rows.addAll(fullMovieGson.fromJson(new StringReader(page), FullMoviePage.class).movies);
+            return rows;
+        });
+        long listItemBytes = retainedBytes(() -> {
+            List<MovieListItem> rows = new ArrayList<>(PAGE_COUNT * 10);
+            for (int i = 0; i < PAGE_COUNT; i++)
+                rows.addAll(listItemGson.fromJson(new StringReader(page), MovieResponse.class).getMovies());
+            return rows;
+        });
+
+        // Assert: dropping the detail columns and sharing years and types saves at least a fifth
+        assertTrue("list items retained " + listItemBytes + " bytes, full movies " + fullMovieBytes,
+                listItemBytes < fullMovieBytes * 0.8);
+    }
+
+    @Test
+    public void testRepeatedYearsAndTypes_areShared() throws IOException {
+        // Arrange
+        String page = readResource("omdb/search_batman_page1.json");
+        Gson listItemGson = new GsonBuilder()
+                .registerTypeAdapter(MovieResponse.class, new MovieResponseTypeAdapter(new MovieListItemTypeAdapter()))
+                .create();
+
+        // Act
+        MovieListItem first = listItemGson.fromJson(new StringReader(page), MovieResponse.class).getMovies().get(0);
+        MovieListItem again = listItemGson.fromJson(new StringReader(page), MovieResponse.class).getMovies().get(0);
+
+        // Assert: titles and IDs are per row, years and types are one instance each
+        assertEquals(first.getTitle(), again.getTitle());
+        assertSame(first.getYear(), again.getYear());
+        assertSame(first.getType(), again.getType());
+    }
+
+    /**
+     * Returns how much the heap grows while the loaded rows are reachable.
+     */
+    private static long retainedBytes(RowLoader loader) throws IOException {
+        long before = usedHeapAfterGc();
+        List<?> rows = loader.load();
+        long after = usedHeapAfterGc();
+        // Keeps the rows reachable until the second measurement
+        assertEquals(PAGE_COUNT * 10, rows.size());
+        return after - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Collect until the used heap stops shrinking, a single request isn't always honored
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used)
+                break;
+            used = now;
+        }
+        return used;
+    }
+
+    private String readResource(String name) throws IOException {
+        try (InputStream stream = getClass().getClassLoader().getResourceAsStream(name)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1)
+                bytes.write(buffer, 0, read);
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,16 +1,31 @@
 package com.hitachi.movieapp;
 
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
-import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
 
+import com.hitachi.movieapp.data.cache.MovieDetailsCache;
 import com.hitachi.movieapp.data.local.MovieDao;
+import com.hitachi.movieapp.data.local.MovieSearchDao;
+import com.hitachi.movieapp.data.local.SearchCacheDao;
+import com.hitachi.movieapp.data.local.entity.SearchPageEntity;
+import com.hitachi.movieapp.data.local.entity.SearchResultEntity;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.SearchFilter;
+import com.hitachi.movieapp.data.model.StoredMovieDetails;
 import com.hitachi.movieapp.data.model.response.Movie;
 import com.hitachi.movieapp.data.model.response.MovieResponse;
 import com.hitachi.movieapp.data.network.OmdbApi;
+import com.hitachi.movieapp.data.network.OmdbException;
+import com.hitachi.movieapp.data.network.RequestPriority;
+import com.hitachi.movieapp.data.repository.FavoriteWriteBuffer;
+import com.hitachi.movieapp.data.repository.FavoritesIndex;
+import com.hitachi.movieapp.data.repository.LocalMovieIndex;
+import com.hitachi.movieapp.data.repository.MovieDetailsStore;
 import com.hitachi.movieapp.data.repository.MovieRepository;
 import com.hitachi.movieapp.data.repository.OnMovieDetailsFetchedListener;
 import com.hitachi.movieapp.data.repository.OnMoviesFetchedListener;
+import com.hitachi.movieapp.data.repository.SearchPageCache;
+import com.hitachi.movieapp.data.scheduler.Cancellable;
+import com.hitachi.movieapp.data.scheduler.TaskScheduler;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -22,14 +37,20 @@ import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -44,6 +65,12 @@ public class MovieRepositoryTest {
     @Mock
     private MovieDao movieDao;
 
+    @Mock
+    private SearchCacheDao searchCacheDao;
+
+    @Mock
+    private MovieSearchDao movieSearchDao;
+
     @Mock
     private Call<MovieResponse> movieResponseCall;
 
@@ -53,12 +80,21 @@ public class MovieRepositoryTest {
     @InjectMocks
     private MovieRepository movieRepository;
 
+    private FavoritesIndex favoritesIndex;
+
     @Before
     public void setUp() {
         MockitoAnnotations.openMocks(this);
 
         Executor immediateExecutor = Runnable::run;  // Synchronous execution
-        movieRepository = new MovieRepository(movieDao, omdbApi, immediateExecutor);
+        TaskScheduler immediateScheduler = (lane, task) -> task.run();
+        // The flush timer never fires, tests flush explicitly
+        FavoriteWriteBuffer favoriteWriteBuffer = new FavoriteWriteBuffer(movieDao, immediateScheduler,
+                mock(ScheduledExecutorService.class), FavoriteWriteBuffer.FLUSH_WINDOW_MILLIS);
+        favoritesIndex = new FavoritesIndex(movieDao, favoriteWriteBuffer, immediateScheduler);
+        movieRepository = new MovieRepository(movieDao, new SearchPageCache(searchCacheDao),
+                new MovieDetailsCache(), new MovieDetailsStore(movieDao), favoritesIndex, favoriteWriteBuffer, new LocalMovieIndex(movieSearchDao),
+                () -> omdbApi, immediateScheduler, immediateExecutor);
     }
 
     @Test
@@ -66,7 +102,7 @@ public class MovieRepositoryTest {
         // Arrange
         MovieResponse movieResponse = new MovieResponse();
         movieResponse.setResponse("True");
-        when(omdbApi.getMovies(anyString(), anyString(), anyInt())).thenReturn(movieResponseCall);
+        when(omdbApi.getMovies(anyString(), anyString(), any(), any(), anyInt(), any())).thenReturn(movieResponseCall);
 
         doAnswer(invocation -> {
             Callback<MovieResponse> callback = invocation.getArgument(0);
@@ -83,10 +119,125 @@ public class MovieRepositoryTest {
         verify(listener).onFetched(movieResponse);
     }
 
+    @Test
+    public void testGetMovies_CachesSuccessfulPage() {
+        // Arrange
+        MovieResponse movieResponse = new MovieResponse();
+        movieResponse.setResponse("True");
+        movieResponse.setTotalResults("1");
+        movieResponse.setMovies(Collections.singletonList(new MovieListItem(null, null, null, null, null)));
+        when(omdbApi.getMovies(anyString(), anyString(), any(), any(), anyInt(), any())).thenReturn(movieResponseCall);
+
+        doAnswer(invocation -> {
+            Callback<MovieResponse> callback = invocation.getArgument(0);
+            callback.onResponse(movieResponseCall, Response.success(movieResponse));
+            return null;
+        }).when(movieResponseCall).enqueue(any());
+
+        // Act
+        movieRepository.getMovies(" Inception ", 1, mock(OnMoviesFetchedListener.class));
+
+        // Assert
+        verify(searchCacheDao).replacePage(argThat(page -> page.getQueryKey().equals("inception")), anyList());
+    }
+
+    @Test
+    public void testGetMovies_Filtered_SendsTypeAndYearAndCachesSeparately() {
+        // Arrange
+        MovieResponse movieResponse = new MovieResponse();
+        movieResponse.setResponse("True");
+        movieResponse.setTotalResults("1");
+        movieResponse.setMovies(Collections.singletonList(new MovieListItem("tt1375666", "Inception", "2010", "movie", "N/A")));
+        when(omdbApi.getMovies(anyString(), anyString(), any(), any(), anyInt(), any())).thenReturn(movieResponseCall);
+        doAnswer(invocation -> {
+            Callback<MovieResponse> callback = invocation.getArgument(0);
+            callback.onResponse(movieResponseCall, Response.success(movieResponse));
+            return null;
+        }).when(movieResponseCall).enqueue(any());
+
+        // Act
+        movieRepository.getMovies("Inception", new SearchFilter(SearchFilter.Type.MOVIE, 2010), 1,
+                mock(OnMoviesFetchedListener.class));
+
+        // Assert: OMDb filters the results and the page doesn't replace the unfiltered one
+        verify(omdbApi).getMovies(anyString(), eq("Inception"), eq("movie"), eq(2010), eq(1), any());
+        verify(searchCacheDao).getPage("inception|type=movie|y=2010", 1);
+        verify(searchCacheDao).replacePage(argThat(page -> page.getQueryKey().equals("inception|type=movie|y=2010")), anyList());
+    }
+
+    @Test
+    public void testGetMovies_FreshCacheHit_NoNetworkCall() {
+        // Arrange
+        when(searchCacheDao.getPage("inception", 1))
+                .thenReturn(new SearchPageEntity("inception", 1, "1", System.currentTimeMillis()));
+        when(searchCacheDao.getResults("inception", 1)).thenReturn(Collections.singletonList(
+                new SearchResultEntity("inception", 1, 0, "tt1375666", "Inception", "2010", "movie", "N/A")));
+
+        OnMoviesFetchedListener listener = mock(OnMoviesFetchedListener.class);
+        ArgumentCaptor<MovieResponse> captor = ArgumentCaptor.forClass(MovieResponse.class);
+
+        // Act
+        movieRepository.getMovies("Inception", 1, listener);
+
+        // Assert
+        verify(listener).onFetched(captor.capture());
+        assertEquals("tt1375666", captor.getValue().getMovies().get(0).getImdbID());
+        verify(omdbApi, never()).getMovies(anyString(), anyString(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    public void testGetMovies_StaleCacheHit_RevalidatesInBackground() {
+        // Arrange
+        long fetchedAt = System.currentTimeMillis() - SearchPageCache.TTL_MILLIS - 1;
+        when(searchCacheDao.getPage("inception", 1)).thenReturn(new SearchPageEntity("inception", 1, "0", fetchedAt));
+        when(searchCacheDao.getResults("inception", 1)).thenReturn(new ArrayList<>());
+
+        MovieResponse freshResponse = new MovieResponse();
+        freshResponse.setResponse("True");
+        freshResponse.setMovies(new ArrayList<>());
+        when(omdbApi.getMovies(anyString(), anyString(), any(), any(), anyInt(), any())).thenReturn(movieResponseCall);
+        doAnswer(invocation -> {
+            Callback<MovieResponse> callback = invocation.getArgument(0);
+            callback.onResponse(movieResponseCall, Response.success(freshResponse));
+            return null;
+        }).when(movieResponseCall).enqueue(any());
+
+        OnMoviesFetchedListener listener = mock(OnMoviesFetchedListener.class);
+
+        // Act
+        movieRepository.getMovies("Inception", 1, listener);
+
+        // Assert: the cached page is delivered once and the fresh page only refreshes the cache
+        verify(listener, times(1)).onFetched(any());
+        verify(listener, never()).onFetched(freshResponse);
+        verify(searchCacheDao).replacePage(any(), anyList());
+    }
+
+    @Test
+    public void testGetMovies_Cancelled_CancelsCallAndDropsResult() {
+        // Arrange: the response arrives after the caller moved on
+        MovieResponse movieResponse = new MovieResponse();
+        movieResponse.setResponse("True");
+        when(omdbApi.getMovies(anyString(), anyString(), any(), any(), anyInt(), any())).thenReturn(movieResponseCall);
+        ArgumentCaptor<Callback<MovieResponse>> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        OnMoviesFetchedListener listener = mock(OnMoviesFetchedListener.class);
+
+        // Act
+        Cancellable request = movieRepository.getMovies("Inception", 1, listener);
+        verify(movieResponseCall).enqueue(callbackCaptor.capture());
+        request.cancel();
+        callbackCaptor.getValue().onResponse(movieResponseCall, Response.success(movieResponse));
+
+        // Assert
+        verify(movieResponseCall).cancel();
+        verify(listener, never()).onFetched(any());
+        verify(listener, never()).onError(any());
+    }
+
     @Test
     public void testGetMovies_Failure_NoInternet() {
         // Arrange
-        when(omdbApi.getMovies(anyString(), anyString(), anyInt())).thenReturn(movieResponseCall);
+        when(omdbApi.getMovies(anyString(), anyString(), any(), any(), anyInt(), any())).thenReturn(movieResponseCall);
 
         doAnswer(invocation -> {
             Callback<MovieResponse> callback = invocation.getArgument(0);
@@ -103,6 +254,27 @@ public class MovieRepositoryTest {
         verify(listener).onError("No internet connection");
     }
 
+    @Test
+    public void testGetMovies_ServerError_ReportsError() {
+        // Arrange: a 5xx that outlasted the retries has no body to read
+        when(omdbApi.getMovies(anyString(), anyString(), any(), any(), anyInt(), any())).thenReturn(movieResponseCall);
+
+        doAnswer(invocation -> {
+            Callback<MovieResponse> callback = invocation.getArgument(0);
+            callback.onResponse(movieResponseCall, Response.error(503, ResponseBody.create("", null)));
+            return null;
+        }).when(movieResponseCall).enqueue(any());
+
+        OnMoviesFetchedListener listener = mock(OnMoviesFetchedListener.class);
+
+        // Act
+        movieRepository.getMovies("Inception", 1, listener);
+
+        // Assert
+        verify(listener).onError("Error fetching movies");
+        verify(listener, never()).onFetched(any());
+    }
+
     @Test
     public void testGetMovieDetails_Success() {
         // Arrange
@@ -114,7 +286,7 @@ public class MovieRepositoryTest {
         mockMovie.setGenre("Sci-Fi");
         mockMovie.setActors("Leonardo DiCaprio");
         mockMovie.setDirector("Christopher Nolan");
-        when(omdbApi.getMovieDetails(anyString(), anyString())).thenReturn(movieDetailsCall);
+        when(omdbApi.getMovieDetails(anyString(), anyString(), any())).thenReturn(movieDetailsCall);
 
         doAnswer(invocation -> {
             Callback<Movie> callback = invocation.getArgument(0);
@@ -131,10 +303,214 @@ public class MovieRepositoryTest {
         verify(listener).onFetched(mockMovie);
     }
 
+    @Test
+    public void testGetMovieDetails_SecondRequestServedFromCache() {
+        // Arrange
+        Movie mockMovie = new Movie();
+        mockMovie.setImdbID("tt1375666");
+        mockMovie.setTitle("Inception");
+        when(omdbApi.getMovieDetails(anyString(), anyString(), any())).thenReturn(movieDetailsCall);
+
+        doAnswer(invocation -> {
+            Callback<Movie> callback = invocation.getArgument(0);
+            callback.onResponse(movieDetailsCall, Response.success(mockMovie));
+            return null;
+        }).when(movieDetailsCall).enqueue(any());
+
+        OnMovieDetailsFetchedListener listener = mock(OnMovieDetailsFetchedListener.class);
+
+        // Act
+        movieRepository.getMovieDetails("tt1375666", listener);
+        movieRepository.getMovieDetails("tt1375666", listener);
+
+        // Assert
+        verify(listener, times(2)).onFetched(mockMovie);
+        verify(omdbApi, times(1)).getMovieDetails(anyString(), anyString(), any());
+        assertEquals(1, movieRepository.getDetailsCacheStats().getHitCount());
+        assertEquals(1, movieRepository.getDetailsCacheStats().getMissCount());
+    }
+
+    @Test
+    public void testGetMovieDetails_ConcurrentRequestsCoalesced() {
+        // Arrange: hold the callback so both requests are in flight together
+        Movie mockMovie = new Movie();
+        mockMovie.setImdbID("tt1375666");
+        when(omdbApi.getMovieDetails(anyString(), anyString(), any())).thenReturn(movieDetailsCall);
+        ArgumentCaptor<Callback<Movie>> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+
+        OnMovieDetailsFetchedListener first = mock(OnMovieDetailsFetchedListener.class);
+        OnMovieDetailsFetchedListener second = mock(OnMovieDetailsFetchedListener.class);
+
+        // Act
+        movieRepository.getMovieDetails("tt1375666", first);
+        movieRepository.getMovieDetails("tt1375666", second);
+        verify(movieDetailsCall).enqueue(callbackCaptor.capture());
+        callbackCaptor.getValue().onResponse(movieDetailsCall, Response.success(mockMovie));
+
+        // Assert
+        verify(omdbApi, times(1)).getMovieDetails(anyString(), anyString(), any());
+        verify(first).onFetched(mockMovie);
+        verify(second).onFetched(mockMovie);
+    }
+
+    @Test
+    public void testPrefetchMovieDetails_CapsConcurrencyAndCancelsStaleRows() {
+        // Arrange: calls never complete so every started prefetch stays in flight
+        when(omdbApi.getMovieDetails(anyString(), anyString(), any())).thenReturn(movieDetailsCall);
+
+        // Act
+        movieRepository.prefetchMovieDetails(Arrays.asList("tt1", "tt2", "tt3", "tt4"));
+        movieRepository.prefetchMovieDetails(Arrays.asList("tt5", "tt6"));
+
+        // Assert
+        verify(omdbApi).getMovieDetails(eq("tt1"), anyString(), eq(RequestPriority.SPECULATIVE));
+        verify(omdbApi).getMovieDetails(eq("tt2"), anyString(), eq(RequestPriority.SPECULATIVE));
+        verify(omdbApi, never()).getMovieDetails(eq("tt3"), anyString(), any());
+        verify(movieDetailsCall, times(2)).cancel();
+        verify(omdbApi).getMovieDetails(eq("tt5"), anyString(), eq(RequestPriority.SPECULATIVE));
+        verify(omdbApi).getMovieDetails(eq("tt6"), anyString(), eq(RequestPriority.SPECULATIVE));
+    }
+
+    @Test
+    public void testPrefetchMovieDetails_StoredDetails_LoadedFromDiskNotOmdb() {
+        // Arrange: fresh details of the first movie are on disk, the second one is unknown
+        when(movieDao.getDetails("tt1375666")).thenReturn(new StoredMovieDetails("tt1375666", "Inception",
+                "2010", "movie", null, "Sci-Fi", "Christopher Nolan", null, "Leonardo DiCaprio",
+                "Plot of the movie", System.currentTimeMillis()));
+        when(omdbApi.getMovieDetails(anyString(), anyString(), any())).thenReturn(movieDetailsCall);
+        OnMovieDetailsFetchedListener listener = mock(OnMovieDetailsFetchedListener.class);
+
+        // Act
+        movieRepository.prefetchMovieDetails(Arrays.asList("tt1375666", "tt0816692"));
+        movieRepository.getMovieDetails("tt1375666", listener);
+
+        // Assert: only the unknown movie costs a request, the stored one is now served from memory
+        verify(omdbApi, never()).getMovieDetails(eq("tt1375666"), anyString(), any());
+        verify(omdbApi).getMovieDetails(eq("tt0816692"), anyString(), eq(RequestPriority.SPECULATIVE));
+        verify(movieDao, times(1)).getDetails("tt1375666");
+        verify(listener).onFetched(any());
+    }
+
+    @Test
+    public void testHydrateDetails_CapsParallelismAndDropsResultsAfterCancel() {
+        // Arrange: each started call is answered when the test says so
+        List<Callback<Movie>> callbacks = new ArrayList<>();
+        when(omdbApi.getMovieDetails(anyString(), anyString(), any())).thenReturn(movieDetailsCall);
+        doAnswer(invocation -> {
+            callbacks.add(invocation.getArgument(0));
+            return null;
+        }).when(movieDetailsCall).enqueue(any());
+        OnMovieDetailsFetchedListener listener = mock(OnMovieDetailsFetchedListener.class);
+
+        // Act
+        Cancellable hydration = movieRepository.hydrateDetails(Arrays.asList("tt1", "tt2", "tt3", "tt4"), 2, listener);
+
+        // Assert: only two requests run, the next one starts when one of them finishes
+        assertEquals(2, callbacks.size());
+        Movie movie = new Movie();
+        movie.setImdbID("tt1");
+        callbacks.get(0).onResponse(movieDetailsCall, Response.success(movie));
+        verify(listener).onFetched(movie);
+        assertEquals(3, callbacks.size());
+        verify(omdbApi).getMovieDetails(eq("tt3"), anyString(), eq(RequestPriority.BACKGROUND));
+
+        // Act: cancelled, late results are dropped and the queued movie never starts
+        hydration.cancel();
+        Movie lateMovie = new Movie();
+        lateMovie.setImdbID("tt2");
+        callbacks.get(1).onResponse(movieDetailsCall, Response.success(lateMovie));
+
+        // Assert
+        verify(listener, never()).onFetched(lateMovie);
+        verify(omdbApi, never()).getMovieDetails(eq("tt4"), anyString(), any());
+    }
+
+    @Test
+    public void testHydrateDetails_UserJoiningAShedCall_GetsItSentAgain() {
+        // Arrange: the hydration's background call is shed after the user opened the movie
+        Movie mockMovie = new Movie();
+        mockMovie.setImdbID("tt1");
+        Call<Movie> userCall = mock(Call.class);
+        when(omdbApi.getMovieDetails(anyString(), anyString(), eq(RequestPriority.BACKGROUND))).thenReturn(movieDetailsCall);
+        when(omdbApi.getMovieDetails(anyString(), anyString(), eq(RequestPriority.USER))).thenReturn(userCall);
+        doAnswer(invocation -> {
+            Callback<Movie> callback = invocation.getArgument(0);
+            callback.onResponse(userCall, Response.success(mockMovie));
+            return null;
+        }).when(userCall).enqueue(any());
+        ArgumentCaptor<Callback<Movie>> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        OnMovieDetailsFetchedListener hydrationListener = mock(OnMovieDetailsFetchedListener.class);
+        OnMovieDetailsFetchedListener userListener = mock(OnMovieDetailsFetchedListener.class);
+
+        // Act
+        movieRepository.hydrateDetails(Collections.singletonList("tt1"), 1, hydrationListener);
+        movieRepository.getMovieDetails("tt1", userListener);
+        verify(movieDetailsCall).enqueue(callbackCaptor.capture());
+        callbackCaptor.getValue().onFailure(movieDetailsCall,
+                new OmdbException(OmdbException.Reason.RATE_LIMITED, "Too many requests"));
+
+        // Assert: one background call, then one for the user, and both callers get the movie
+        verify(omdbApi).getMovieDetails("tt1", BuildConfig.OMDB_API_KEY, RequestPriority.BACKGROUND);
+        verify(omdbApi).getMovieDetails("tt1", BuildConfig.OMDB_API_KEY, RequestPriority.USER);
+        verify(userListener).onFetched(mockMovie);
+        verify(hydrationListener).onFetched(mockMovie);
+    }
+
+    @Test
+    public void testGetMovieDetails_JoinsInFlightPrefetch() {
+        // Arrange
+        Movie mockMovie = new Movie();
+        mockMovie.setImdbID("tt1375666");
+        when(omdbApi.getMovieDetails(anyString(), anyString(), any())).thenReturn(movieDetailsCall);
+        ArgumentCaptor<Callback<Movie>> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        OnMovieDetailsFetchedListener listener = mock(OnMovieDetailsFetchedListener.class);
+
+        // Act: the user opens the movie while it is being prefetched, then scrolls away
+        movieRepository.prefetchMovieDetails(Collections.singletonList("tt1375666"));
+        movieRepository.getMovieDetails("tt1375666", listener);
+        movieRepository.cancelPrefetch();
+        verify(movieDetailsCall).enqueue(callbackCaptor.capture());
+        callbackCaptor.getValue().onResponse(movieDetailsCall, Response.success(mockMovie));
+
+        // Assert
+        verify(omdbApi, times(1)).getMovieDetails(anyString(), anyString(), any());
+        verify(movieDetailsCall, never()).cancel();
+        verify(listener).onFetched(mockMovie);
+    }
+
+    @Test
+    public void testGetMovieDetails_JoinedPrefetchShedByRateLimiter_IsSentAgainForTheUser() {
+        // Arrange: the speculative call is shed once the user has joined it
+        Movie mockMovie = new Movie();
+        mockMovie.setImdbID("tt1375666");
+        Call<Movie> userCall = mock(Call.class);
+        when(omdbApi.getMovieDetails(anyString(), anyString(), eq(RequestPriority.SPECULATIVE))).thenReturn(movieDetailsCall);
+        when(omdbApi.getMovieDetails(anyString(), anyString(), eq(RequestPriority.USER))).thenReturn(userCall);
+        doAnswer(invocation -> {
+            Callback<Movie> callback = invocation.getArgument(0);
+            callback.onResponse(userCall, Response.success(mockMovie));
+            return null;
+        }).when(userCall).enqueue(any());
+        ArgumentCaptor<Callback<Movie>> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        OnMovieDetailsFetchedListener listener = mock(OnMovieDetailsFetchedListener.class);
+
+        // Act
+        movieRepository.prefetchMovieDetails(Collections.singletonList("tt1375666"));
+        movieRepository.getMovieDetails("tt1375666", listener);
+        verify(movieDetailsCall).enqueue(callbackCaptor.capture());
+        callbackCaptor.getValue().onFailure(movieDetailsCall,
+                new OmdbException(OmdbException.Reason.RATE_LIMITED, "Too many requests"));
+
+        // Assert: the user gets the movie instead of the speculative call's error
+        verify(omdbApi).getMovieDetails("tt1375666", BuildConfig.OMDB_API_KEY, RequestPriority.USER);
+        verify(listener).onFetched(mockMovie);
+        verify(listener, never()).onError(anyString());
+    }
+
     @Test
     public void testGetMovieDetails_Failure() {
         // Arrange
-        when(omdbApi.getMovieDetails(anyString(), anyString())).thenReturn(movieDetailsCall);
+        when(omdbApi.getMovieDetails(anyString(), anyString(), any())).thenReturn(movieDetailsCall);
 
         doAnswer(invocation -> {
             Callback<Movie> callback = invocation.getArgument(0);
@@ -151,58 +527,131 @@ public class MovieRepositoryTest {
         verify(listener).onError("Error fetching movie details");
     }
 
+    @Test
+    public void testGetMovieDetails_StoredDetails_NoNetworkCall() {
+        // Arrange
+        when(movieDao.getDetails("tt1375666")).thenReturn(new StoredMovieDetails("tt1375666", "Inception",
+                "2010", "movie", null, "Sci-Fi", "Christopher Nolan", null, "Leonardo DiCaprio",
+                "Plot of the movie", System.currentTimeMillis()));
+        ArgumentCaptor<Movie> movieCaptor = ArgumentCaptor.forClass(Movie.class);
+        OnMovieDetailsFetchedListener listener = mock(OnMovieDetailsFetchedListener.class);
+
+        // Act
+        movieRepository.getMovieDetails("tt1375666", listener);
+        movieRepository.getMovieDetails("tt1375666", listener);
+
+        // Assert: the second lookup is served from memory
+        verify(listener, times(2)).onFetched(movieCaptor.capture());
+        assertEquals("Christopher Nolan", movieCaptor.getValue().getDirector());
+        verify(movieDao, times(1)).getDetails("tt1375666");
+        verify(omdbApi, never()).getMovieDetails(anyString(), anyString(), any());
+    }
+
+    @Test
+    public void testGetMovieDetails_StaleStoredDetails_RefreshedInBackground() {
+        // Arrange
+        long fetchedAt = System.currentTimeMillis() - MovieDetailsStore.TTL_MILLIS - 1000;
+        when(movieDao.getDetails("tt1375666")).thenReturn(new StoredMovieDetails("tt1375666", "Inception",
+                "2010", "movie", null, null, null, null, null, "Old plot", fetchedAt));
+        Movie freshMovie = new Movie();
+        freshMovie.setImdbID("tt1375666");
+        freshMovie.setTitle("Inception");
+        freshMovie.setPlot("New plot");
+        when(omdbApi.refreshMovieDetails(anyString(), anyString(), any())).thenReturn(movieDetailsCall);
+        doAnswer(invocation -> {
+            Callback<Movie> callback = invocation.getArgument(0);
+            callback.onResponse(movieDetailsCall, Response.success(freshMovie));
+            return null;
+        }).when(movieDetailsCall).enqueue(any());
+        ArgumentCaptor<Movie> movieCaptor = ArgumentCaptor.forClass(Movie.class);
+        OnMovieDetailsFetchedListener listener = mock(OnMovieDetailsFetchedListener.class);
+
+        // Act
+        movieRepository.getMovieDetails("tt1375666", listener);
+
+        // Assert: the stored copy is shown, the refresh only updates the caches
+        verify(listener, times(1)).onFetched(movieCaptor.capture());
+        assertEquals("Old plot", movieCaptor.getValue().getPlot());
+        verify(omdbApi).refreshMovieDetails("tt1375666", BuildConfig.OMDB_API_KEY, RequestPriority.BACKGROUND);
+        verify(omdbApi, never()).getMovieDetails(anyString(), anyString(), any());
+        verify(movieDao).insertDetails(any(), any());
+    }
+
     @Test
     public void testUpdateFavoriteStatus_MarkAsFavorite() {
         // Arrange
-        Movie mockMovie =new Movie();
-        mockMovie.setTitle("Inception");
-        mockMovie.setImdbID("tt1375666");
-        mockMovie.setYear("2010");
-        mockMovie.setPoster("https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
-        mockMovie.setPlot("Plot of the movie");
-        mockMovie.setGenre("Sci-Fi");
-        mockMovie.setActors("Leonardo DiCaprio");
-        mockMovie.setDirector("Christopher Nolan");
-        mockMovie.setFavorite(false);
+        MovieListItem mockMovie = new MovieListItem("tt1375666", "Inception", "2010", "movie",
+                "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg")
+                .withFavorite(false);
 
         // Act
         movieRepository.updateFavoriteStatus(mockMovie);
-
-        // Assert
-        verify(movieDao).insert(mockMovie);
+        movieRepository.flushFavoriteChanges();
+
+        // Assert: the stored row carries the favorite flag
+        ArgumentCaptor<List<MovieListItem>> insertsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(movieDao).applyFavoriteChanges(insertsCaptor.capture(), eq(Collections.emptyList()));
+        assertEquals(1, insertsCaptor.getValue().size());
+        assertEquals("tt1375666", insertsCaptor.getValue().get(0).getImdbID());
+        assertTrue(insertsCaptor.getValue().get(0).isFavorite());
+        assertTrue(movieRepository.isFavorite("tt1375666"));
     }
 
     @Test
     public void testUpdateFavoriteStatus_RemoveFromFavorites() {
         // Arrange
-        Movie mockMovie =new Movie();
-        mockMovie.setTitle("Inception");
-        mockMovie.setImdbID("tt1375666");
-        mockMovie.setYear("2010");
-        mockMovie.setPoster("https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
-        mockMovie.setPlot("Plot of the movie");
-        mockMovie.setGenre("Sci-Fi");
-        mockMovie.setActors("Leonardo DiCaprio");
-        mockMovie.setDirector("Christopher Nolan");
-        mockMovie.setFavorite(true);
+        MovieListItem mockMovie = new MovieListItem("tt1375666", "Inception", "2010", "movie",
+                "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg")
+                .withFavorite(true);
 
         // Act
         movieRepository.updateFavoriteStatus(mockMovie);
+        movieRepository.flushFavoriteChanges();
 
         // Assert
-        verify(movieDao).deleteById(mockMovie.getImdbID());
+        verify(movieDao).applyFavoriteChanges(Collections.emptyList(), Collections.singletonList(mockMovie.getImdbID()));
+        assertFalse(movieRepository.isFavorite("tt1375666"));
     }
 
     @Test
-    public void testGetFavoriteMovies() {
+    public void testUpdateFavoriteStatus_burstIsWrittenInOneTransaction() {
         // Arrange
-        MutableLiveData<List<Movie>> favoriteMoviesLiveData = new MutableLiveData<>(new ArrayList<>());
-        when(movieDao.getFavoriteMovies()).thenReturn(favoriteMoviesLiveData);
+        MovieListItem inception = new MovieListItem("tt1375666", "Inception", "2010", "movie", "N/A");
+        MovieListItem batman = new MovieListItem("tt0372784", "Batman Begins", "2005", "movie", "N/A")
+                .withFavorite(true);
+
+        // Act: Inception is toggled on, off and on again, Batman is removed
+        movieRepository.updateFavoriteStatus(inception);
+        movieRepository.updateFavoriteStatus(inception.withFavorite(true));
+        movieRepository.updateFavoriteStatus(inception);
+        movieRepository.updateFavoriteStatus(batman);
+
+        // Assert: nothing is written until the buffer flushes
+        verify(movieDao, never()).applyFavoriteChanges(anyList(), anyList());
+        movieRepository.flushFavoriteChanges();
+        ArgumentCaptor<List<MovieListItem>> insertsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(movieDao, times(1)).applyFavoriteChanges(insertsCaptor.capture(), eq(Collections.singletonList("tt0372784")));
+        assertEquals(1, insertsCaptor.getValue().size());
+        assertEquals("tt1375666", insertsCaptor.getValue().get(0).getImdbID());
+
+        // A second flush has nothing left to write
+        movieRepository.flushFavoriteChanges();
+        verify(movieDao, times(1)).applyFavoriteChanges(anyList(), anyList());
+    }
+
+    @Test
+    public void testFavoritesIndex_reconcilesWithDatabaseOnInvalidation() {
+        // Arrange: the favorites table was changed elsewhere, e.g. from the favorites screen
+        when(movieDao.getFavoriteIds()).thenReturn(Arrays.asList("tt0372784", "tt1375666"));
+        favoritesIndex.reload();
+        when(movieDao.getFavoriteIds()).thenReturn(Collections.singletonList("tt1375666"));
 
         // Act
-        LiveData<List<Movie>> favoriteMovies = movieRepository.getFavoriteMovies();
+        favoritesIndex.createInvalidationObserver().onInvalidated(Collections.singleton("movies"));
 
         // Assert
-        assertEquals(favoriteMoviesLiveData, favoriteMovies);
+        assertFalse(movieRepository.isFavorite("tt0372784"));
+        assertTrue(movieRepository.isFavorite("tt1375666"));
+        assertEquals(Collections.singleton("tt1375666"), movieRepository.getFavoriteIds().getValue());
     }
 }
@@ -0,0 +1,84 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.presentation.movies_list.MovieSorter;
+import com.hitachi.movieapp.presentation.movies_list.SortOption;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+public class MovieSorterTest {
+
+    private MovieSorter movieSorter;
+
+    @Before
+    public void setUp() {
+        movieSorter = new MovieSorter(Locale.US);
+    }
+
+    @Test
+    public void testSortByYear_usesStartYearOfRanges() {
+        // Arrange: a series running 2005–2010 started before a 2008 movie
+        List<MovieListItem> movies = Arrays.asList(
+                createMovie("The Dark Knight", "2008", "movie"),
+                createMovie("Batman Unknown", "N/A", "movie"),
+                createMovie("The Batman", "2004–2008", "series"));
+
+        // Act
+        List<MovieListItem> sorted = movieSorter.sort(movies, SortOption.YEAR);
+        List<MovieListItem> newestFirst = movieSorter.sort(movies, SortOption.YEAR_DESCENDING);
+
+        // Assert: movies without a year go last in both directions
+        assertEquals(Arrays.asList("The Batman", "The Dark Knight", "Batman Unknown"), titlesOf(sorted));
+        assertEquals(Arrays.asList("The Dark Knight", "The Batman", "Batman Unknown"), titlesOf(newestFirst));
+    }
+
+    @Test
+    public void testSortByTitle_ignoresCase() {
+        // Arrange
+        List<MovieListItem> movies = Arrays.asList(
+                createMovie("batman begins", "2005", "movie"),
+                createMovie("Avatar", "2009", "movie"),
+                createMovie("Batman", "1989", "movie"));
+
+        // Act
+        List<MovieListItem> sorted = movieSorter.sort(movies, SortOption.TITLE);
+
+        // Assert
+        assertEquals(Arrays.asList("Avatar", "Batman", "batman begins"), titlesOf(sorted));
+    }
+
+    @Test
+    public void testSortByTypeAndFavorites_keepLoadedOrderForTies() {
+        // Arrange
+        MovieListItem first = createMovie("Batman", "1989", "movie");
+        MovieListItem second = createMovie("Batman Beyond", "1999", "series").withFavorite(true);
+        MovieListItem third = createMovie("Batman Returns", "1992", "movie").withFavorite(true);
+        List<MovieListItem> movies = Arrays.asList(first, second, third);
+
+        // Act
+        List<MovieListItem> byType = movieSorter.sort(movies, SortOption.TYPE);
+        List<MovieListItem> favoritesFirst = movieSorter.sort(movies, SortOption.FAVORITES_FIRST);
+
+        // Assert
+        assertEquals(Arrays.asList("Batman", "Batman Returns", "Batman Beyond"), titlesOf(byType));
+        assertEquals(Arrays.asList("Batman Beyond", "Batman Returns", "Batman"), titlesOf(favoritesFirst));
+    }
+
+    private MovieListItem createMovie(String title, String year, String type) {
+        return new MovieListItem(null, title, year, type, null);
+    }
+
+    private List<String> titlesOf(List<MovieListItem> movies) {
+        String[] titles = new String[movies.size()];
+        for (int i = 0; i < titles.length; i++)
+            titles[i] = movies.get(i).getTitle();
+        return Arrays.asList(titles);
+    }
+}
@@ -3,11 +3,19 @@ package com.hitachi.movieapp;
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
 import androidx.lifecycle.MutableLiveData;
 
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.SearchFilter;
 import com.hitachi.movieapp.data.model.response.Movie;
 import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.paging.PagingConfig;
 import com.hitachi.movieapp.data.repository.MovieRepository;
+import com.hitachi.movieapp.data.repository.OnMovieDetailsFetchedListener;
 import com.hitachi.movieapp.data.repository.OnMoviesFetchedListener;
+import com.hitachi.movieapp.data.scheduler.Cancellable;
+import com.hitachi.movieapp.data.scheduler.Delayer;
 import com.hitachi.movieapp.presentation.movies_list.MovieViewModel;
+import com.hitachi.movieapp.presentation.movies_list.SearchFacets;
+import com.hitachi.movieapp.presentation.movies_list.SortOption;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -17,9 +25,16 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,29 +48,40 @@ public class MovieViewModelTest {
 
     private MovieViewModel movieViewModel;
 
+    private final MutableLiveData<Set<String>> favoriteIds = new MutableLiveData<>(Collections.emptySet());
+
+    // Tasks waiting on the delayer, run explicitly by the tests
+    private final List<Runnable> delayedTasks = new ArrayList<>();
+
+    private final Delayer delayer = (task, delayMillis) -> {
+        delayedTasks.add(task);
+        return () -> delayedTasks.remove(task);
+    };
+
     @Before
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        movieViewModel = new MovieViewModel(movieRepository);  // Initialize ViewModel with mocked repo
+        when(movieRepository.getFavoriteIds()).thenReturn(favoriteIds);
+        when(movieRepository.isFavorite(Mockito.any()))
+                .thenAnswer(invocation -> favoriteIds.getValue().contains(invocation.<String>getArgument(0)));
+        movieViewModel = new MovieViewModel(movieRepository, Runnable::run, delayer);  // Initialize ViewModel with mocked repo
     }
 
     @Test
     public void testLoadMovies_success() {
         // Arrange: Mock the movie response and the listener callback
         MovieResponse mockMovieResponse = new MovieResponse();
-        List<Movie> mockMovieList = new ArrayList<>();
-        Movie movie =new Movie();
-        movie.setTitle("Inception");
-        movie.setYear("2010");
-        movie.setPoster("https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
+        List<MovieListItem> mockMovieList = new ArrayList<>();
+        MovieListItem movie = new MovieListItem(null, "Inception", "2010", null,
+                "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
         mockMovieList.add(movie);
         mockMovieResponse.setMovies(mockMovieList);
 
         Mockito.doAnswer(invocation -> {
-            OnMoviesFetchedListener listener = invocation.getArgument(2);
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
             listener.onFetched(mockMovieResponse);  // Simulate success
             return null;
-        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
 
         // Act: Call the method to load movies
         movieViewModel.loadMovies("Inception", 1);
@@ -69,10 +95,10 @@ public class MovieViewModelTest {
         // Arrange: Mock the repository to simulate an error
         String errorMessage = "API Error";
         Mockito.doAnswer(invocation -> {
-            OnMoviesFetchedListener listener = invocation.getArgument(2);
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
             listener.onError(errorMessage);  // Simulate error
             return null;
-        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.anyInt(), Mockito.any());
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
 
         // Act: Call the method to load movies
         movieViewModel.loadMovies("Inception", 1);
@@ -84,15 +110,11 @@ public class MovieViewModelTest {
     @Test
     public void testSortMovies_byTitle() {
         // Arrange: Mock movie data
-        List<Movie> mockMovieList = new ArrayList<>();
-        Movie movie =new Movie();
-        movie.setTitle("Inception");
-        movie.setYear("2010");
-        movie.setPoster("https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
-        Movie movie1 =new Movie();
-        movie1.setTitle("Avatar");
-        movie1.setYear("2009");
-        movie1.setPoster("https://m.media-amazon.com/images/M/MV5BZDA0OGQxNTItMDZkMC00N2UyLTg3MzMtYTJmNjg3Nzk5MzRiXkEyXkFqcGdeQXVyMjUzOTY1NTc@._V1_SX300.jpg");
+        List<MovieListItem> mockMovieList = new ArrayList<>();
+        MovieListItem movie = new MovieListItem(null, "Inception", "2010", null,
+                "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
+        MovieListItem movie1 = new MovieListItem(null, "Avatar", "2009", null,
+                "https://m.media-amazon.com/images/M/MV5BZDA0OGQxNTItMDZkMC00N2UyLTg3MzMtYTJmNjg3Nzk5MzRiXkEyXkFqcGdeQXVyMjUzOTY1NTc@._V1_SX300.jpg");
 
         mockMovieList.add(movie);
         mockMovieList.add(movie1);
@@ -100,61 +122,440 @@ public class MovieViewModelTest {
         MovieResponse mockMovieResponse = new MovieResponse();
         mockMovieResponse.setMovies(mockMovieList);
 
-        MutableLiveData<MovieResponse> moviesLiveData = new MutableLiveData<>();
-        moviesLiveData.setValue(mockMovieResponse);
-        
-        // Set the ViewModel LiveData
-        movieViewModel.getMoviesLiveData().setValue(mockMovieResponse);
+        mockMovieResponse.setTotalResults("2");
+
+        // Load the movies through the pager
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(mockMovieResponse);
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        movieViewModel.search("Movies");
 
         // Act: Sort movies by title
         movieViewModel.sortMovies("Sort by Title");
 
         // Assert: Verify that the movies are sorted by title
-        List<Movie> sortedMovies = movieViewModel.getSortedMovies().getValue();
+        List<MovieListItem> sortedMovies = movieViewModel.getPagedMovies().getValue();
         assertEquals("Avatar", sortedMovies.get(0).getTitle());
         assertEquals("Inception", sortedMovies.get(1).getTitle());
     }
 
+    @Test
+    public void testSortMovies_orderIsKeptWhenTheWindowIsPublishedAgain() {
+        // Arrange: a page in server order, sorted favorites first
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(createPage(1, 10, "10"));
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        movieViewModel.search("Batman");
+        movieViewModel.sortMovies(SortOption.FAVORITES_FIRST);
+
+        // Act: a favorite is added after the sort was chosen
+        favoriteIds.setValue(new HashSet<>(Collections.singletonList("tt1_7")));
+
+        // Assert: the restamped window is sorted again
+        List<MovieListItem> movies = movieViewModel.getPagedMovies().getValue();
+        assertEquals("tt1_7", movies.get(0).getImdbID());
+        assertTrue(movies.get(0).isFavorite());
+
+        // Act: no sort restores the loaded order
+        movieViewModel.sortMovies(SortOption.NONE);
+
+        // Assert
+        movies = movieViewModel.getPagedMovies().getValue();
+        assertEquals("tt1_0", movies.get(0).getImdbID());
+        assertEquals("tt1_7", movies.get(7).getImdbID());
+    }
+
     @Test
     public void testSortMovies_byYear() {
         // Arrange: Mock movie data
-        List<Movie> mockMovieList = new ArrayList<>();
-        Movie movie =new Movie();
-        movie.setTitle("Inception");
-        movie.setYear("2010");
-        movie.setPoster("https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
-        Movie movie1 =new Movie();
-        movie1.setTitle("Avatar");
-        movie1.setYear("2009");
-        movie1.setPoster("https://m.media-amazon.com/images/M/MV5BZDA0OGQxNTItMDZkMC00N2UyLTg3MzMtYTJmNjg3Nzk5MzRiXkEyXkFqcGdeQXVyMjUzOTY1NTc@._V1_SX300.jpg");
+        List<MovieListItem> mockMovieList = new ArrayList<>();
+        MovieListItem movie = new MovieListItem(null, "Inception", "2010", null,
+                "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
+        MovieListItem movie1 = new MovieListItem(null, "Avatar", "2009", null,
+                "https://m.media-amazon.com/images/M/MV5BZDA0OGQxNTItMDZkMC00N2UyLTg3MzMtYTJmNjg3Nzk5MzRiXkEyXkFqcGdeQXVyMjUzOTY1NTc@._V1_SX300.jpg");
 
         mockMovieList.add(movie);
         mockMovieList.add(movie1);
         MovieResponse mockMovieResponse = new MovieResponse();
         mockMovieResponse.setMovies(mockMovieList);
 
-        MutableLiveData<MovieResponse> moviesLiveData = new MutableLiveData<>();
-        moviesLiveData.setValue(mockMovieResponse);
-        
-        // Set the ViewModel LiveData
-        movieViewModel.getMoviesLiveData().setValue(mockMovieResponse);
+        mockMovieResponse.setTotalResults("2");
+
+        // Load the movies through the pager
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(mockMovieResponse);
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        movieViewModel.search("Movies");
 
         // Act: Sort movies by year
         movieViewModel.sortMovies("Sort by Year");
 
         // Assert: Verify that the movies are sorted by year
-        List<Movie> sortedMovies = movieViewModel.getSortedMovies().getValue();
+        List<MovieListItem> sortedMovies = movieViewModel.getPagedMovies().getValue();
         assertEquals("Avatar", sortedMovies.get(0).getTitle());
         assertEquals("Inception", sortedMovies.get(1).getTitle());
     }
 
+    @Test
+    public void testSearch_appendsNextPageNearEndOfList() {
+        // Arrange: 25 results means three pages, the last one partial
+        Mockito.doAnswer(invocation -> {
+            int page = invocation.getArgument(2);
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(createPage(page, page == 3 ? 5 : 10, "25"));
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+
+        // Act
+        movieViewModel.search("Batman");
+        movieViewModel.onVisibleRangeChanged(0, 5);
+        movieViewModel.onVisibleRangeChanged(10, 15);
+        movieViewModel.onVisibleRangeChanged(20, 24);
+
+        // Assert: the final partial page is loaded and nothing is requested past it
+        assertEquals(25, movieViewModel.getPagedMovies().getValue().size());
+        verify(movieRepository).getMovies(Mockito.eq("Batman"), Mockito.any(), Mockito.eq(3), Mockito.any());
+        verify(movieRepository, Mockito.never()).getMovies(Mockito.eq("Batman"), Mockito.any(), Mockito.eq(4), Mockito.any());
+    }
+
+    @Test
+    public void testRetryPaging_reloadsAFailedFirstPage() {
+        // Arrange: the first page fails once, then loads
+        int[] calls = {0};
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            if (calls[0]++ == 0)
+                listener.onError("Offline");
+            else
+                listener.onFetched(createPage(1, 10, "10"));
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        movieViewModel.search("Batman");
+
+        // Act
+        movieViewModel.retryPaging();
+        movieViewModel.retryPaging();
+
+        // Assert: the failed page is requested once more, the second retry has nothing to do
+        verify(movieRepository, Mockito.times(2)).getMovies(Mockito.eq("Batman"), Mockito.any(), Mockito.eq(1), Mockito.any());
+        assertEquals(10, movieViewModel.getPagedMovies().getValue().size());
+    }
+
+    @Test
+    public void testFacets_countLoadedMoviesOnceAndResetWithTheFilter() {
+        // Arrange: every page has seven movies and three series, half from the 1990s
+        Mockito.doAnswer(invocation -> {
+            int page = invocation.getArgument(2);
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            List<MovieListItem> movies = new ArrayList<>();
+            for (int i = 0; i < 10; i++)
+                movies.add(new MovieListItem("tt" + page + "_" + i, "Movie " + page + i,
+                        i % 2 == 0 ? "199" + i : "2005\u20132010", i < 7 ? "movie" : "series", null));
+            MovieResponse movieResponse = new MovieResponse();
+            movieResponse.setResponse("True");
+            movieResponse.setTotalResults("200");
+            movieResponse.setMovies(movies);
+            listener.onFetched(movieResponse);
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+
+        // Act: load two pages, then report the same range again
+        movieViewModel.search("Batman");
+        int size = movieViewModel.getPagedMovies().getValue().size();
+        movieViewModel.onVisibleRangeChanged(size - 5, size - 1);
+        movieViewModel.onVisibleRangeChanged(0, 5);
+
+        // Assert
+        SearchFacets facets = movieViewModel.getFacets().getValue();
+        assertEquals(20, facets.getMovieCount());
+        assertEquals(Integer.valueOf(14), facets.getTypeCounts().get("movie"));
+        assertEquals(Integer.valueOf(6), facets.getTypeCounts().get("series"));
+        assertEquals(Integer.valueOf(10), facets.getDecadeCounts().get(1990));
+        assertEquals(Integer.valueOf(10), facets.getDecadeCounts().get(2000));
+
+        // Act: narrowing to series searches again with the filter sent to OMDb
+        SearchFilter seriesOnly = new SearchFilter(SearchFilter.Type.SERIES, null);
+        movieViewModel.setSearchFilter(seriesOnly);
+
+        // Assert: the counts start over from the first filtered page
+        verify(movieRepository).getMovies(Mockito.eq("Batman"), Mockito.eq(seriesOnly), Mockito.eq(1), Mockito.any());
+        assertEquals(10, movieViewModel.getFacets().getValue().getMovieCount());
+    }
+
+    @Test
+    public void testSearch_dropsFarthestPagesWhenWindowIsFull() {
+        // Arrange: 200 results, more pages than the pager keeps in memory
+        Mockito.doAnswer(invocation -> {
+            int page = invocation.getArgument(2);
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(createPage(page, 10, "200"));
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+
+        // Act: keep scrolling to the end of the loaded window
+        movieViewModel.search("Batman");
+        for (int i = 0; i < 12; i++) {
+            int size = movieViewModel.getPagedMovies().getValue().size();
+            movieViewModel.onVisibleRangeChanged(size - 5, size - 1);
+        }
+
+        // Assert: memory stays bounded and the window starts after the dropped pages
+        List<MovieListItem> window = movieViewModel.getPagedMovies().getValue();
+        assertEquals(PagingConfig.omdbDefault().getMaxPages() * 10, window.size());
+        assertEquals("tt6_0", window.get(0).getImdbID());
+        assertEquals("tt13_9", window.get(window.size() - 1).getImdbID());
+    }
+
+    @Test
+    public void testSortMovies_coversPagesDroppedFromTheWindow() {
+        // Arrange: 200 results, sorted by title before scrolling
+        Mockito.doAnswer(invocation -> {
+            int page = invocation.getArgument(2);
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(createPage(page, 10, "200"));
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        movieViewModel.search("Batman");
+        movieViewModel.sortMovies(SortOption.TITLE);
+
+        // Act: keep scrolling to the end of the sorted list, past the pager's window
+        for (int i = 0; i < 12; i++) {
+            int size = movieViewModel.getPagedMovies().getValue().size();
+            movieViewModel.onVisibleRangeChanged(size - 5, size - 1);
+        }
+
+        // Assert: every loaded movie stays in the sorted list, also those of dropped pages
+        List<MovieListItem> movies = movieViewModel.getPagedMovies().getValue();
+        assertEquals(130, movies.size());
+        assertEquals("Movie 10", movies.get(0).getTitle());
+        verify(movieRepository, Mockito.times(1)).getMovies(Mockito.eq("Batman"), Mockito.any(), Mockito.eq(1), Mockito.any());
+    }
+
+    @Test
+    public void testSearch_stampsFavoritesFromIndex() {
+        // Arrange: one movie of the page is already a favorite
+        MovieResponse page = createPage(1, 10, "10");
+        favoriteIds.setValue(new HashSet<>(Collections.singletonList("tt1_0")));
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(page);
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+
+        // Act
+        movieViewModel.search("Batman");
+
+        // Assert
+        List<MovieListItem> movies = movieViewModel.getPagedMovies().getValue();
+        assertTrue(movies.get(0).isFavorite());
+        assertFalse(movies.get(1).isFavorite());
+
+        // Act: the favorites change, the single observer re-stamps the window
+        favoriteIds.setValue(new HashSet<>(Arrays.asList("tt1_1", "tt1_2")));
+
+        // Assert: changed rows are new instances, the pager's own movies are untouched
+        movies = movieViewModel.getPagedMovies().getValue();
+        assertFalse(movies.get(0).isFavorite());
+        assertTrue(movies.get(1).isFavorite());
+        assertTrue(movies.get(2).isFavorite());
+        assertFalse(page.getMovies().get(1).isFavorite());
+        assertSame(page.getMovies().get(3), movies.get(3));
+    }
+
+    @Test
+    public void testUpdateFavoriteStatus_togglingTheSameRowTwiceRemovesItAgain() {
+        // Arrange: the repository flips the favorite like the real one, by the row's flag
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(createPage(1, 10, "10"));
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        Mockito.doAnswer(invocation -> {
+            MovieListItem movie = invocation.getArgument(0);
+            Set<String> ids = new HashSet<>(favoriteIds.getValue());
+            if (movie.isFavorite())
+                ids.remove(movie.getImdbID());
+            else
+                ids.add(movie.getImdbID());
+            favoriteIds.setValue(ids);
+            return null;
+        }).when(movieRepository).updateFavoriteStatus(Mockito.any());
+        movieViewModel.search("Batman");
+
+        // Act: tap the heart twice, each time on the row displayed at that moment
+        movieViewModel.updateFavoriteStatus(movieViewModel.getPagedMovies().getValue().get(0));
+        MovieListItem restamped = movieViewModel.getPagedMovies().getValue().get(0);
+        movieViewModel.updateFavoriteStatus(restamped);
+
+        // Assert: the second tap sends the restamped row, so the favorite is removed
+        assertTrue(restamped.isFavorite());
+        assertFalse(movieViewModel.getPagedMovies().getValue().get(0).isFavorite());
+        assertTrue(favoriteIds.getValue().isEmpty());
+    }
+
+    @Test
+    public void testDetailsHydration_mergesDetailsAsTheyArriveUntilTheQueryChanges() {
+        // Arrange
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(createPage(1, 10, "10"));
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        List<OnMovieDetailsFetchedListener> hydrationListeners = new ArrayList<>();
+        Cancellable hydration = Mockito.mock(Cancellable.class);
+        Mockito.doAnswer(invocation -> {
+            hydrationListeners.add(invocation.getArgument(2));
+            return hydration;
+        }).when(movieRepository).hydrateDetails(Mockito.anyList(), Mockito.anyInt(), Mockito.any());
+        movieViewModel.setDetailsHydrationEnabled(true);
+
+        // Act
+        movieViewModel.search("Batman");
+        Movie details = new Movie();
+        details.setImdbID("tt1_3");
+        details.setDirector("Christopher Nolan");
+        details.setPlot("Plot of the movie");
+        hydrationListeners.get(0).onFetched(details);
+
+        // Assert: the whole page is requested at once, the row is enriched as soon as its details arrive
+        verify(movieRepository).hydrateDetails(Mockito.argThat(imdbIDs -> imdbIDs.size() == 10),
+                Mockito.eq(PagingConfig.HYDRATION_PARALLELISM), Mockito.any());
+        List<MovieListItem> movies = movieViewModel.getPagedMovies().getValue();
+        assertEquals("Christopher Nolan", movies.get(3).getDetails().getDirector());
+        assertEquals(null, movies.get(4).getDetails());
+
+        // Act: a new query cancels the hydration of the previous one
+        movieViewModel.search("Superman");
+
+        // Assert
+        verify(hydration).cancel();
+        assertEquals(null, movieViewModel.getPagedMovies().getValue().get(3).getDetails());
+    }
+
+    @Test
+    public void testOnQueryTextChanged_searchesOnceTypingPauses() {
+        // Arrange
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(createPage(1, 10, "10"));
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+
+        // Act: type a query one character at a time
+        for (String text : Arrays.asList("B", "Ba", "Bat", "Batm", "Batma", "Batman"))
+            movieViewModel.onQueryTextChanged(text, true);
+
+        // Assert: nothing is searched until typing pauses, then only the latest query
+        verify(movieRepository, Mockito.never()).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        assertEquals(1, delayedTasks.size());
+        delayedTasks.remove(0).run();
+        verify(movieRepository).getMovies(Mockito.eq("Batman"), Mockito.any(), Mockito.eq(1), Mockito.any());
+        verify(movieRepository, Mockito.times(1)).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+
+        // Act: the same query again, e.g. after a trailing space
+        movieViewModel.onQueryTextChanged("Batman ", true);
+
+        // Assert
+        assertTrue(delayedTasks.isEmpty());
+    }
+
+    @Test
+    public void testSearch_cancelsPreviousQueryAndIgnoresItsLateResults() {
+        // Arrange: the first query stays in flight
+        List<OnMoviesFetchedListener> batmanListeners = new ArrayList<>();
+        Cancellable batmanCall = Mockito.mock(Cancellable.class);
+        Mockito.doAnswer(invocation -> {
+            batmanListeners.add(invocation.getArgument(3));
+            return batmanCall;
+        }).when(movieRepository).getMovies(Mockito.eq("Batman"), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        MovieResponse supermanPage = createPage(7, 3, "3");
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(3);
+            listener.onFetched(supermanPage);
+            return null;
+        }).when(movieRepository).getMovies(Mockito.eq("Superman"), Mockito.any(), Mockito.anyInt(), Mockito.any());
+
+        // Act
+        movieViewModel.search("Batman");
+        movieViewModel.search("Superman");
+        batmanListeners.get(0).onFetched(createPage(1, 10, "10"));
+
+        // Assert: the old call is cancelled and its late response doesn't replace the new results
+        verify(batmanCall).cancel();
+        List<MovieListItem> movies = movieViewModel.getPagedMovies().getValue();
+        assertEquals(3, movies.size());
+        assertEquals("tt7_0", movies.get(0).getImdbID());
+    }
+
+    @Test
+    public void testSearch_showsLocalMatchesUntilTheNetworkPageArrives() {
+        // Arrange: the network page stays in flight, the local index answers right away
+        List<OnMoviesFetchedListener> networkListeners = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            networkListeners.add(invocation.getArgument(3));
+            return null;
+        }).when(movieRepository).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(1);
+            listener.onFetched(createPage(9, 2, "2"));
+            return null;
+        }).when(movieRepository).searchLocal(Mockito.anyString(), Mockito.any());
+
+        // Act
+        movieViewModel.search("Batman");
+
+        // Assert: the local matches are the first paint
+        assertEquals("tt9_0", movieViewModel.getPagedMovies().getValue().get(0).getImdbID());
+
+        // Act: the network page arrives
+        networkListeners.get(0).onFetched(createPage(1, 10, "10"));
+
+        // Assert
+        List<MovieListItem> movies = movieViewModel.getPagedMovies().getValue();
+        assertEquals(10, movies.size());
+        assertEquals("tt1_0", movies.get(0).getImdbID());
+    }
+
+    @Test
+    public void testSearchOffline_showsOnlyLocalMatches() {
+        // Arrange
+        Mockito.doAnswer(invocation -> {
+            OnMoviesFetchedListener listener = invocation.getArgument(1);
+            listener.onFetched(createPage(9, 2, "2"));
+            return null;
+        }).when(movieRepository).searchLocal(Mockito.anyString(), Mockito.any());
+
+        // Act
+        movieViewModel.searchOffline("Batman");
+
+        // Assert
+        assertEquals(2, movieViewModel.getPagedMovies().getValue().size());
+        verify(movieRepository, Mockito.never()).getMovies(Mockito.anyString(), Mockito.any(), Mockito.anyInt(), Mockito.any());
+    }
+
+    private MovieResponse createPage(int page, int count, String totalResults) {
+        List<MovieListItem> movies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            movies.add(new MovieListItem("tt" + page + "_" + i, "Movie " + page + i, null, null, null));
+        }
+        MovieResponse movieResponse = new MovieResponse();
+        movieResponse.setResponse("True");
+        movieResponse.setTotalResults(totalResults);
+        movieResponse.setMovies(movies);
+        return movieResponse;
+    }
+
     @Test
     public void testUpdateFavoriteStatus() {
         // Arrange: Mock a movie
-        Movie mockMovie =new Movie();
-        mockMovie.setTitle("Inception");
-        mockMovie.setYear("2010");
-        mockMovie.setPoster("https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
+        MovieListItem mockMovie = new MovieListItem(null, "Inception", "2010", null,
+                "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg");
 
         // Act: Call the method to update favorite status
         movieViewModel.updateFavoriteStatus(mockMovie);
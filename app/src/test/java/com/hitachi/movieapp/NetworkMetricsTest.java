@@ -0,0 +1,104 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.network.Histogram;
+import com.hitachi.movieapp.data.network.NetworkMetrics;
+import com.hitachi.movieapp.data.network.OmdbApi;
+import com.hitachi.movieapp.data.network.OmdbEndpoint;
+import com.hitachi.movieapp.data.network.RequestPriority;
+import com.hitachi.movieapp.data.network.TelemetryEventListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NetworkMetricsTest {
+
+    private MockWebServer server;
+    private NetworkMetrics networkMetrics;
+    private OmdbApi omdbApi;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        networkMetrics = new NetworkMetrics();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .eventListenerFactory(new TelemetryEventListener.Factory(networkMetrics))
+                .build();
+        omdbApi = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(OmdbApi.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testCalls_areTimedPerEndpoint() throws IOException {
+        // Arrange
+        String searchBody = "{\"Search\":[],\"totalResults\":\"0\",\"Response\":\"True\"}";
+        server.enqueue(new MockResponse().setBody(searchBody));
+        server.enqueue(new MockResponse().setBody("{\"Title\":\"Batman Begins\",\"Response\":\"True\"}"));
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        // Act
+        Response<MovieResponse> search = omdbApi.getMovies("key", "batman", null, null, 1, RequestPriority.USER).execute();
+        Response<Movie> details = omdbApi.getMovieDetails("tt0372784", "key", RequestPriority.USER).execute();
+        omdbApi.getMovieDetails("tt0372784", "key", RequestPriority.USER).execute();
+
+        // Assert
+        assertTrue(search.isSuccessful());
+        assertTrue(details.isSuccessful());
+        NetworkMetrics.EndpointStats searchStats = networkMetrics.getStats(OmdbEndpoint.SEARCH);
+        assertEquals(1, searchStats.getCallCount());
+        assertEquals(1, searchStats.getPhase(NetworkMetrics.Phase.TOTAL).getCount());
+        assertEquals(1, searchStats.getPhase(NetworkMetrics.Phase.TIME_TO_FIRST_BYTE).getCount());
+        assertEquals(searchBody.length(), searchStats.getBodyBytes().getMax());
+        NetworkMetrics.EndpointStats detailsStats = networkMetrics.getStats(OmdbEndpoint.DETAILS);
+        assertEquals(2, detailsStats.getCallCount());
+        assertEquals(2, detailsStats.getPhase(NetworkMetrics.Phase.TOTAL).getCount());
+        // The second call reused the pooled connection
+        assertEquals(0, detailsStats.getPhase(NetworkMetrics.Phase.CONNECT).getCount());
+        assertEquals(0, networkMetrics.getStats(OmdbEndpoint.OTHER).getCallCount());
+        assertTrue(networkMetrics.dump().contains("DETAILS: calls=2"));
+    }
+
+    @Test
+    public void testHistogram_percentilesStayWithinBucketError() {
+        // Arrange
+        Histogram histogram = new Histogram(1_000_000);
+
+        // Act
+        for (int value = 1; value <= 1000; value++)
+            histogram.record(value);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        // Assert
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500, snapshot.getMean());
+        assertTrue(snapshot.getP50() >= 500 && snapshot.getP50() <= 625);
+        assertTrue(snapshot.getP90() >= 900 && snapshot.getP90() <= 1000);
+        assertEquals(1000, snapshot.getP99());
+    }
+}
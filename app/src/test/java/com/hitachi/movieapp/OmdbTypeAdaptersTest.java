@@ -0,0 +1,109 @@
+package com.hitachi.movieapp;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.network.MovieListItemTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieResponseTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieTypeAdapter;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that the streaming adapters decode sample OMDb payloads exactly like reflective Gson.
+ */
+public class OmdbTypeAdaptersTest {
+
+    private final Gson reflectiveGson = new Gson();
+    private final Gson streamingGson = createStreamingGson();
+
+    @Test
+    public void testSearchPage_matchesReflectiveParsing() throws IOException {
+        // Act
+        MovieResponse expected = parse(reflectiveGson, "omdb/search_batman_page1.json", MovieResponse.class);
+        MovieResponse actual = parse(streamingGson, "omdb/search_batman_page1.json", MovieResponse.class);
+
+        // Assert
+        assertEquals(expected.getResponse(), actual.getResponse());
+        assertEquals(expected.getTotalResults(), actual.getTotalResults());
+        assertEquals(expected.getErrorMsg(), actual.getErrorMsg());
+        assertEquals(10, actual.getMovies().size());
+        for (int i = 0; i < expected.getMovies().size(); i++)
+            assertSameRow(expected.getMovies().get(i), actual.getMovies().get(i));
+        assertEquals("1992–1995", actual.getMovies().get(9).getYear());
+    }
+
+    @Test
+    public void testDetails_matchesReflectiveParsingAndSkipsUnusedFields() throws IOException {
+        // Act: the payload also carries ratings, box office and other fields the app ignores
+        Movie expected = parse(reflectiveGson, "omdb/details_tt0372784.json", Movie.class);
+        Movie actual = parse(streamingGson, "omdb/details_tt0372784.json", Movie.class);
+
+        // Assert
+        assertSameMovie(expected, actual);
+        assertEquals("Christopher Nolan", actual.getDirector());
+    }
+
+    @Test
+    public void testErrorResponse_matchesReflectiveParsing() throws IOException {
+        // Act
+        MovieResponse expected = parse(reflectiveGson, "omdb/error_not_found.json", MovieResponse.class);
+        MovieResponse actual = parse(streamingGson, "omdb/error_not_found.json", MovieResponse.class);
+
+        // Assert
+        assertEquals(expected.getResponse(), actual.getResponse());
+        assertEquals("Movie not found!", actual.getErrorMsg());
+        assertNull(actual.getMovies());
+    }
+
+    private static Gson createStreamingGson() {
+        MovieListItemTypeAdapter listItemTypeAdapter = new MovieListItemTypeAdapter();
+        return new GsonBuilder()
+                .registerTypeAdapter(Movie.class, new MovieTypeAdapter())
+                .registerTypeAdapter(MovieListItem.class, listItemTypeAdapter)
+                .registerTypeAdapter(MovieResponse.class, new MovieResponseTypeAdapter(listItemTypeAdapter))
+                .create();
+    }
+
+    private <T> T parse(Gson gson, String resource, Class<T> type) throws IOException {
+        InputStream stream = getClass().getClassLoader().getResourceAsStream(resource);
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            return gson.fromJson(reader, type);
+        }
+    }
+
+    private void assertSameRow(MovieListItem expected, MovieListItem actual) {
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getYear(), actual.getYear());
+        assertEquals(expected.getImdbID(), actual.getImdbID());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getPoster(), actual.getPoster());
+    }
+
+    private void assertSameMovie(Movie expected, Movie actual) {
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getYear(), actual.getYear());
+        assertEquals(expected.getImdbID(), actual.getImdbID());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getPoster(), actual.getPoster());
+        assertEquals(expected.getGenre(), actual.getGenre());
+        assertEquals(expected.getDirector(), actual.getDirector());
+        assertEquals(expected.getWriter(), actual.getWriter());
+        assertEquals(expected.getActors(), actual.getActors());
+        assertEquals(expected.getPlot(), actual.getPlot());
+        assertEquals(expected.getResponse(), actual.getResponse());
+        assertEquals(expected.getErrorMsg(), actual.getErrorMsg());
+        assertEquals(expected.isFavorite(), actual.isFavorite());
+    }
+}
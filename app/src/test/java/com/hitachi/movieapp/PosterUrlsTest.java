@@ -0,0 +1,41 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.presentation.image.Poster;
+import com.hitachi.movieapp.presentation.image.PosterUrls;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PosterUrlsTest {
+
+    private static final String POSTER =
+            "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_SX300.jpg";
+    private static final String POSTER_PREFIX =
+            "https://m.media-amazon.com/images/M/MV5BOTY4YjI2N2MtYmFlMC00ZjcyLTg3YjEtMDQyM2ZjYzQ5YWFkXkEyXkFqcGdeQXVyMTQxNzMzNDI@._V1_";
+
+    @Test
+    public void testSized_rewritesAmazonPostersToTheBucketedWidth() {
+        assertEquals(POSTER_PREFIX + "SX200.jpg", PosterUrls.sized(POSTER, 180));
+        assertEquals(POSTER_PREFIX + "SX200.jpg", PosterUrls.sized(POSTER, 200));
+        assertEquals(POSTER_PREFIX + "SX1200.jpg", PosterUrls.sized(POSTER, 4000));
+        // Other resize operations are replaced too
+        assertEquals(POSTER_PREFIX + "SX300.jpg", PosterUrls.sized(POSTER_PREFIX + "UX182_CR0,0,182,268_AL_.jpg", 300));
+    }
+
+    @Test
+    public void testSized_leavesUnknownUrlsAndSizesAlone() {
+        String otherHost = "https://example.com/posters/batman._V1_SX300.jpg";
+        assertEquals(otherHost, PosterUrls.sized(otherHost, 200));
+        assertEquals(POSTER, PosterUrls.sized(POSTER, 0));
+        assertEquals(POSTER, PosterUrls.sized(POSTER, Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void testPosterOf_missingPosterHasNoModel() {
+        assertNull(Poster.of("N/A"));
+        assertNull(Poster.of(null));
+        assertEquals(POSTER, Poster.of(POSTER).getUrl());
+    }
+}
@@ -0,0 +1,116 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.data.network.OmdbException;
+import com.hitachi.movieapp.data.network.RateLimiter;
+import com.hitachi.movieapp.data.network.RequestPriority;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RateLimiterTest {
+
+    private long now;
+    private final Map<Long, Integer> storedUsage = new HashMap<>();
+    private int writes;
+    private final RateLimiter.QuotaStore quotaStore = new RateLimiter.QuotaStore() {
+        @Override
+        public int getUsed(long day) {
+            Integer used = storedUsage.get(day);
+            return used != null ? used : 0;
+        }
+
+        @Override
+        public void setUsed(long day, int used) {
+            storedUsage.put(day, used);
+            writes++;
+        }
+    };
+
+    @Before
+    public void setUp() {
+        now = TimeUnit.DAYS.toMillis(20000);
+    }
+
+    @Test
+    public void testLowPriorityCalls_areShedBeforeUserCallsWait() throws OmdbException {
+        // Arrange: 1 token per second, a bucket of 4
+        RateLimiter rateLimiter = new RateLimiter(1, 4, 1000, quotaStore, () -> now);
+
+        // Act: speculative calls keep half the bucket for the user
+        assertEquals(0, rateLimiter.acquire(RequestPriority.SPECULATIVE));
+        assertEquals(0, rateLimiter.acquire(RequestPriority.SPECULATIVE));
+        assertReason(OmdbException.Reason.RATE_LIMITED, rateLimiter, RequestPriority.SPECULATIVE);
+        assertEquals(0, rateLimiter.acquire(RequestPriority.BACKGROUND));
+        assertReason(OmdbException.Reason.RATE_LIMITED, rateLimiter, RequestPriority.BACKGROUND);
+
+        // Assert: the user spends the last token, then waits for the next ones
+        assertEquals(0, rateLimiter.acquire(RequestPriority.USER));
+        assertEquals(1000, rateLimiter.acquire(RequestPriority.USER));
+        assertEquals(2000, rateLimiter.acquire(RequestPriority.USER));
+        assertEquals(3000, rateLimiter.acquire(RequestPriority.USER));
+        assertReason(OmdbException.Reason.RATE_LIMITED, rateLimiter, RequestPriority.USER);
+        now += 10_000;
+        assertEquals(0, rateLimiter.acquire(RequestPriority.USER));
+    }
+
+    @Test
+    public void testDailyQuota_survivesRestartAndResetsNextDay() throws OmdbException {
+        // Arrange
+        RateLimiter rateLimiter = new RateLimiter(100, 100, 10, quotaStore, () -> now);
+        for (int i = 0; i < 9; i++)
+            rateLimiter.acquire(RequestPriority.USER);
+        rateLimiter.release();
+        rateLimiter.flush();
+
+        // Act: a new process reads today's usage back
+        RateLimiter restarted = new RateLimiter(100, 100, 10, quotaStore, () -> now);
+
+        // Assert: speculative calls leave the last quarter of the quota to the user
+        assertEquals(2, restarted.getRemainingQuota());
+        assertReason(OmdbException.Reason.RATE_LIMITED, restarted, RequestPriority.SPECULATIVE);
+        for (int i = 0; i < 2; i++)
+            restarted.acquire(RequestPriority.USER);
+        assertReason(OmdbException.Reason.REQUEST_LIMIT, restarted, RequestPriority.USER);
+        now += TimeUnit.DAYS.toMillis(1);
+        assertEquals(10, restarted.getRemainingQuota());
+        assertEquals(0, restarted.acquire(RequestPriority.SPECULATIVE));
+    }
+
+    @Test
+    public void testDailyQuota_isWrittenAtMostOncePerInterval() throws OmdbException {
+        // Arrange
+        RateLimiter rateLimiter = new RateLimiter(100, 100, 1000, quotaStore, () -> now);
+        long today = TimeUnit.MILLISECONDS.toDays(now);
+
+        // Act: a burst of calls
+        for (int i = 0; i < 20; i++)
+            rateLimiter.acquire(RequestPriority.BACKGROUND);
+        rateLimiter.release();
+
+        // Assert: only the first call of the day is written until the interval has passed
+        assertEquals(1, writes);
+        assertEquals(1, (int) storedUsage.get(today));
+        now += RateLimiter.PERSIST_INTERVAL_MILLIS;
+        rateLimiter.acquire(RequestPriority.BACKGROUND);
+        assertEquals(2, writes);
+        assertEquals(20, (int) storedUsage.get(today));
+        rateLimiter.flush();
+        assertEquals(2, writes);
+    }
+
+    private static void assertReason(OmdbException.Reason reason, RateLimiter rateLimiter, RequestPriority priority) {
+        try {
+            rateLimiter.acquire(priority);
+            fail("Expected " + priority + " to be refused");
+        } catch (OmdbException e) {
+            assertEquals(reason, e.getReason());
+        }
+    }
+}
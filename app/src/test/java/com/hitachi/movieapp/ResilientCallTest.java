@@ -0,0 +1,205 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.network.CircuitBreaker;
+import com.hitachi.movieapp.data.network.OmdbApi;
+import com.hitachi.movieapp.data.network.OmdbEndpoint;
+import com.hitachi.movieapp.data.network.OmdbException;
+import com.hitachi.movieapp.data.network.RateLimiter;
+import com.hitachi.movieapp.data.network.RequestPriority;
+import com.hitachi.movieapp.data.network.ResilientCallAdapterFactory;
+import com.hitachi.movieapp.data.network.RetryPolicy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResilientCallTest {
+
+    private MockWebServer server;
+    private ScheduledExecutorService timer;
+    private long now;
+    private CircuitBreaker circuitBreaker;
+    private RateLimiter rateLimiter;
+    private OmdbApi omdbApi;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        timer = Executors.newSingleThreadScheduledExecutor();
+        circuitBreaker = new CircuitBreaker(3, 30_000, 3_600_000, () -> now);
+        rateLimiter = new RateLimiter(10, 100, 1000, new RateLimiter.QuotaStore() {
+            @Override
+            public int getUsed(long day) {
+                return 0;
+            }
+
+            @Override
+            public void setUsed(long day, int used) {
+            }
+        }, () -> now);
+        Map<OmdbEndpoint, RetryPolicy> retryPolicies = new EnumMap<>(OmdbEndpoint.class);
+        retryPolicies.put(OmdbEndpoint.SEARCH, new RetryPolicy(3, 1, 5, 5_000));
+        retryPolicies.put(OmdbEndpoint.DETAILS, new RetryPolicy(1, 1, 5, 5_000));
+        omdbApi = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(new OkHttpClient())
+                .addCallAdapterFactory(new ResilientCallAdapterFactory(retryPolicies, circuitBreaker, rateLimiter, timer))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(OmdbApi.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        timer.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void testTransientServerErrors_areRetried() throws Exception {
+        // Arrange
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setBody("{\"Search\":[],\"totalResults\":\"0\",\"Response\":\"True\"}"));
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Response<MovieResponse>> result = new AtomicReference<>();
+
+        // Act
+        omdbApi.getMovies("key", "batman", null, null, 1, RequestPriority.USER).enqueue(new Callback<MovieResponse>() {
+            @Override
+            public void onResponse(Call<MovieResponse> call, Response<MovieResponse> response) {
+                result.set(response);
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Call<MovieResponse> call, Throwable t) {
+                done.countDown();
+            }
+        });
+
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(result.get().isSuccessful());
+        assertEquals("True", result.get().body().getResponse());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testLongRetryAfter_isDeliveredInsteadOfWaitedFor() throws IOException {
+        // Arrange: the server asks for an hour, the search policy waits at most 5 ms
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "3600"));
+        server.enqueue(new MockResponse().setBody("{\"Search\":[],\"totalResults\":\"0\",\"Response\":\"True\"}"));
+
+        // Act
+        long start = System.nanoTime();
+        Response<MovieResponse> response = omdbApi.getMovies("key", "batman", null, null, 1, RequestPriority.USER).execute();
+
+        // Assert
+        assertEquals(503, response.code());
+        assertEquals(1, server.getRequestCount());
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+    }
+
+    @Test
+    public void testRequestLimit_failsWithoutRetryAndOpensBreaker() throws IOException {
+        // Arrange
+        server.enqueue(new MockResponse().setResponseCode(401)
+                .setBody("{\"Response\":\"False\",\"Error\":\"Request limit reached!\"}"));
+
+        // Act
+        OmdbException limitReached = expectOmdbException(omdbApi.getMovies("key", "batman", null, null, 1, RequestPriority.USER));
+        OmdbException refused = expectOmdbException(omdbApi.getMovieDetails("tt0372784", "key", RequestPriority.USER));
+
+        // Assert
+        assertEquals(OmdbException.Reason.REQUEST_LIMIT, limitReached.getReason());
+        assertEquals("Request limit reached!", limitReached.getMessage());
+        // The used-up quota refuses the next call before the open breaker is asked
+        assertEquals(OmdbException.Reason.REQUEST_LIMIT, refused.getReason());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, rateLimiter.getRemainingQuota());
+    }
+
+    @Test
+    public void testRepeatedFailures_openBreakerUntilTrialCallSucceeds() throws IOException {
+        // Arrange: details are attempted once, three failures open the breaker
+        for (int i = 0; i < 3; i++)
+            server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setBody("{\"Title\":\"Batman Begins\",\"Response\":\"True\"}"));
+        for (int i = 0; i < 3; i++)
+            assertEquals(500, omdbApi.getMovieDetails("tt0372784", "key", RequestPriority.USER).execute().code());
+
+        // Act
+        OmdbException refused = expectOmdbException(omdbApi.getMovieDetails("tt0372784", "key", RequestPriority.USER));
+        now += 30_000;
+        Response<?> trial = omdbApi.getMovieDetails("tt0372784", "key", RequestPriority.USER).execute();
+
+        // Assert
+        assertEquals(OmdbException.Reason.UNAVAILABLE, refused.getReason());
+        assertTrue(trial.isSuccessful());
+        assertEquals(4, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testRefusedAndCancelledAttempts_giveBackTheirQuota() throws IOException {
+        // Arrange: three failures open the breaker and use three calls of quota
+        for (int i = 0; i < 3; i++)
+            server.enqueue(new MockResponse().setResponseCode(500));
+        for (int i = 0; i < 3; i++)
+            omdbApi.getMovieDetails("tt0372784", "key", RequestPriority.USER).execute();
+        int remaining = rateLimiter.getRemainingQuota();
+
+        // Act: one call refused by the open breaker, one cancelled before it is sent
+        expectOmdbException(omdbApi.getMovieDetails("tt0372784", "key", RequestPriority.USER));
+        Call<?> cancelled = omdbApi.getMovieDetails("tt0372784", "key", RequestPriority.USER);
+        cancelled.cancel();
+        try {
+            cancelled.execute();
+            fail("Expected the cancelled call to fail");
+        } catch (IOException expected) {
+            // The call never reached the server
+        }
+
+        // Assert
+        assertEquals(997, remaining);
+        assertEquals(remaining, rateLimiter.getRemainingQuota());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    private static OmdbException expectOmdbException(Call<?> call) throws IOException {
+        try {
+            call.execute();
+        } catch (OmdbException e) {
+            return e;
+        }
+        fail("Expected an OmdbException");
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.hitachi.movieapp;
+
+import com.hitachi.movieapp.startup.StartupTracer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StartupTracerTest {
+
+    private long now;
+    private final List<String> traceEvents = new ArrayList<>();
+    private StartupTracer tracer;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        tracer = new StartupTracer(() -> now, new StartupTracer.SystemTrace() {
+            @Override
+            public void beginSection(String name) {
+                traceEvents.add("begin " + name);
+            }
+
+            @Override
+            public void endSection() {
+                traceEvents.add("end");
+            }
+        }, 900);
+    }
+
+    @Test
+    public void testSections_areTracedAndTimedFromProcessStart() {
+        // Act
+        try (StartupTracer.Section ignored = tracer.begin("MyApplication.onCreate")) {
+            now += 40;
+        }
+        now += 10;
+        try (StartupTracer.Section ignored = tracer.begin("MainActivity.viewModel")) {
+            now += 25;
+        }
+
+        // Assert
+        assertEquals(Arrays.asList("begin MyApplication.onCreate", "end", "begin MainActivity.viewModel", "end"),
+                traceEvents);
+        List<StartupTracer.Phase> phases = tracer.getPhases();
+        assertEquals(2, phases.size());
+        assertEquals("MyApplication.onCreate", phases.get(0).getName());
+        assertEquals(100, phases.get(0).getStartOffsetMillis());
+        assertEquals(40, phases.get(0).getDurationMillis());
+        assertEquals(150, phases.get(1).getStartOffsetMillis());
+        assertEquals(25, phases.get(1).getDurationMillis());
+    }
+
+    @Test
+    public void testOnFirstResultsShown_recordsOnceAndStopsKeepingSections() {
+        // Arrange
+        try (StartupTracer.Section ignored = tracer.begin("MainActivity.inflate")) {
+            now += 30;
+        }
+        now = 1500;
+
+        // Act
+        boolean first = tracer.onFirstResultsShown();
+        now = 1800;
+        boolean second = tracer.onFirstResultsShown();
+        try (StartupTracer.Section ignored = tracer.begin("MovieDetailsActivity.inflate")) {
+            now += 5;
+        }
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(600, tracer.getTimeToFirstResultsMillis());
+        assertEquals(1, tracer.getPhases().size());
+        assertTrue(tracer.getReport().startsWith("First results after 600 ms"));
+        assertTrue(tracer.getReport().contains("MainActivity.inflate"));
+        // Later sections still reach the system trace
+        assertEquals("begin MovieDetailsActivity.inflate", traceEvents.get(2));
+    }
+}
@@ -0,0 +1,64 @@
+package com.hitachi.movieapp.benchmark;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.repository.FavoriteIdSet;
+import com.hitachi.movieapp.presentation.movies_list.FavoriteStamper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the favorites work done after each toggle: reconciling the in-memory IDs with the
+ * rows read from Room, then restamping the displayed window of movies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FavoritesBenchmark {
+    // Size of the window kept in memory by MoviePager
+    private static final int WINDOW_SIZE = 500;
+
+    @Param({"100", "1000", "10000"})
+    public int favoriteCount;
+
+    private FavoriteIdSet favoriteIdSet;
+    // The stored IDs before and after one toggle, alternated so every reconcile changes one ID
+    private Set<String> stored;
+    private Set<String> storedAfterToggle;
+    private boolean toggled;
+    private List<MovieListItem> window;
+
+    @Setup
+    public void setUp() {
+        stored = new HashSet<>();
+        for (int i = 0; i < favoriteCount; i++)
+            stored.add(SyntheticMovies.imdbID(i * 2));
+        storedAfterToggle = new HashSet<>(stored);
+        storedAfterToggle.add(SyntheticMovies.imdbID(1));
+        favoriteIdSet = new FavoriteIdSet();
+        favoriteIdSet.reconcile(stored);
+        window = SyntheticMovies.generate(WINDOW_SIZE, 7);
+    }
+
+    @Benchmark
+    public boolean reconcileAfterToggle() {
+        toggled = !toggled;
+        return favoriteIdSet.reconcile(toggled ? storedAfterToggle : stored);
+    }
+
+    @Benchmark
+    public List<MovieListItem> stampWindow() {
+        return FavoriteStamper.stamp(window, favoriteIdSet::contains);
+    }
+}
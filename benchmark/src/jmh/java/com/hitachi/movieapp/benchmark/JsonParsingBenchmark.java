@@ -0,0 +1,85 @@
+package com.hitachi.movieapp.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.network.MovieListItemTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieResponseTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieTypeAdapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reflective Gson binding with the streaming OMDb adapters on a search page and a
+ * details payload. Run with the gc profiler to see the allocations per parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonParsingBenchmark {
+    private Gson reflectiveGson;
+    private Gson streamingGson;
+    private String searchPage;
+    private String details;
+
+    @Setup
+    public void setUp() throws IOException {
+        reflectiveGson = new Gson();
+        MovieListItemTypeAdapter listItemTypeAdapter = new MovieListItemTypeAdapter();
+        streamingGson = new GsonBuilder()
+                .registerTypeAdapter(Movie.class, new MovieTypeAdapter())
+                .registerTypeAdapter(MovieListItem.class, listItemTypeAdapter)
+                .registerTypeAdapter(MovieResponse.class, new MovieResponseTypeAdapter(listItemTypeAdapter))
+                .create();
+        searchPage = readResource("omdb/search_batman_page1.json");
+        details = readResource("omdb/details_tt0372784.json");
+    }
+
+    @Benchmark
+    public MovieResponse searchPageReflective() {
+        return reflectiveGson.fromJson(new StringReader(searchPage), MovieResponse.class);
+    }
+
+    @Benchmark
+    public MovieResponse searchPageStreaming() {
+        return streamingGson.fromJson(new StringReader(searchPage), MovieResponse.class);
+    }
+
+    @Benchmark
+    public Movie detailsReflective() {
+        return reflectiveGson.fromJson(new StringReader(details), Movie.class);
+    }
+
+    @Benchmark
+    public Movie detailsStreaming() {
+        return streamingGson.fromJson(new StringReader(details), Movie.class);
+    }
+
+    static String readResource(String name) throws IOException {
+        try (InputStream stream = JsonParsingBenchmark.class.getClassLoader().getResourceAsStream(name)) {
+            if (stream == null)
+                throw new IOException("Missing benchmark payload " + name);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1)
+                bytes.write(buffer, 0, read);
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hitachi.movieapp.benchmark;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.presentation.movies_list.MovieSorter;
+import com.hitachi.movieapp.presentation.movies_list.SortOption;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the sort behind {@code MovieViewModel.sortMovies} for a few pages of results up to
+ * a long scrolling session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MovieSortingBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"YEAR", "YEAR_DESCENDING", "TITLE", "TYPE", "FAVORITES_FIRST"})
+    public SortOption sortOption;
+
+    private MovieSorter sorter;
+    private List<MovieListItem> movies;
+
+    @Setup
+    public void setUp() {
+        sorter = new MovieSorter(Locale.US);
+        movies = SyntheticMovies.generate(size, 42);
+    }
+
+    @Benchmark
+    public List<MovieListItem> sort() {
+        return sorter.sort(movies, sortOption);
+    }
+}
@@ -0,0 +1,117 @@
+package com.hitachi.movieapp.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.hitachi.movieapp.data.model.MovieListItem;
+import com.hitachi.movieapp.data.model.response.Movie;
+import com.hitachi.movieapp.data.model.response.MovieResponse;
+import com.hitachi.movieapp.data.network.CacheControlInterceptor;
+import com.hitachi.movieapp.data.network.MovieListItemTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieResponseTypeAdapter;
+import com.hitachi.movieapp.data.network.MovieTypeAdapter;
+import com.hitachi.movieapp.data.network.OmdbApi;
+import com.hitachi.movieapp.data.network.RequestPriority;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Measures a full OMDb call as the repository makes it: Retrofit, OkHttp with the cache-control
+ * interceptor and the streaming adapters, against a local server replaying recorded payloads.
+ * The disk cache is left out so every call reaches the server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OmdbRoundTripBenchmark {
+    private static final String API_KEY = "benchmark";
+
+    private MockWebServer server;
+    private OmdbApi omdbApi;
+
+    @Setup
+    public void setUp() throws IOException {
+        String searchPage = JsonParsingBenchmark.readResource("omdb/search_batman_page1.json");
+        String details = JsonParsingBenchmark.readResource("omdb/details_tt0372784.json");
+        String notFound = JsonParsingBenchmark.readResource("omdb/error_not_found.json");
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String body;
+                if (request.getRequestUrl().queryParameter("s") != null)
+                    body = searchPage;
+                else if ("tt0372784".equals(request.getRequestUrl().queryParameter("i")))
+                    body = details;
+                else
+                    body = notFound;
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json; charset=utf-8")
+                        .setBody(body);
+            }
+        });
+        server.start();
+
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .addNetworkInterceptor(new CacheControlInterceptor())
+                .connectionPool(new ConnectionPool(4, 5, TimeUnit.MINUTES))
+                .build();
+        MovieListItemTypeAdapter listItemTypeAdapter = new MovieListItemTypeAdapter();
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(Movie.class, new MovieTypeAdapter())
+                .registerTypeAdapter(MovieListItem.class, listItemTypeAdapter)
+                .registerTypeAdapter(MovieResponse.class, new MovieResponseTypeAdapter(listItemTypeAdapter))
+                .create();
+        omdbApi = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .client(okHttpClient)
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .build()
+                .create(OmdbApi.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public MovieResponse searchPage() throws IOException {
+        return bodyOf(omdbApi.getMovies(API_KEY, "batman", null, null, 1, RequestPriority.USER).execute());
+    }
+
+    @Benchmark
+    public Movie details() throws IOException {
+        return bodyOf(omdbApi.getMovieDetails("tt0372784", API_KEY, RequestPriority.USER).execute());
+    }
+
+    @Benchmark
+    public Movie detailsNotFound() throws IOException {
+        return bodyOf(omdbApi.getMovieDetails("tt0000000", API_KEY, RequestPriority.USER).execute());
+    }
+
+    private static <T> T bodyOf(Response<T> response) throws IOException {
+        if (!response.isSuccessful() || response.body() == null)
+            throw new IOException("Unexpected response " + response.code());
+        return response.body();
+    }
+}
@@ -0,0 +1,62 @@
+package com.hitachi.movieapp.benchmark;
+
+import com.hitachi.movieapp.data.model.MovieListItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds movie lists shaped like OMDb search results: mixed-case and accented titles, year
+ * ranges for series, a few unknown years, and a fixed seed so every run sorts the same input.
+ */
+final class SyntheticMovies {
+    private static final String[] WORDS = {
+            "the", "Dark", "knight", "Batman", "Begins", "return", "of", "L\u00e9gende", "Zorro", "empire",
+            "Strikes", "back", "night", "City", "\u00d6tzi", "river", "last", "Stand", "am\u00e9lie", "Rising"
+    };
+    private static final String[] TYPES = {"movie", "series", "episode", "game"};
+
+    private SyntheticMovies() {
+    }
+
+    static List<MovieListItem> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<MovieListItem> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MovieListItem movie = new MovieListItem(imdbID(i), title(random) + " " + i, year(random),
+                    TYPES[random.nextInt(TYPES.length)], "N/A");
+            movies.add(movie.withFavorite(random.nextInt(10) == 0));
+        }
+        return movies;
+    }
+
+    static String imdbID(int index) {
+        return String.format("tt%07d", index);
+    }
+
+    private static String title(Random random) {
+        int wordCount = 1 + random.nextInt(4);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            if (i > 0)
+                title.append(' ');
+            title.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    private static String year(Random random) {
+        int start = 1950 + random.nextInt(75);
+        switch (random.nextInt(10)) {
+            case 0:
+                return "N/A";
+            case 1:
+                return start + "\u2013" + (start + 1 + random.nextInt(8));
+            case 2:
+                return start + "\u2013";
+            default:
+                return String.valueOf(start);
+        }
+    }
+}